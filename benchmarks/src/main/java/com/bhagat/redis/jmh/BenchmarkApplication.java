@@ -0,0 +1,148 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.Beans;
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.cache.TwoTierCacheManager;
+import com.bhagat.redis.cache.TwoTierCacheProperties;
+import com.bhagat.redis.serializer.KryoRedisSerializer;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The application against an {@link EmbeddedRedisServer}, started once per benchmark trial. It runs without the
+ * startup runners ({@code create.enabled=false}), but with the two tier cache manager, and by default without the
+ * web server.
+ * <p>
+ * The embedded Redis is 2.8, without geo commands or streams. The benchmarks needing them run against the Redis
+ * given as {@code host:port} by the {@value #REDIS_PROPERTY} system property of the forked JVMs, whose database is
+ * emptied as well:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -jvmArgsAppend -Dbenchmark.redis=localhost:6379 GeoRadiusBenchmark
+ * </pre>
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+    static final int PORT = 6399;
+    static final String REDIS_PROPERTY = "benchmark.redis";
+
+    // null with an external Redis
+    private final Server server;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(Server server, ConfigurableApplicationContext context) {
+        this.server = server;
+        this.context = context;
+    }
+
+    /**
+     * @param properties added to the application properties, {@code name=value}
+     * @return the started application, on an empty database
+     * @throws IOException if Redis cannot start
+     */
+    public static BenchmarkApplication start(String... properties) throws IOException {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * @param web        {@link WebApplicationType#SERVLET} to serve the endpoints, on {@code server.port}
+     * @param properties added to the application properties, {@code name=value}
+     * @return the started application, on an empty database
+     * @throws IOException if Redis cannot start
+     */
+    public static BenchmarkApplication start(WebApplicationType web, String... properties) throws IOException {
+        String redis = System.getProperty(REDIS_PROPERTY);
+        Server server = redis == null ? new Server(PORT) : null;
+        if (server != null) {
+            server.start();
+        }
+        String host = redis == null ? "localhost" : redis.substring(0, redis.lastIndexOf(':'));
+        String port = redis == null ? String.valueOf(PORT) : redis.substring(redis.lastIndexOf(':') + 1);
+        // command line arguments, to override application.properties
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--create.enabled=false",
+                "--spring.redis.host=" + host,
+                "--spring.redis.port=" + port,
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(RedisAppMain.class, CacheConfiguration.class)
+                    .web(web)
+                    .run(args.toArray(new String[0]));
+            BenchmarkApplication application = new BenchmarkApplication(server, context);
+            application.flushDb();
+            return application;
+        } catch (RuntimeException ex) {
+            if (server != null) {
+                server.stop();
+            }
+            throw ex;
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public void flushDb() {
+        RedisConnection connection = getBean(RedisConnectionFactory.class).getConnection();
+        try {
+            connection.flushDb();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flushDb();
+            context.close();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * The cache manager the application declares only with {@code create.enabled}.
+     */
+    @Configuration
+    static class CacheConfiguration {
+
+        @Bean
+        public TwoTierCacheManager redisCache(RedisConnectionFactory cf, TwoTierCacheProperties properties, KryoRedisSerializer binary) {
+            return new Beans().redisCache(cf, properties, binary);
+        }
+    }
+
+    /**
+     * Starts and stops the JUnit rule outside of a test.
+     */
+    private static class Server extends EmbeddedRedisServer {
+
+        Server(int port) {
+            super(port);
+        }
+
+        void start() throws IOException {
+            before();
+        }
+
+        void stop() {
+            after();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bhagat.redis.jmh;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, taking the JMH command line options. Unless {@code -rf} and {@code -rff} say otherwise the
+ * results are also written as JSON to {@code jmh-result.json}, to compare the runs of two commits:
+ * <pre>
+ * mvn -DskipTests install &amp;&amp; mvn -f benchmarks package
+ * java -jar benchmarks/target/benchmarks.jar -rff before.json PersonRepositoryBenchmark
+ * </pre>
+ */
+public class BenchmarkRunner {
+    static final String DEFAULT_RESULT = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT);
+        }
+        new Runner(options.build()).run();
+    }
+}
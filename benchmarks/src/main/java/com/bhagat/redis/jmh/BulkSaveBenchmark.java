@@ -0,0 +1,89 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.model.Address;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts of new persons, {@value #BATCH} per invocation, saved one by one or with the pipelined {@code saveAll}.
+ * Scores are per person. Unlike the saves of {@link PersonRepositoryBenchmark}, no person exists yet, and the
+ * database is emptied before each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkSaveBenchmark {
+    static final int BATCH = 1_000;
+
+    private BenchmarkApplication application;
+    private PersonRepository repository;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        repository = application.getBean(PersonRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void flushDb() {
+        application.flushDb();
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Person> save() {
+        List<Person> persons = persons();
+        persons.forEach(repository::save);
+        return persons;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Iterable<Person> saveAll() {
+        return repository.saveAll(persons());
+    }
+
+    /**
+     * @return persons without ids, sharing 1000 last names and 100 cities
+     */
+    private List<Person> persons() {
+        List<Person> persons = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++, next++) {
+            Person person = new Person("first" + next, "last" + (next % 1000), next % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+            Address address = new Address();
+            address.setCity("city" + (next % 100));
+            address.setCountry("country");
+            person.setAddress(address);
+            persons.add(person);
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,169 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.connection.ConnectionProperties;
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.connection.ManualFlushPipeline;
+import com.bhagat.redis.connection.ReplicaConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes written through a {@link ManualFlushPipeline} by pipeline write batch size, {@value #BATCH} per flush, and
+ * read by 16 concurrent callers from the master or with {@code replicaPreferred}, against an embedded master on port
+ * {@value #MASTER_PORT} and its replica on {@value #REPLICA_PORT}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionBenchmark {
+    static final int MASTER_PORT = 6390;
+    static final int REPLICA_PORT = 6391;
+    static final int BATCH = 10_000;
+    static final int HASHES = 100_000;
+
+    private RedisServer master;
+    private RedisServer replica;
+    private LettuceConnectionFactory connectionFactory;
+
+    @Setup
+    public void setUp() {
+        master = RedisServer.builder().port(MASTER_PORT).build();
+        replica = RedisServer.builder().port(REPLICA_PORT).slaveOf("localhost", MASTER_PORT).build();
+        master.start();
+        replica.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", MASTER_PORT));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        try {
+            connectionFactory.destroy();
+        } finally {
+            replica.stop();
+            master.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void write(Writes writes) {
+        write(writes.dedicated, BATCH);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Map<Object, Object> read(Reads reads) {
+        return reads.template.opsForHash().entries("hash:" + ThreadLocalRandom.current().nextInt(HASHES));
+    }
+
+    static void write(DedicatedConnectionFactory dedicated, int count) {
+        try (ManualFlushPipeline pipeline = ManualFlushPipeline.open(dedicated)) {
+            for (int i = 0; i < count; i++) {
+                pipeline.add(pipeline.commands().hmset(bytes("hash:" + i), Collections.singletonMap(
+                        bytes("value"), bytes(String.valueOf(i)))));
+                if ((i + 1) % BATCH == 0) {
+                    pipeline.flush();
+                }
+            }
+            pipeline.flush();
+        }
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        @Param({"0", "100", "1000"})
+        public int writeBatchSize;
+
+        private DedicatedConnectionFactory dedicated;
+
+        @Setup
+        public void setUp(ConnectionBenchmark benchmark) {
+            ConnectionProperties properties = new ConnectionProperties();
+            properties.setPipelineWriteBatchSize(writeBatchSize);
+            dedicated = new DedicatedConnectionFactory(benchmark.connectionFactory, properties);
+            dedicated.afterPropertiesSet();
+        }
+
+        @TearDown
+        public void tearDown() {
+            dedicated.destroy();
+        }
+    }
+
+    /**
+     * {@value #HASHES} hashes, written once and awaited on the replica.
+     */
+    @State(Scope.Benchmark)
+    public static class Reads {
+        @Param({"master", "replicaPreferred"})
+        public String readFrom;
+
+        private ReplicaConnectionFactory replicas;
+        private StringRedisTemplate template;
+
+        @Setup
+        public void setUp(ConnectionBenchmark benchmark) throws InterruptedException {
+            DedicatedConnectionFactory dedicated = new DedicatedConnectionFactory(benchmark.connectionFactory, new ConnectionProperties());
+            dedicated.afterPropertiesSet();
+            try {
+                write(dedicated, HASHES);
+            } finally {
+                dedicated.destroy();
+            }
+            awaitReplica();
+            ConnectionProperties properties = new ConnectionProperties();
+            properties.setReadFrom(readFrom);
+            replicas = new ReplicaConnectionFactory(benchmark.connectionFactory, properties);
+            replicas.afterPropertiesSet();
+            template = new StringRedisTemplate(replicas.getConnectionFactory());
+        }
+
+        @TearDown
+        public void tearDown() {
+            replicas.destroy();
+        }
+
+        private static void awaitReplica() throws InterruptedException {
+            LettuceConnectionFactory replica = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", REPLICA_PORT));
+            replica.afterPropertiesSet();
+            try {
+                StringRedisTemplate template = new StringRedisTemplate(replica);
+                while (!template.hasKey("hash:" + (HASHES - 1))) {
+                    Thread.sleep(100);
+                }
+            } finally {
+                replica.destroy();
+            }
+        }
+    }
+}
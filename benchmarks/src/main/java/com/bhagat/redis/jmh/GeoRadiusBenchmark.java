@@ -0,0 +1,93 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.model.Address;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles of radius searches returning {@value #RESULTS} persons, by 8 concurrent callers, with the
+ * persons spread uniformly over a one degree square. Needs Redis 3.2 or later, see {@link BenchmarkApplication}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class GeoRadiusBenchmark {
+    static final double MIN_LON = 13.0;
+    static final double MIN_LAT = 52.0;
+    static final double EARTH_RADIUS_KM = 6372.797560856;
+    static final int RESULTS = 100;
+    static final int CHUNK = 10_000;
+
+    @Param({"100000", "1000000"})
+    public int persons;
+
+    private BenchmarkApplication application;
+    private PersonRepository repository;
+    private Distance radius;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        repository = application.getBean(PersonRepository.class);
+        Random random = new Random(42);
+        List<Person> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < persons; i++) {
+            Person person = new Person("first" + i, "last" + (i % 1000), i % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+            Address address = new Address();
+            address.setCity("city" + (i % 100));
+            address.setLocation(new Point(MIN_LON + random.nextDouble(), MIN_LAT + random.nextDouble()));
+            person.setAddress(address);
+            chunk.add(person);
+            if (chunk.size() == CHUNK) {
+                repository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        repository.saveAll(chunk);
+        // radius holding RESULTS persons on average, with a margin so that nearly every query fills its limit
+        double areaKm2 = Math.toRadians(1) * EARTH_RADIUS_KM * Math.toRadians(1) * EARTH_RADIUS_KM
+                * Math.cos(Math.toRadians(MIN_LAT + 0.5));
+        radius = new Distance(1.5 * Math.sqrt(RESULTS * areaKm2 / (persons * Math.PI)), Metrics.KILOMETERS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public GeoResults<Person> findByAddressLocationNear() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Point center = new Point(MIN_LON + 0.1 + random.nextDouble() * 0.8, MIN_LAT + 0.1 + random.nextDouble() * 0.8);
+        return repository.findByAddress_LocationNear(center, radius, RESULTS);
+    }
+}
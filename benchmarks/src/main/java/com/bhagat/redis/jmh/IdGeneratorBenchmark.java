@@ -0,0 +1,64 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.id.BlockIdGenerator;
+import com.bhagat.redis.id.IdGenerator;
+import com.bhagat.redis.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids generated per second by 8 threads sharing one generator: the block generator with {@code block-<size>}, one
+ * {@code INCRBY} per block, and the snowflake generator, without Redis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    static final String BLOCK = "block-";
+
+    @Param({"block-100", "block-1000", "block-10000", "snowflake"})
+    public String generator;
+
+    private BenchmarkApplication application;
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        if (generator.startsWith(BLOCK)) {
+            int blockSize = Integer.parseInt(generator.substring(BLOCK.length()));
+            idGenerator = new BlockIdGenerator(application.getBean(StringRedisTemplate.class), "ids:benchmark", blockSize);
+        } else {
+            idGenerator = new SnowflakeIdGenerator(0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return idGenerator.nextId();
+    }
+}
@@ -0,0 +1,75 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.bloom.BloomFilters;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hits of the {@code order-by-id} cache through {@link OrderService#byId(Long)}, with and without the near tier.
+ * The orders are put in the cache and their ids in the Bloom filter up front, {@code byId} itself takes seconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderCacheBenchmark {
+    static final int ORDERS = 1_000;
+    static final int LINE_ITEMS = 5;
+
+    @Param({"true", "false"})
+    public boolean near;
+
+    private BenchmarkApplication application;
+    private OrderService orderService;
+    private long next;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start("app.cache.near.enabled=" + near);
+        orderService = application.getBean(OrderService.class);
+        Cache cache = application.getBean(CacheManager.class).getCache("order-by-id");
+        BloomFilters bloomFilters = application.getBean(BloomFilters.class);
+        for (long id = 0; id < ORDERS; id++) {
+            List<LineItem> lineItems = new ArrayList<>(LINE_ITEMS);
+            for (long j = 0; j < LINE_ITEMS; j++) {
+                lineItems.add(new LineItem(id, id * LINE_ITEMS + j, "line item " + j + " of order " + id));
+            }
+            cache.put(id, new Order(id, new Date(), lineItems));
+            bloomFilters.put(Order.class, id);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Order byId() {
+        next = (next + 1) % ORDERS;
+        return orderService.byId(next);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.repository.OrderRepository;
+import com.bhagat.redis.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of {@link OrderRepository} on {@value #ORDERS} orders one second apart, each referencing
+ * {@value #LINE_ITEMS} line items, so every order read also resolves its {@code @Reference}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderRepositoryBenchmark {
+    static final int ORDERS = 1_000;
+    static final int LINE_ITEMS = 5;
+    static final long START = 1_500_000_000_000L;
+
+    private BenchmarkApplication application;
+    private OrderRepository repository;
+    private final List<Long> ids = new ArrayList<>(ORDERS);
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        repository = application.getBean(OrderRepository.class);
+        OrderService orderService = application.getBean(OrderService.class);
+        for (int i = 0; i < ORDERS; i++) {
+            List<LineItem> lineItems = new ArrayList<>(LINE_ITEMS);
+            for (int j = 0; j < LINE_ITEMS; j++) {
+                lineItems.add(new LineItem(null, null, "line item " + j + " of order " + i));
+            }
+            ids.add(orderService.placeOrder(new Order(null, when(i), null), lineItems).getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Optional<Order> findById() {
+        return repository.findById(ids.get(next()));
+    }
+
+    @Benchmark
+    public Collection<Order> findByWhen() {
+        return repository.findByWhen(when(next()));
+    }
+
+    /**
+     * A range of ten orders.
+     */
+    @Benchmark
+    public List<Order> findByWhenBetween() {
+        int i = next();
+        return repository.findByWhenBetween(when(i), when(i + 9));
+    }
+
+    private int next() {
+        next = (next + 1) % ORDERS;
+        return next;
+    }
+
+    private static Date when(int i) {
+        return new Date(START + i * 1000L);
+    }
+}
@@ -0,0 +1,151 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.model.Address;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and queries of {@link PersonRepository}, on {@value #PERSONS} persons sharing {@value #LASTNAMES} last
+ * names and cities. Saves overwrite existing persons, so the data set keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonRepositoryBenchmark {
+    static final int PERSONS = 10_000;
+    static final int LASTNAMES = 100;
+    static final int BATCH = 100;
+    static final int PAGE = 20;
+
+    private BenchmarkApplication application;
+    private PersonRepository repository;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        repository = application.getBean(PersonRepository.class);
+        List<Person> persons = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            persons.add(person(i));
+        }
+        repository.saveAll(persons);
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Person save() {
+        return repository.save(person(next()));
+    }
+
+    /**
+     * Pipelined bulk save of {@value #BATCH} persons.
+     */
+    @Benchmark
+    public Iterable<Person> saveAll() {
+        List<Person> persons = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            persons.add(person(next()));
+        }
+        return repository.saveAll(persons);
+    }
+
+    @Benchmark
+    public Optional<Person> findById() {
+        return repository.findById(id(next()));
+    }
+
+    /**
+     * An id never saved, ruled out by the Bloom filter.
+     */
+    @Benchmark
+    public Optional<Person> findByIdMissing() {
+        return repository.findById("missing-" + next());
+    }
+
+    @Benchmark
+    public List<Person> findByLastname() {
+        return repository.findByLastname(lastname(next()));
+    }
+
+    @Benchmark
+    public List<Person> findByFirstnameAndLastname() {
+        int i = next();
+        return repository.findByFirstnameAndLastname(firstname(i), lastname(i));
+    }
+
+    @Benchmark
+    public List<Person> findByAddressCity() {
+        return repository.findByAddress_City(city(next()));
+    }
+
+    @Benchmark
+    public Page<Person> findPersonByLastnamePage() {
+        return repository.findPersonByLastname(lastname(next()), PageRequest.of(2, PAGE));
+    }
+
+    @Benchmark
+    public Slice<Person> findPersonByLastnameAfter() {
+        int i = next();
+        return repository.findPersonByLastname(lastname(i), id(i), PAGE);
+    }
+
+    private int next() {
+        next = (next + 1) % PERSONS;
+        return next;
+    }
+
+    private static Person person(int i) {
+        Person person = new Person(firstname(i), lastname(i), i % 2 == 0 ? Gender.FEMALE : Gender.MALE);
+        person.setId(id(i));
+        Address address = new Address();
+        address.setCity(city(i));
+        address.setCountry("westeros");
+        person.setAddress(address);
+        return person;
+    }
+
+    private static String id(int i) {
+        return String.format("person-%05d", i);
+    }
+
+    private static String firstname(int i) {
+        return "firstname-" + i / LASTNAMES;
+    }
+
+    private static String lastname(int i) {
+        return "lastname-" + i % LASTNAMES;
+    }
+
+    private static String city(int i) {
+        return "city-" + i % LASTNAMES;
+    }
+}
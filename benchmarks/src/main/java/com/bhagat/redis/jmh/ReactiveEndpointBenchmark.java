@@ -0,0 +1,87 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders read through {@code /api/orders/{id}}, blocking a request thread on the repository, and
+ * {@code /reactive/orders/{id}}, on the reactive API, by 200 concurrent clients against a Tomcat with
+ * {@value #REQUEST_THREADS} request threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(200)
+@Fork(1)
+public class ReactiveEndpointBenchmark {
+    static final int PORT = 8089;
+    static final int REQUEST_THREADS = 20;
+    static final int ORDERS = 1_000;
+
+    @Param({"/api/orders/", "/reactive/orders/"})
+    public String path;
+
+    private BenchmarkApplication application;
+    private long[] ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "server.port=" + PORT, "server.tomcat.max-threads=" + REQUEST_THREADS);
+        OrderService orderService = application.getBean(OrderService.class);
+        ids = new long[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            ids[i] = orderService.placeOrder(new Order(null, new Date(), null), Arrays.asList(
+                    new LineItem(null, null, "first"), new LineItem(null, null, "second"))).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public int get() throws IOException {
+        long id = ids[ThreadLocalRandom.current().nextInt(ORDERS)];
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + PORT + path + id).openConnection();
+        if (connection.getResponseCode() != 200) {
+            throw new IOException(path + id + ": " + connection.getResponseCode());
+        }
+        int length = 0;
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                // drained so the connection is kept alive
+                length += read;
+            }
+        }
+        return length;
+    }
+}
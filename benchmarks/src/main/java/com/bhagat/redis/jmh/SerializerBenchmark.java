@@ -0,0 +1,101 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.serializer.KryoRedisSerializer;
+import com.bhagat.redis.serializer.TypedJsonRedisSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of an order with its line items by the value serializers, no Redis involved. The size of
+ * the serialized order is reported next to the encoding time, as the {@code serialize:bytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"jdk", "jackson", "jackson-typed", "kryo", "kryo-lz4"})
+    public String serializer;
+
+    @Param({"1", "20"})
+    public int lineItems;
+
+    private RedisSerializer<Object> redisSerializer;
+    private Order order;
+    private byte[] bytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        switch (serializer) {
+            case "jdk":
+                redisSerializer = new JdkSerializationRedisSerializer();
+                break;
+            case "jackson":
+                redisSerializer = (RedisSerializer<Object>) (RedisSerializer<?>) new Jackson2JsonRedisSerializer<>(Order.class);
+                break;
+            case "jackson-typed":
+                redisSerializer = (RedisSerializer<Object>) (RedisSerializer<?>) new TypedJsonRedisSerializer<>(new ObjectMapper(), Order.class);
+                break;
+            case "kryo":
+                redisSerializer = new KryoRedisSerializer(0);
+                break;
+            case "kryo-lz4":
+                redisSerializer = new KryoRedisSerializer(64);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown serializer " + serializer);
+        }
+        List<LineItem> items = new ArrayList<>(lineItems);
+        for (long i = 0; i < lineItems; i++) {
+            items.add(new LineItem(42L, i, "line item number " + i));
+        }
+        order = new Order(42L, new Date(), items);
+        bytes = redisSerializer.serialize(order);
+    }
+
+    @Benchmark
+    public byte[] serialize(Size size) {
+        byte[] serialized = redisSerializer.serialize(order);
+        size.bytes = serialized.length;
+        return serialized;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(bytes);
+    }
+
+    /**
+     * Bytes per serialized order. Set rather than added up, so the reported events are the size of one value.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+    }
+}
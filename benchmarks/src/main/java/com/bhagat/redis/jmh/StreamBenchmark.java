@@ -0,0 +1,90 @@
+package com.bhagat.redis.jmh;
+
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.stream.StreamConsumer;
+import com.bhagat.redis.stream.StreamProperties;
+import com.bhagat.redis.stream.StreamPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entries per second through one stream, in batches of {@value #BATCH}: published by {@link StreamPublisher#publishAll},
+ * and with {@code consume} also handled by one {@link StreamConsumer} before the next batch. The node target is
+ * 100k entries per second consumed. Streams need Redis 5 or later, see {@link BenchmarkApplication}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamBenchmark {
+    static final String STREAM = "benchmark-stream";
+    static final int BATCH = 1_000;
+
+    @Param({"false", "true"})
+    public boolean consume;
+
+    private BenchmarkApplication application;
+    private StreamPublisher publisher;
+    private StreamConsumer consumer;
+    private final Semaphore consumed = new Semaphore(0);
+    private final List<Map<String, String>> batch = new ArrayList<>(BATCH);
+
+    @Setup
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        publisher = application.getBean(StreamPublisher.class);
+        if (consume) {
+            consumer = new StreamConsumer(application.getBean(LettuceConnectionFactory.class),
+                    application.getBean(DedicatedConnectionFactory.class), STREAM, "benchmark",
+                    (id, body) -> consumed.release(), application.getBean(StreamProperties.class).getConsumer());
+            consumer.start();
+            if (!consumer.isRunning()) {
+                application.close();
+                throw new IllegalStateException("Streams need Redis 5, set -D" + BenchmarkApplication.REDIS_PROPERTY);
+            }
+        }
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(Collections.singletonMap("n", String.valueOf(i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (consumer != null) {
+            consumer.stop();
+        }
+        application.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<String> publishAll() throws InterruptedException {
+        List<String> ids = publisher.publishAll(STREAM, batch);
+        if (consume && !consumed.tryAcquire(BATCH, 1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Batch not consumed within a minute");
+        }
+        return ids;
+    }
+}
@@ -1,26 +1,40 @@
 package com.bhagat.redis;
 
+import com.bhagat.redis.bloom.BloomFilters;
+import com.bhagat.redis.cache.CacheInvalidationChannel;
+import com.bhagat.redis.cache.EvictingRedisCacheWriter;
+import com.bhagat.redis.cache.TwoTierCacheManager;
+import com.bhagat.redis.cache.TwoTierCacheProperties;
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.listener.MessageDispatcher;
 import com.bhagat.redis.model.LineItem;
 import com.bhagat.redis.model.Order;
 import com.bhagat.redis.model.Person;
-import com.bhagat.redis.repository.LineItemRepository;
 import com.bhagat.redis.repository.OrderRepository;
+import com.bhagat.redis.serializer.KryoRedisSerializer;
+import com.bhagat.redis.serializer.RedisTemplates;
+import com.bhagat.redis.serializer.TypedJsonRedisSerializer;
 import com.bhagat.redis.service.OrderService;
+import com.bhagat.redis.stream.StreamConsumer;
+import com.bhagat.redis.stream.StreamMessageHandler;
+import com.bhagat.redis.stream.StreamProperties;
+import com.bhagat.redis.stream.StreamPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.java.Log;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
-import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
-import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Instant;
 import java.util.*;
@@ -34,9 +48,12 @@ public class Beans {
     private final String topic = "chat";
 
     /**
-     * RedisTemplate bean
+     * RedisTemplate bean - {@code String} keys, Kryo values of any type, still reading the {@link Person} JSON
+     * written before. Use {@link RedisTemplates} for a template typed by value.
      *
      * @param redisConnectionFactory
+     * @param binary
+     * @param objectMapper
      * @return
      */
     @Bean
@@ -44,10 +61,11 @@ public class Beans {
             value="create.enabled",
             havingValue = "true",
             matchIfMissing = true)
-    public RedisTemplate<Person, String> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
-        RedisTemplate template = new RedisTemplate();
-        RedisSerializer<Person> values = new Jackson2JsonRedisSerializer<>(Person.class);
-        RedisSerializer<String> keys = new StringRedisSerializer();
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory, KryoRedisSerializer binary,
+                                                       ObjectMapper objectMapper) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        RedisSerializer<Object> values = binary.withLegacy(new TypedJsonRedisSerializer<>(objectMapper, Person.class));
+        RedisSerializer<String> keys = RedisSerializer.string();
 
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(keys);
@@ -59,23 +77,29 @@ public class Beans {
 
 
     /**
-     * Cache Manager Implementation - RedisCacheManager
+     * Cache Manager Implementation - in-process near cache in front of RedisCacheManager
      */
     @Bean
     @ConditionalOnProperty(
             value="create.enabled",
             havingValue = "true",
             matchIfMissing = true)
-    public CacheManager redisCache(RedisConnectionFactory cf) {
-        return RedisCacheManager
-                .builder(cf)
+    public TwoTierCacheManager redisCache(RedisConnectionFactory cf, TwoTierCacheProperties properties, KryoRedisSerializer binary) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration
+                .defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(binary));
+        RedisCacheManager redisCacheManager = RedisCacheManager
+                .builder(new EvictingRedisCacheWriter(cf, properties))
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(properties.toRedisCacheConfigurations(defaults))
                 .build();
+        return new TwoTierCacheManager(redisCacheManager, cf, properties);
     }
 
     /**
      * Repository runner - it will insert LineItems and Order in Redis on application startup
      *
-     * @param lineItemRepository
+     * @param orderService
      * @param orderRepository
      * @return
      */
@@ -84,32 +108,26 @@ public class Beans {
             value="create.enabled",
             havingValue = "true",
             matchIfMissing = true)
-    public ApplicationRunner repositories(final LineItemRepository lineItemRepository, final OrderRepository orderRepository) {
+    public ApplicationRunner repositories(final OrderService orderService, final OrderRepository orderRepository) {
         return appRunner("repositories", args -> {
-            //Generate Order Id
-            Long orderId = generateId();
             List<LineItem> lineItems = Arrays.asList(
-                    new LineItem(orderId, generateId(), "iPhone 11"),
-                    new LineItem(orderId, generateId(), "MacBook Air"),
-                    new LineItem(orderId, generateId(), "iPad")
+                    new LineItem(null, null, "iPhone 11"),
+                    new LineItem(null, null, "MacBook Air"),
+                    new LineItem(null, null, "iPad")
             );
 
-            lineItems
-                    .stream()
-                    .map(lineItemRepository::save)
-                    .forEach(li -> log.info(li.toString()));
-
-            Order order = new Order(orderId, new Date(), lineItems);
-            orderRepository.save(order);
+            Order order = orderService.placeOrder(new Order(null, new Date(), null), lineItems);
+            lineItems.forEach(li -> log.info(li.toString()));
             Collection<Order> orders = orderRepository.findByWhen(order.getWhen());
             orders.forEach(ord -> log.info("Order: " + ord.toString()));
         });
     }
 
     /**
-     * Redis pub/sub instance
+     * Publishes to the chat stream, read by {@link #chatConsumer}
      *
-     * @param rt
+     * @param publisher
+     * @param chatConsumer
      * @return
      */
     @Bean
@@ -117,16 +135,41 @@ public class Beans {
             value="create.enabled",
             havingValue = "true",
             matchIfMissing = true)
-    public ApplicationRunner pubSub(final RedisTemplate<String, String> rt) {
+    public ApplicationRunner pubSub(final StreamPublisher publisher, final StreamConsumer chatConsumer) {
         return appRunner("publish/subscribe", args -> {
-            rt.convertAndSend(topic, "Hello world @" + Instant.now().toString());
+            if (chatConsumer.isRunning()) {
+                publisher.publish(topic, Collections.singletonMap("text", "Hello world @" + Instant.now().toString()));
+            }
         });
     }
 
     /**
-     * Redis Message Listener Container Bean
+     * Chat stream consumer, logging the messages
+     *
+     * @param cf
+     * @param dedicated
+     * @param properties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(
+            value="create.enabled",
+            havingValue = "true",
+            matchIfMissing = true)
+    public StreamConsumer chatConsumer(final LettuceConnectionFactory cf, final DedicatedConnectionFactory dedicated,
+                                       final StreamProperties properties) {
+        StreamMessageHandler handler = (id, body) -> log.info("Message from '" + topic + "': " + body.get("text"));
+        return new StreamConsumer(cf, dedicated, topic, "chat-loggers", handler, properties.getConsumer());
+    }
+
+    /**
+     * Redis Message Listener Container Bean, for the cache invalidations. Messages are only queued on the receiving
+     * thread, the {@link MessageDispatcher} runs the listeners. An invalidation dropped by a full queue clears the
+     * near tier of its cache.
      *
      * @param cf
+     * @param cacheManager
+     * @param dispatcher
      * @return an instance of RedisMessageListenerContainer
      */
     @Bean
@@ -134,21 +177,23 @@ public class Beans {
             value="create.enabled",
             havingValue = "true",
             matchIfMissing = true)
-    public RedisMessageListenerContainer fcMessageListener(final RedisConnectionFactory cf) {
-        MessageListener ml = (message, pattern) -> {
-            String str = new String(message.getBody());
-            log.info("Message from '" + topic + "': " + str);
-        };
+    public RedisMessageListenerContainer fcMessageListener(final RedisConnectionFactory cf, final TwoTierCacheManager cacheManager,
+                                                           final MessageDispatcher dispatcher) {
         RedisMessageListenerContainer mlc = new RedisMessageListenerContainer();
-        mlc.addMessageListener(ml, new PatternTopic(this.topic));
+        CacheInvalidationChannel invalidationChannel = cacheManager.getInvalidationChannel();
+        mlc.addMessageListener(dispatcher.ordered("cache-invalidation", invalidationChannel, invalidationChannel::onDropped),
+                invalidationChannel.getTopic());
         mlc.setConnectionFactory(cf);
+        mlc.setTaskExecutor(new SyncTaskExecutor());
+        mlc.setSubscriptionExecutor(new SimpleAsyncTaskExecutor("redis-subscription-"));
         return mlc;
     }
 
     /**
-     * Cache Runner
+     * Cache Runner, on an id put in the order Bloom filter first, otherwise it is neither loaded nor cached
      *
      * @param orderService
+     * @param bloomFilters
      * @return
      */
     @Bean
@@ -156,8 +201,9 @@ public class Beans {
             value="create.enabled",
             havingValue = "true",
             matchIfMissing = true)
-    public ApplicationRunner cache(final OrderService orderService) {
+    public ApplicationRunner cache(final OrderService orderService, final BloomFilters bloomFilters) {
         return appRunner("caching", a -> {
+            bloomFilters.put(Order.class, 1L);
             Runnable measure = () -> orderService.byId(1L);
             log.info("first: " + measureProcessingTime(measure));
             log.info("two: " + measureProcessingTime(measure));
@@ -177,14 +223,6 @@ public class Beans {
         };
     }
 
-    /**
-     * @return
-     */
-    private Long generateId() {
-        long tmp = new Random().nextLong();
-        return Math.max(tmp, tmp * -1);
-    }
-
     /**
      * @param r
      * @return
@@ -0,0 +1,39 @@
+package com.bhagat.redis.aggregate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ *
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.aggregates.enabled", havingValue = "true", matchIfMissing = true)
+public class AggregateConfiguration {
+
+    @Bean
+    public OrderAggregates orderAggregates(LettuceConnectionFactory connectionFactory, AggregateProperties properties) {
+        return new OrderAggregates(connectionFactory, properties);
+    }
+
+    /**
+     * Compacts the minute buckets of completed hours in the background
+     *
+     * @param orderAggregates
+     * @param properties
+     * @param meterRegistry
+     * @return
+     */
+    @Bean
+    public OrderAggregateRollup orderAggregateRollup(OrderAggregates orderAggregates, AggregateProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new OrderAggregateRollup(orderAggregates, properties, meterRegistry);
+    }
+
+    @Bean
+    public OrderAggregatesEndpoint orderAggregatesEndpoint(OrderAggregates orderAggregates) {
+        return new OrderAggregatesEndpoint(orderAggregates);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bhagat.redis.aggregate;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link OrderAggregates} written with each order and of their {@link OrderAggregateRollup}.
+ */
+@Data
+@ConfigurationProperties("app.aggregates")
+public class AggregateProperties {
+    private boolean enabled = true;
+    /**
+     * How long minute buckets are kept, counted from the start of their hour. Rolled up hours no longer have any,
+     * the retention only bounds what is left when the rollup does not run.
+     */
+    private Duration minuteRetention = Duration.ofDays(2);
+    /**
+     * How long hour buckets are kept, counted from the start of the hour, zero to keep them.
+     */
+    private Duration hourRetention = Duration.ofDays(90);
+    /**
+     * How often completed hours are rolled up.
+     */
+    private Duration rollupInterval = Duration.ofMinutes(1);
+    /**
+     * How long after its end an hour is rolled up, orders placed later for that hour go straight to its hour bucket.
+     */
+    private Duration rollupDelay = Duration.ofMinutes(5);
+    /**
+     * Maximum number of buckets read by one query.
+     */
+    private int maxBuckets = 10_000;
+}
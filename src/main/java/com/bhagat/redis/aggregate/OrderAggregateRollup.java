@@ -0,0 +1,81 @@
+package com.bhagat.redis.aggregate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link OrderAggregates#rollUp(Instant)} every {@code rollupInterval} on a background thread. Every node may
+ * run it, an hour is only rolled up once.
+ */
+@Log
+public class OrderAggregateRollup implements SmartLifecycle {
+    private final OrderAggregates aggregates;
+    private final AggregateProperties properties;
+    private final Counter rolledUp;
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public OrderAggregateRollup(OrderAggregates aggregates, AggregateProperties properties, MeterRegistry meterRegistry) {
+        this.aggregates = aggregates;
+        this.properties = properties;
+        this.rolledUp = Counter.builder("redis.aggregates.rolled-up").baseUnit("hours").register(meterRegistry);
+        FunctionCounter.builder("redis.aggregates.expired", aggregates, OrderAggregates::getExpiredHours)
+                .description("Hours whose minute buckets expired before they were rolled up")
+                .baseUnit("hours")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aggregate-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rollUp, properties.getRollupInterval().toMillis(),
+                properties.getRollupInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void rollUp() {
+        try {
+            int hours = aggregates.rollUp(Instant.now());
+            if (hours > 0) {
+                rolledUp.increment(hours);
+                log.fine(() -> "Rolled up " + hours + " hours of order aggregates");
+            }
+        } catch (RuntimeException ex) {
+            log.warning("Cannot roll up order aggregates: " + ex);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.bhagat.redis.aggregate;
+
+import com.bhagat.redis.connection.RedisFutures;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import lombok.extern.java.Log;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order counts per time bucket, written with the orders instead of computed from them, so a query reads one hash and
+ * one HyperLogLog per bucket whatever the number of orders.
+ * <p>
+ * {@code scripts/place-order.lua} increments the {@code orders} and {@code lineItems} fields of the hash of the
+ * minute of the order, {@code agg:orders:minute:<start>}, and adds the customer to its HyperLogLog,
+ * {@code agg:orders:minute:<start>:customers}, in the same step as the order is written. {@link #rollUp(Instant)}
+ * then compacts the minutes of each completed hour into the hour bucket, {@code agg:orders:hour:<start>}, and moves
+ * the {@code agg:orders:rolled-up} watermark past it; orders placed later for a rolled up hour go straight to its
+ * hour bucket. Bucket starts are epoch milliseconds, buckets are aligned on UTC.
+ * <p>
+ * Hour and day buckets read the hour buckets, plus the minute buckets of the hours not rolled up yet, within the
+ * {@code minuteRetention} and up to now, so a query reads a bounded number of minute buckets however stale the
+ * watermark. Minute buckets of rolled up hours are gone: minute resolution is only available for the recent hours.
+ */
+@Log
+public class OrderAggregates {
+    static final String PREFIX = "agg:orders:";
+    static final String WATERMARK_KEY = PREFIX + "rolled-up";
+    static final String ORDERS = "orders";
+    static final String LINE_ITEMS = "lineItems";
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final RedisSerializer<byte[]> RAW = RedisSerializer.byteArray();
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<Long> RAW_LONG = (RedisSerializer) RAW;
+
+    /**
+     * Size of the buckets of a query.
+     */
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+    }
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final AggregateProperties properties;
+    private final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+    private final DefaultRedisScript<Long> rollup = new DefaultRedisScript<>();
+    private final AtomicLong expiredHours = new AtomicLong();
+
+    public OrderAggregates(LettuceConnectionFactory connectionFactory, AggregateProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.template.setConnectionFactory(connectionFactory);
+        this.template.setEnableDefaultSerializer(false);
+        this.template.afterPropertiesSet();
+        this.rollup.setLocation(new ClassPathResource("scripts/aggregate-rollup.lua"));
+        this.rollup.setResultType(Long.class);
+    }
+
+    /**
+     * Append the keys and arguments updating the buckets of an order to those of {@code scripts/place-order.lua}.
+     *
+     * @param when       time of the order
+     * @param lineItems  number of line items of the order
+     * @param customerId {@literal null} when unknown, the order is then not counted in the distinct customers
+     * @param keys
+     * @param args
+     */
+    public void arguments(Date when, int lineItems, @Nullable String customerId, List<byte[]> keys, List<byte[]> args) {
+        long hour = floor(when.getTime(), HOUR_MILLIS);
+        String minuteKey = minuteKey(floor(when.getTime(), MINUTE_MILLIS));
+        keys.add(toBytes(WATERMARK_KEY));
+        keys.add(toBytes(minuteKey));
+        keys.add(toBytes(customersKey(minuteKey)));
+        keys.add(toBytes(hourKey(hour)));
+        keys.add(toBytes(customersKey(hourKey(hour))));
+        args.add(toBytes(hour));
+        args.add(toBytes(lineItems));
+        args.add(toBytes(customerId != null ? customerId : ""));
+        args.add(toBytes(hour + properties.getMinuteRetention().toMillis()));
+        args.add(toBytes(hourExpireAt(hour)));
+    }
+
+    /**
+     * @param granularity
+     * @param from        start of the first bucket, rounded down to the granularity
+     * @param to          end of the last bucket, excluded
+     * @return one bucket per {@code granularity} from {@code from} to {@code to}, empty ones included
+     */
+    public List<OrderBucket> buckets(Granularity granularity, Instant from, Instant to) {
+        List<Long> starts = starts(granularity, from, to);
+        long minutesFrom = minutesFrom();
+        long now = System.currentTimeMillis();
+        List<List<String>> keys = new ArrayList<>(starts.size());
+        for (long start : starts) {
+            keys.add(bucketKeys(granularity, start, minutesFrom, now));
+        }
+        List<Object> replies = read(keys);
+        List<OrderBucket> buckets = new ArrayList<>(starts.size());
+        int reply = 0;
+        for (int i = 0; i < starts.size(); i++) {
+            OrderBucket bucket = new OrderBucket(Instant.ofEpochMilli(starts.get(i)), 0, 0, 0);
+            reply = sum(replies, reply, keys.get(i).size(), bucket);
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    /**
+     * Unlike summing {@link #buckets(Granularity, Instant, Instant)}, customers of several buckets are counted
+     * once.
+     *
+     * @param granularity resolution of the range bounds
+     * @param from        rounded down to the granularity
+     * @param to          excluded
+     * @return the orders of the whole range
+     */
+    public OrderBucket total(Granularity granularity, Instant from, Instant to) {
+        List<Long> starts = starts(granularity, from, to);
+        long minutesFrom = minutesFrom();
+        long now = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>();
+        for (long start : starts) {
+            keys.addAll(bucketKeys(granularity, start, minutesFrom, now));
+        }
+        OrderBucket total = new OrderBucket(Instant.ofEpochMilli(starts.isEmpty() ? from.toEpochMilli() : starts.get(0)), 0, 0, 0);
+        if (!keys.isEmpty()) {
+            sum(read(Collections.singletonList(keys)), 0, keys.size(), total);
+        }
+        return total;
+    }
+
+    /**
+     * Roll up, in order, the hours completed at least {@code rollupDelay} ago that are not rolled up yet. Nodes
+     * rolling up concurrently skip the hours already done by another. Hours whose minute buckets expired before they
+     * were rolled up, after the rollup stopped for longer than the {@code minuteRetention}, are skipped and counted
+     * in {@link #getExpiredHours()}: their orders are lost.
+     *
+     * @param now
+     * @return the number of hours rolled up
+     */
+    public int rollUp(Instant now) {
+        long watermark = watermark();
+        long oldest = oldestMinutes(now.toEpochMilli());
+        if (watermark > 0 && watermark < oldest) {
+            long expired = (oldest - watermark) / HOUR_MILLIS;
+            expiredHours.addAndGet(expired);
+            log.warning("The minute buckets of " + expired + " hours of order aggregates from "
+                    + Instant.ofEpochMilli(watermark) + " expired before they were rolled up, their orders are lost");
+        }
+        long hour = Math.max(watermark, oldest);
+        long completedBefore = now.toEpochMilli() - properties.getRollupDelay().toMillis();
+        int rolledUp = 0;
+        for (; hour + HOUR_MILLIS <= completedBefore; hour += HOUR_MILLIS) {
+            List<byte[]> keys = new ArrayList<>(3 + 120);
+            keys.add(toBytes(WATERMARK_KEY));
+            keys.add(toBytes(hourKey(hour)));
+            keys.add(toBytes(customersKey(hourKey(hour))));
+            for (long minute = hour; minute < hour + HOUR_MILLIS; minute += MINUTE_MILLIS) {
+                keys.add(toBytes(minuteKey(minute)));
+                keys.add(toBytes(customersKey(minuteKey(minute))));
+            }
+            Long done = template.execute(rollup, RAW, RAW_LONG, keys, toBytes(hour), toBytes(hour + HOUR_MILLIS),
+                    toBytes(hourExpireAt(hour)));
+            if (done != null && done == 1) {
+                rolledUp++;
+            }
+        }
+        return rolledUp;
+    }
+
+    /**
+     * @return the hours whose minute buckets expired before they were rolled up
+     */
+    public long getExpiredHours() {
+        return expiredHours.get();
+    }
+
+    /**
+     * @return the end of the last hour rolled up, 0 if none
+     */
+    long watermark() {
+        byte[] watermark = template.execute((RedisCallback<byte[]>) connection -> connection.get(toBytes(WATERMARK_KEY)));
+        return watermark != null ? Long.parseLong(new String(watermark, StandardCharsets.UTF_8)) : 0;
+    }
+
+    private List<Long> starts(Granularity granularity, Instant from, Instant to) {
+        Instant first = from.truncatedTo(granularity.getUnit());
+        long count = (to.toEpochMilli() - first.toEpochMilli() + granularity.getUnit().getDuration().toMillis() - 1)
+                / granularity.getUnit().getDuration().toMillis();
+        if (count > properties.getMaxBuckets()) {
+            throw new IllegalArgumentException(count + " " + granularity + " buckets requested, at most "
+                    + properties.getMaxBuckets() + " are read at once");
+        }
+        List<Long> starts = new ArrayList<>();
+        for (Instant start = first; start.isBefore(to); start = start.plus(1, granularity.getUnit())) {
+            starts.add(start.toEpochMilli());
+        }
+        return starts;
+    }
+
+    /**
+     * @return the start of the first hour that may still have minute buckets
+     */
+    private long minutesFrom() {
+        return Math.max(watermark(), oldestMinutes(System.currentTimeMillis()));
+    }
+
+    /**
+     * @return the start of the first hour whose minute buckets have not expired
+     */
+    private long oldestMinutes(long now) {
+        return floor(now - properties.getMinuteRetention().toMillis(), HOUR_MILLIS) + HOUR_MILLIS;
+    }
+
+    /**
+     * @param minutesFrom start of the first hour whose minute buckets are read
+     * @param now         hours starting later have no minute buckets to read
+     * @return the hash keys of the bucket, each followed by the key of its HyperLogLog
+     */
+    private List<String> bucketKeys(Granularity granularity, long start, long minutesFrom, long now) {
+        List<String> keys = new ArrayList<>();
+        if (granularity == Granularity.MINUTE) {
+            keys.add(minuteKey(start));
+            keys.add(customersKey(minuteKey(start)));
+            return keys;
+        }
+        long end = start + granularity.getUnit().getDuration().toMillis();
+        for (long hour = start; hour < end; hour += HOUR_MILLIS) {
+            keys.add(hourKey(hour));
+            keys.add(customersKey(hourKey(hour)));
+            if (hour >= minutesFrom && hour <= now) {
+                for (long minute = hour; minute < hour + HOUR_MILLIS; minute += MINUTE_MILLIS) {
+                    keys.add(minuteKey(minute));
+                    keys.add(customersKey(minuteKey(minute)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * One round trip: an {@code HMGET} per hash and a {@code PFCOUNT} of the HyperLogLogs of each group.
+     */
+    private List<Object> read(List<List<String>> groups) {
+        return RedisFutures.execute(connectionFactory, commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>();
+            for (List<String> keys : groups) {
+                byte[][] customers = new byte[keys.size() / 2][];
+                for (int i = 0; i < keys.size(); i += 2) {
+                    futures.add(commands.hmget(toBytes(keys.get(i)), toBytes(ORDERS), toBytes(LINE_ITEMS)));
+                    customers[i / 2] = toBytes(keys.get(i + 1));
+                }
+                futures.add(commands.pfcount(customers));
+            }
+            return futures;
+        });
+    }
+
+    /**
+     * Add the replies of the keys of one group to the bucket.
+     *
+     * @return the index of the replies of the next group
+     */
+    @SuppressWarnings("unchecked")
+    private static int sum(List<Object> replies, int first, int keys, OrderBucket bucket) {
+        int reply = first;
+        for (int i = 0; i < keys; i += 2) {
+            List<KeyValue<byte[], byte[]>> fields = (List<KeyValue<byte[], byte[]>>) replies.get(reply++);
+            bucket.setOrders(bucket.getOrders() + toLong(fields.get(0)));
+            bucket.setLineItems(bucket.getLineItems() + toLong(fields.get(1)));
+        }
+        Long customers = (Long) replies.get(reply++);
+        bucket.setCustomers(customers != null ? customers : 0);
+        return reply;
+    }
+
+    private long hourExpireAt(long hour) {
+        return properties.getHourRetention().isZero() ? 0 : hour + properties.getHourRetention().toMillis();
+    }
+
+    static String minuteKey(long start) {
+        return PREFIX + "minute:" + start;
+    }
+
+    static String hourKey(long start) {
+        return PREFIX + "hour:" + start;
+    }
+
+    static String customersKey(String bucketKey) {
+        return bucketKey + ":customers";
+    }
+
+    private static long floor(long millis, long unit) {
+        return millis - Math.floorMod(millis, unit);
+    }
+
+    private static long toLong(KeyValue<byte[], byte[]> field) {
+        return field.hasValue() ? Long.parseLong(new String(field.getValue(), StandardCharsets.UTF_8)) : 0;
+    }
+
+    private static byte[] toBytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bhagat.redis.aggregate;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code /actuator/orderaggregates/{minute|hour|day}?from=&to=}, the order buckets of a range and its total. The
+ * bounds are ISO-8601 instants, the range defaults to the last {@value #DEFAULT_BUCKETS} buckets.
+ */
+@Endpoint(id = "orderaggregates")
+public class OrderAggregatesEndpoint {
+    static final int DEFAULT_BUCKETS = 60;
+
+    private final OrderAggregates aggregates;
+
+    public OrderAggregatesEndpoint(OrderAggregates aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * @param granularity {@code minute}, {@code hour} or {@code day}
+     * @param from        start of the range, included
+     * @param to          end of the range, excluded, now by default
+     * @return the range, its total and its buckets
+     */
+    @ReadOperation
+    public Map<String, Object> aggregates(@Selector String granularity, @Nullable String from, @Nullable String to) {
+        OrderAggregates.Granularity size;
+        Instant start;
+        Instant end;
+        try {
+            size = OrderAggregates.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+            end = to != null ? Instant.parse(to) : Instant.now();
+            start = from != null ? Instant.parse(from) : end.minus(DEFAULT_BUCKETS - 1, size.getUnit());
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), "Expected minute, hour or day and ISO-8601 instants");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("granularity", size);
+        result.put("from", start.truncatedTo(size.getUnit()));
+        result.put("to", end);
+        result.put("total", aggregates.total(size, start, end));
+        result.put("buckets", aggregates.buckets(size, start, end));
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bhagat.redis.aggregate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Orders placed in a time bucket.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderBucket {
+    /**
+     * Start of the bucket, included, the end is the start of the next bucket.
+     */
+    private Instant start;
+    private long orders;
+    private long lineItems;
+    /**
+     * Estimated number of distinct customers, within 0.81% standard error.
+     */
+    private long customers;
+}
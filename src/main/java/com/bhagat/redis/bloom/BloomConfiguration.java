@@ -0,0 +1,41 @@
+package com.bhagat.redis.bloom;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+/**
+ *
+ */
+@Configuration
+public class BloomConfiguration {
+
+    /**
+     * Filters of the keyspaces listed in {@code app.bloom.filters}, loaded on startup
+     *
+     * @param connectionFactory
+     * @param keyValueMappingContext
+     * @param properties
+     * @param meterRegistry
+     * @return
+     */
+    @Bean
+    public BloomFilters bloomFilters(LettuceConnectionFactory connectionFactory, RedisMappingContext keyValueMappingContext,
+                                     BloomFilterProperties properties, MeterRegistry meterRegistry) {
+        return new BloomFilters(connectionFactory, keyValueMappingContext, properties, meterRegistry);
+    }
+
+    /**
+     * Static, a post processor must not initialize its configuration early
+     *
+     * @param bloomFilters
+     * @return
+     */
+    @Bean
+    public static BloomFilterRepositoryPostProcessor bloomFilterRepositoryPostProcessor(ObjectProvider<BloomFilters> bloomFilters) {
+        return new BloomFilterRepositoryPostProcessor(bloomFilters);
+    }
+}
@@ -0,0 +1,301 @@
+package com.bhagat.redis.bloom;
+
+import lombok.extern.java.Log;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of the ids of one keyspace, kept in the Redis bitmap {@code bloom:keyspace:bits:hashes} and mirrored
+ * in this JVM. The bits of an id are set with one {@code EVALSHA} of {@code scripts/bloom-add.lua}, in Redis and
+ * locally.
+ * <p>
+ * The key holds the sizing of the bitmap: the offsets of an id only mean something for the number of bits and
+ * hashes they were computed with. A filter sized differently, after a change of its properties, starts from a new
+ * bitmap rebuilt from the keyspace set instead of misreading the old one. Nodes with different sizings keep
+ * separate bitmaps and do not see the ids put by each other, so the sizing must change on all nodes at once.
+ * <p>
+ * Bits are only ever set, so the local copy holds a subset of the Redis bits: an id whose bits are all set
+ * locally is present without a round trip. Otherwise {@code scripts/bloom-check.lua} reads its bits in Redis, where
+ * other nodes write, and a miss there is definite. Removed ids stay in the filter.
+ */
+@Log
+public class BloomFilter {
+    static final String KEY_PREFIX = "bloom:";
+    /**
+     * Redis limits bitmaps to 512 MB.
+     */
+    static final long MAX_BITS = 1L << 32;
+    private static final int REBUILD_BATCH = 1_000;
+    private static final RedisSerializer<byte[]> RAW = RedisSerializer.byteArray();
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<Long> RAW_LONG = (RedisSerializer) RAW;
+
+    private final String keyspace;
+    private final byte[] key;
+    private final long expectedInsertions;
+    private final long numBits;
+    private final int numHashes;
+    private final AtomicLongArray bits;
+    private final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+    private final DefaultRedisScript<Long> add = script("scripts/bloom-add.lua");
+    private final DefaultRedisScript<Long> check = script("scripts/bloom-check.lua");
+    private final LongAdder present = new LongAdder();
+    private final LongAdder absent = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * @param connectionFactory
+     * @param keyspace
+     * @param properties        sizing, the same on every node
+     */
+    public BloomFilter(LettuceConnectionFactory connectionFactory, String keyspace, BloomFilterProperties.Filter properties) {
+        this.keyspace = keyspace;
+        this.expectedInsertions = properties.getExpectedInsertions();
+        this.numBits = numBits(expectedInsertions, properties.getFalsePositiveRate());
+        this.numHashes = numHashes(expectedInsertions, numBits);
+        this.key = toBytes(key(keyspace, numBits, numHashes));
+        this.bits = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+        this.template.setConnectionFactory(connectionFactory);
+        this.template.setEnableDefaultSerializer(false);
+        this.template.afterPropertiesSet();
+    }
+
+    /**
+     * Copy the Redis bitmap, or fill it with the ids of the keyspace set when missing, as when the sizing changed.
+     */
+    public void load() {
+        byte[] bitmap = template.execute((RedisCallback<byte[]>) connection -> connection.get(key));
+        if (bitmap == null) {
+            rebuild();
+        } else {
+            for (int i = 0; i < bitmap.length; i++) {
+                for (int bit = 0; bit < 8; bit++) {
+                    // Redis numbers the bits of a byte from the most significant one
+                    if ((bitmap[i] & (0x80 >>> bit)) != 0) {
+                        setLocal((long) i * 8 + bit);
+                    }
+                }
+            }
+        }
+        log.info(String.format("Bloom filter of %s: %d bits, %d hashes, %.1f KiB per million ids, about %d ids",
+                keyspace, numBits, numHashes, getBytesPerMillionIds() / 1024, getApproximateCount()));
+    }
+
+    private void rebuild() {
+        List<byte[]> ids = new ArrayList<>(REBUILD_BATCH);
+        try (Cursor<byte[]> cursor = template.opsForSet().scan(toBytes(keyspace), ScanOptions.scanOptions().count(REBUILD_BATCH).build())) {
+            while (cursor.hasNext()) {
+                ids.add(cursor.next());
+                if (ids.size() == REBUILD_BATCH) {
+                    putAll(ids);
+                    ids.clear();
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot scan keyspace " + keyspace, ex);
+        }
+        putAll(ids);
+    }
+
+    /**
+     * @param id
+     */
+    public void put(Object id) {
+        putAll(Collections.singletonList(id));
+    }
+
+    /**
+     * @param ids added with one script call
+     */
+    public void putAll(Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<long[]> offsets = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            offsets.add(offsets(id));
+        }
+        template.execute(add, RAW, RAW_LONG, Collections.singletonList(key), arguments(offsets));
+        for (long[] idOffsets : offsets) {
+            for (long offset : idOffsets) {
+                setLocal(offset);
+            }
+        }
+    }
+
+    /**
+     * @param id
+     * @return {@literal false} if the id was never put, {@literal true} if it probably was
+     */
+    public boolean mightContain(Object id) {
+        long[] offsets = offsets(id);
+        if (isSetLocally(offsets)) {
+            present.increment();
+            return true;
+        }
+        Long found = template.execute(check, RAW, RAW_LONG, Collections.singletonList(key),
+                arguments(Collections.singletonList(offsets)));
+        if (found == null || found == 0) {
+            absent.increment();
+            return false;
+        }
+        for (long offset : offsets) {
+            setLocal(offset);
+        }
+        present.increment();
+        return true;
+    }
+
+    /**
+     * Report an id that passed the filter but does not exist.
+     */
+    void falsePositive() {
+        falsePositives.increment();
+    }
+
+    public String getKeyspace() {
+        return keyspace;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return the bits set in the local copy
+     */
+    public long getBitCount() {
+        long count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of ids, estimated from the bits set
+     */
+    public long getApproximateCount() {
+        double fill = (double) getBitCount() / numBits;
+        return fill >= 1 ? Long.MAX_VALUE : Math.round(-numBits / (double) numHashes * Math.log(1 - fill));
+    }
+
+    /**
+     * @return the chance that an id never put passes the filter, with the bits set now
+     */
+    public double getFalsePositiveRate() {
+        return Math.pow((double) getBitCount() / numBits, numHashes);
+    }
+
+    /**
+     * @return the size of the bitmap per million of expected ids
+     */
+    public double getBytesPerMillionIds() {
+        return numBits / 8.0 * 1_000_000 / expectedInsertions;
+    }
+
+    public long getPresent() {
+        return present.sum();
+    }
+
+    public long getAbsent() {
+        return absent.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Kirsch-Mitzenmacher: the bit positions are {@code h1 + i * h2} of one 128 bit hash.
+     */
+    long[] offsets(Object id) {
+        byte[] raw = id instanceof byte[] ? (byte[]) id : toBytes(id.toString());
+        long[] hash = Murmur3.hash128(raw);
+        long[] offsets = new long[numHashes];
+        long combined = hash[0];
+        for (int i = 0; i < numHashes; i++) {
+            offsets[i] = (combined & Long.MAX_VALUE) % numBits;
+            combined += hash[1];
+        }
+        return offsets;
+    }
+
+    private static Object[] arguments(List<long[]> offsets) {
+        List<byte[]> args = new ArrayList<>();
+        for (long[] idOffsets : offsets) {
+            for (long offset : idOffsets) {
+                args.add(toBytes(Long.toString(offset)));
+            }
+        }
+        return args.toArray();
+    }
+
+    private boolean isSetLocally(long[] offsets) {
+        for (long offset : offsets) {
+            if ((bits.get((int) (offset >>> 6)) & (1L << offset)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setLocal(long offset) {
+        int index = (int) (offset >>> 6);
+        long mask = 1L << offset;
+        long word = bits.get(index);
+        while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask)) {
+            word = bits.get(index);
+        }
+    }
+
+    /**
+     * @return the key of the bitmap of the keyspace with the given sizing
+     */
+    static String key(String keyspace, long numBits, int numHashes) {
+        return KEY_PREFIX + keyspace + ":" + numBits + ":" + numHashes;
+    }
+
+    static long numBits(long expectedInsertions, double falsePositiveRate) {
+        long numBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        return Math.max(64, Math.min(numBits, MAX_BITS));
+    }
+
+    static int numHashes(long expectedInsertions, long numBits) {
+        return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    private static DefaultRedisScript<Long> script(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bhagat.redis.bloom;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bloom filters of the ids written per keyspace, guarding the lookups by id against ids that were never written.
+ */
+@Data
+@ConfigurationProperties("app.bloom")
+public class BloomFilterProperties {
+
+    /**
+     * Per keyspace filter, keyspaces without an entry are not filtered.
+     */
+    private final Map<String, Filter> filters = new LinkedHashMap<>();
+
+    /**
+     * How long an id that passed the filter but was not found is remembered as missing, {@literal null} to
+     * disable. Only the node that wrote an id forgets it at once, keep it short.
+     */
+    private Duration negativeCacheTimeToLive;
+
+    /**
+     * Ids remembered as missing, across all keyspaces.
+     */
+    private long negativeCacheMaximumSize = 100_000;
+
+    @Data
+    public static class Filter {
+        /**
+         * Number of ids the filter is sized for, the false positive rate grows past it.
+         */
+        private long expectedInsertions = 1_000_000;
+        /**
+         * False positive rate at the expected insertions.
+         */
+        private double falsePositiveRate = 0.01;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bhagat.redis.bloom;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+
+import java.util.Optional;
+
+/**
+ * Answers {@code findById} and {@code existsById} of the repositories of filtered entities without Redis when the
+ * {@link BloomFilters} rule the id out, and reports the ids that passed the filter but were not found.
+ */
+public class BloomFilterRepositoryPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<BloomFilters> filters;
+
+    /**
+     * @param filters looked up on first call, post processors are created before the other beans
+     */
+    public BloomFilterRepositoryPostProcessor(ObjectProvider<BloomFilters> filters) {
+        this.filters = filters;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            Class<?> repository = repositoryInterface((Advised) bean);
+            if (repository != null) {
+                ((Advised) bean).addAdvice(0, new GuardInterceptor(AbstractRepositoryMetadata.getMetadata(repository).getDomainType()));
+            }
+        }
+        return bean;
+    }
+
+    private static Class<?> repositoryInterface(Advised advised) {
+        for (Class<?> type : advised.getProxiedInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Guards the lookups by id of one repository.
+     */
+    private class GuardInterceptor implements MethodInterceptor {
+        private final Class<?> domainType;
+
+        GuardInterceptor(Class<?> domainType) {
+            this.domainType = domainType;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object[] arguments = invocation.getArguments();
+            String method = invocation.getMethod().getName();
+            boolean findById = "findById".equals(method) && invocation.getMethod().getReturnType() == Optional.class;
+            boolean existsById = "existsById".equals(method);
+            if ((!findById && !existsById) || arguments.length != 1 || arguments[0] == null) {
+                return invocation.proceed();
+            }
+            BloomFilters bloomFilters = filters.getObject();
+            if (bloomFilters.getFilter(domainType) == null) {
+                return invocation.proceed();
+            }
+            Object id = arguments[0];
+            if (!bloomFilters.mightContain(domainType, id)) {
+                return findById ? Optional.empty() : Boolean.FALSE;
+            }
+            Object result = invocation.proceed();
+            if (Optional.empty().equals(result) || Boolean.FALSE.equals(result)) {
+                bloomFilters.missing(domainType, id);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.bhagat.redis.bloom;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.keyvalue.core.event.KeyValueEvent;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The {@link BloomFilter}s of the configured keyspaces, answering whether an id may exist before Redis is asked
+ * for it. Ids saved through the repositories are added on the repository events; ids written otherwise, as by
+ * scripts, must be {@link #put(Class, Object) put} by the writer.
+ * <p>
+ * Ids that pass a filter but turn out missing can be remembered for a short time, so repeated lookups of the
+ * same false positive stay off Redis as well.
+ */
+public class BloomFilters implements ApplicationListener<KeyValueEvent<?>>, InitializingBean {
+    private final RedisMappingContext mappingContext;
+    private final Map<String, BloomFilter> filters = new LinkedHashMap<>();
+    @Nullable
+    private final Cache<String, Boolean> missing;
+
+    /**
+     * @param connectionFactory
+     * @param mappingContext
+     * @param properties
+     * @param meterRegistry     not a {@code MeterBinder}, binders are created with the registry, before Redis
+     */
+    public BloomFilters(LettuceConnectionFactory connectionFactory, RedisMappingContext mappingContext,
+                        BloomFilterProperties properties, MeterRegistry meterRegistry) {
+        this.mappingContext = mappingContext;
+        properties.getFilters().forEach((keyspace, filter) ->
+                filters.put(keyspace, new BloomFilter(connectionFactory, keyspace, filter)));
+        this.missing = properties.getNegativeCacheTimeToLive() != null
+                ? Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeCacheMaximumSize())
+                .expireAfterWrite(properties.getNegativeCacheTimeToLive())
+                .<String, Boolean>build()
+                : null;
+        bindTo(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        filters.values().forEach(BloomFilter::load);
+    }
+
+    @Override
+    public void onApplicationEvent(KeyValueEvent<?> event) {
+        if (event instanceof KeyValueEvent.AfterInsertEvent) {
+            put(event.getKeyspace(), ((KeyValueEvent.AfterInsertEvent<?>) event).getKey());
+        } else if (event instanceof KeyValueEvent.AfterUpdateEvent) {
+            put(event.getKeyspace(), ((KeyValueEvent.AfterUpdateEvent<?>) event).getKey());
+        }
+    }
+
+    /**
+     * @param type
+     * @return the filter of the entity type, {@literal null} when not filtered
+     */
+    @Nullable
+    public BloomFilter getFilter(Class<?> type) {
+        return filters.get(keyspace(type));
+    }
+
+    /**
+     * @param type
+     * @param id
+     * @return {@literal false} if the entity certainly does not exist
+     */
+    public boolean mightContain(Class<?> type, Object id) {
+        return mightContain(keyspace(type), id);
+    }
+
+    /**
+     * @param keyspace
+     * @param id
+     * @return {@literal false} if the entity certainly does not exist
+     */
+    public boolean mightContain(String keyspace, Object id) {
+        BloomFilter filter = filters.get(keyspace);
+        if (filter == null) {
+            return true;
+        }
+        if (missing != null && missing.getIfPresent(missingKey(keyspace, id)) != null) {
+            return false;
+        }
+        return filter.mightContain(id);
+    }
+
+    /**
+     * Report an id that {@link #mightContain(Class, Object) might exist} but was not found.
+     *
+     * @param type
+     * @param id
+     */
+    public void missing(Class<?> type, Object id) {
+        String keyspace = keyspace(type);
+        BloomFilter filter = filters.get(keyspace);
+        if (filter != null) {
+            filter.falsePositive();
+            if (missing != null) {
+                missing.put(missingKey(keyspace, id), Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * @param type
+     * @param id   written without a repository event
+     */
+    public void put(Class<?> type, Object id) {
+        put(keyspace(type), id);
+    }
+
+    /**
+     * @param type
+     * @param ids  written without repository events, added in one round trip
+     */
+    public void putAll(Class<?> type, Collection<?> ids) {
+        String keyspace = keyspace(type);
+        BloomFilter filter = filters.get(keyspace);
+        if (filter != null) {
+            filter.putAll(ids);
+            if (missing != null) {
+                ids.forEach(id -> missing.invalidate(missingKey(keyspace, id)));
+            }
+        }
+    }
+
+    private void put(String keyspace, Object id) {
+        BloomFilter filter = filters.get(keyspace);
+        if (filter != null) {
+            filter.put(id);
+            if (missing != null) {
+                missing.invalidate(missingKey(keyspace, id));
+            }
+        }
+    }
+
+    /**
+     * {@code redis.bloom.*} meters of each filter: its size, the ids it holds, the false positive rate expected
+     * with its fill and the lookups by result.
+     */
+    private void bindTo(MeterRegistry registry) {
+        for (BloomFilter filter : filters.values()) {
+            gauge(registry, filter, "redis.bloom.bits", "Bits of the filter", BloomFilter::getNumBits);
+            gauge(registry, filter, "redis.bloom.ids", "Ids in the filter, estimated from its fill",
+                    BloomFilter::getApproximateCount);
+            gauge(registry, filter, "redis.bloom.false.positive.rate", "Chance that a missing id passes the filter",
+                    BloomFilter::getFalsePositiveRate);
+            gauge(registry, filter, "redis.bloom.bytes.per.million.ids", "Filter size per million expected ids",
+                    BloomFilter::getBytesPerMillionIds);
+            lookups(registry, filter, "present", BloomFilter::getPresent);
+            lookups(registry, filter, "absent", BloomFilter::getAbsent);
+            lookups(registry, filter, "false_positive", BloomFilter::getFalsePositives);
+        }
+    }
+
+    private static void gauge(MeterRegistry registry, BloomFilter filter, String name, String description,
+                              ToDoubleFunction<BloomFilter> value) {
+        Gauge.builder(name, filter, value)
+                .description(description)
+                .tag("keyspace", filter.getKeyspace())
+                .register(registry);
+    }
+
+    private static void lookups(MeterRegistry registry, BloomFilter filter, String result, ToDoubleFunction<BloomFilter> count) {
+        FunctionCounter.builder("redis.bloom.lookups", filter, count)
+                .description("Lookups by id, false positives are counted again when found missing")
+                .tag("keyspace", filter.getKeyspace())
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private String keyspace(Class<?> type) {
+        return mappingContext.getRequiredPersistentEntity(type).getKeySpace();
+    }
+
+    private static String missingKey(String keyspace, Object id) {
+        return keyspace + ":" + id;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bhagat.redis.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Value stored by a {@link TwoTierCache} together with the metadata needed for probabilistic early refresh.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheEntry implements Serializable {
+    private Object value;
+    /**
+     * Time the loader took to compute the value, in milliseconds.
+     */
+    private long loadMillis;
+    /**
+     * Epoch milliseconds at which the remote entry expires, {@literal 0} if it never does.
+     */
+    private long expiresAt;
+}
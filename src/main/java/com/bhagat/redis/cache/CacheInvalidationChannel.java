@@ -0,0 +1,86 @@
+package com.bhagat.redis.cache;
+
+import lombok.extern.java.Log;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis pub/sub channel telling the other nodes to drop near cache entries.
+ * <p>
+ * A message is {@code <node id> <cache name> [<key>]}; a message without key clears the whole cache.
+ * Messages sent by this node are ignored when they come back.
+ */
+@Log
+public class CacheInvalidationChannel implements MessageListener {
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate template;
+    private final ChannelTopic topic;
+    private final BiConsumer<String, String> localEviction;
+
+    /**
+     * @param cf
+     * @param channel       name of the pub/sub channel
+     * @param localEviction callback receiving the cache name and the key, {@literal null} to clear the cache
+     */
+    public CacheInvalidationChannel(RedisConnectionFactory cf, String channel, BiConsumer<String, String> localEviction) {
+        this.template = new StringRedisTemplate(cf);
+        this.topic = new ChannelTopic(channel);
+        this.localEviction = localEviction;
+    }
+
+    public Topic getTopic() {
+        return topic;
+    }
+
+    /**
+     * @param cacheName
+     * @param key       key to evict, {@literal null} to clear the cache
+     */
+    public void publish(String cacheName, @Nullable String key) {
+        String message = nodeId + " " + cacheName + (key != null ? " " + key : "");
+        template.convertAndSend(topic.getTopic(), message);
+    }
+
+    @Override
+    public void onMessage(Message message, @Nullable byte[] pattern) {
+        String[] parts = parse(message);
+        if (parts != null) {
+            localEviction.accept(parts[1], parts.length == 3 ? parts[2] : null);
+        }
+    }
+
+    /**
+     * Receives the messages that could not be delivered: the key they evict is unknown from then on, so the whole
+     * cache is cleared, as near entries have no other expiry than their time-to-live.
+     *
+     * @param message
+     */
+    public void onDropped(Message message) {
+        String[] parts = parse(message);
+        if (parts != null) {
+            localEviction.accept(parts[1], null);
+        }
+    }
+
+    /**
+     * @return the node, cache name and optional key, {@literal null} for malformed messages and those of this node
+     */
+    @Nullable
+    private String[] parse(Message message) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(" ", 3);
+        if (parts.length < 2) {
+            log.warning("Ignoring malformed cache invalidation: " + String.join(" ", parts));
+            return null;
+        }
+        return nodeId.equals(parts[0]) ? null : parts;
+    }
+}
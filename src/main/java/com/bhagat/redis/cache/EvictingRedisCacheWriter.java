@@ -0,0 +1,191 @@
+package com.bhagat.redis.cache;
+
+import lombok.extern.java.Log;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RedisCacheWriter} applying the per cache {@link TwoTierCacheProperties.CacheSpec} settings Redis has no
+ * notion of.
+ * <p>
+ * Entries get a random extra time-to-live, up to {@code timeToLiveJitter}, so entries written together do not
+ * expire together. Caches with a {@code maxEntries} budget track the last use of their entries in a sorted set:
+ * reads and writes run as scripts updating it in the same round trip, and a write deleting the least recently used
+ * entries beyond the budget. Reads served by the near tier do not count as uses. The victims are not declared as
+ * keys of the script, so budgets need a single node Redis, standalone or master/replica, not Redis Cluster.
+ * <p>
+ * Clearing a cache, or a part of it, walks the keys with {@code SCAN} and drops them with {@code UNLINK} in
+ * batches, instead of the {@code KEYS} and {@code DEL} of the default writer blocking the server on large caches.
+ * Servers older than 4.0 fall back to {@code DEL}.
+ */
+@Log
+public class EvictingRedisCacheWriter implements RedisCacheWriter {
+    static final String LRU_KEY_PREFIX = "cache-lru:";
+    static final int CLEAN_BATCH = 1_000;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisSerializer<byte[]> RAW = (RedisSerializer) RedisSerializer.byteArray();
+
+    private final RedisCacheWriter delegate;
+    private final TwoTierCacheProperties properties;
+    private final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+    private final DefaultRedisScript<byte[]> get = script("scripts/cache-get.lua");
+    private final DefaultRedisScript<byte[]> put = script("scripts/cache-put.lua");
+    private volatile boolean unlinkSupported = true;
+
+    public EvictingRedisCacheWriter(RedisConnectionFactory connectionFactory, TwoTierCacheProperties properties) {
+        this.delegate = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
+        this.properties = properties;
+        this.template.setConnectionFactory(connectionFactory);
+        this.template.setEnableDefaultSerializer(false);
+        this.template.afterPropertiesSet();
+    }
+
+    @Override
+    @Nullable
+    public byte[] get(String name, byte[] key) {
+        if (!isBudgeted(name)) {
+            return delegate.get(name, key);
+        }
+        return template.execute(get, RAW, RAW, Arrays.asList(key, lruKey(name)), toBytes(System.currentTimeMillis()));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        Duration jittered = jitter(name, ttl);
+        if (isBudgeted(name)) {
+            write(name, key, value, jittered, false);
+        } else {
+            delegate.put(name, key, value, jittered);
+        }
+    }
+
+    @Override
+    @Nullable
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, @Nullable Duration ttl) {
+        Duration jittered = jitter(name, ttl);
+        if (isBudgeted(name)) {
+            return write(name, key, value, jittered, true);
+        }
+        return delegate.putIfAbsent(name, key, value, jittered);
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+        if (isBudgeted(name)) {
+            template.execute((RedisCallback<Long>) connection -> connection.zRem(lruKey(name), key));
+        }
+    }
+
+    /**
+     * Drop the keys matching the pattern, {@code SCAN} batch by {@code SCAN} batch.
+     *
+     * @param name
+     * @param pattern
+     */
+    @Override
+    public void clean(String name, byte[] pattern) {
+        boolean budgeted = isBudgeted(name);
+        String match = new String(pattern, StandardCharsets.UTF_8);
+        long removed = template.execute((RedisCallback<Long>) connection -> {
+            long count = 0;
+            List<byte[]> batch = new ArrayList<>(CLEAN_BATCH);
+            try (Cursor<byte[]> cursor = connection.scan(ScanOptions.scanOptions().match(match).count(CLEAN_BATCH).build())) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == CLEAN_BATCH) {
+                        count += unlink(connection, name, batch, budgeted);
+                        batch.clear();
+                    }
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Cannot scan cache " + name, ex);
+            }
+            return count + unlink(connection, name, batch, budgeted);
+        });
+        log.fine(() -> "Removed " + removed + " entries of cache " + name + " matching " + match);
+    }
+
+    private long unlink(RedisConnection connection, String name, List<byte[]> keys, boolean budgeted) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        byte[][] raw = keys.toArray(new byte[0][]);
+        if (budgeted) {
+            connection.zRem(lruKey(name), raw);
+        }
+        if (unlinkSupported) {
+            try {
+                Long unlinked = connection.unlink(raw);
+                return unlinked != null ? unlinked : 0;
+            } catch (DataAccessException ex) {
+                String message = String.valueOf(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                if (!message.contains("unknown command")) {
+                    throw ex;
+                }
+                log.info("UNLINK needs Redis 4.0, clearing caches with DEL");
+                unlinkSupported = false;
+            }
+        }
+        Long deleted = connection.del(raw);
+        return deleted != null ? deleted : 0;
+    }
+
+    @Nullable
+    private byte[] write(String name, byte[] key, byte[] value, @Nullable Duration ttl, boolean ifAbsent) {
+        TwoTierCacheProperties.CacheSpec spec = properties.getSpec(name);
+        long now = System.currentTimeMillis();
+        long ttlMillis = ttl != null && !ttl.isNegative() ? ttl.toMillis() : 0;
+        long expiredBefore = ttlMillis > 0 ? now - ttlMillis - spec.getTimeToLiveJitter().toMillis() : 0;
+        return template.execute(put, RAW, RAW, Arrays.asList(key, lruKey(name)), value, toBytes(ttlMillis),
+                toBytes(ifAbsent ? 1 : 0), toBytes(now), toBytes(expiredBefore), toBytes(spec.getMaxEntries()));
+    }
+
+    @Nullable
+    private Duration jitter(String name, @Nullable Duration ttl) {
+        long jitterMillis = properties.getSpec(name).getTimeToLiveJitter().toMillis();
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || jitterMillis <= 0) {
+            return ttl;
+        }
+        return ttl.plusMillis(ThreadLocalRandom.current().nextLong(jitterMillis + 1));
+    }
+
+    private boolean isBudgeted(String name) {
+        return properties.getSpec(name).getMaxEntries() > 0;
+    }
+
+    static byte[] lruKey(String name) {
+        return toBytes(LRU_KEY_PREFIX + name);
+    }
+
+    private static DefaultRedisScript<byte[]> script(String location) {
+        DefaultRedisScript<byte[]> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(byte[].class);
+        return script;
+    }
+
+    private static byte[] toBytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
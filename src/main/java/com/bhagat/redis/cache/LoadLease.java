@@ -0,0 +1,19 @@
+package com.bhagat.redis.cache;
+
+import java.time.Duration;
+
+/**
+ * Cluster wide lock making sure a single node computes a missing cache entry.
+ */
+public interface LoadLease {
+
+    /**
+     * @param cacheName
+     * @param key
+     * @param leaseTime time after which the lease is released even if its holder died
+     * @return {@literal true} if this node now holds the lease
+     */
+    boolean tryAcquire(String cacheName, String key, Duration leaseTime);
+
+    void release(String cacheName, String key);
+}
@@ -0,0 +1,41 @@
+package com.bhagat.redis.cache;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * {@link LoadLease} backed by {@code SET NX PX}. The lease is only released by the node holding it.
+ */
+public class RedisLoadLease implements LoadLease {
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final String token = UUID.randomUUID().toString();
+    private final StringRedisTemplate template;
+
+    public RedisLoadLease(RedisConnectionFactory cf) {
+        this.template = new StringRedisTemplate(cf);
+    }
+
+    @Override
+    public boolean tryAcquire(String cacheName, String key, Duration leaseTime) {
+        Boolean acquired = template.opsForValue().setIfAbsent(leaseKey(cacheName, key), token, leaseTime);
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    @Override
+    public void release(String cacheName, String key) {
+        template.execute(RELEASE, Collections.singletonList(leaseKey(cacheName, key)), token);
+    }
+
+    private static String leaseKey(String cacheName, String key) {
+        return "lease:" + cacheName + "::" + key;
+    }
+}
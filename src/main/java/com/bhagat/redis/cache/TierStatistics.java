@@ -0,0 +1,92 @@
+package com.bhagat.redis.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit/miss counters of a {@link TwoTierCache}, kept separately for the near (in-process) and the remote (Redis) tier,
+ * with the puts and the time spent loading missing values.
+ */
+public class TierStatistics {
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder nearMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder failedLoads = new LongAdder();
+    private final LongAdder failedLoadNanos = new LongAdder();
+
+    void nearHit() {
+        nearHits.increment();
+    }
+
+    void nearMiss() {
+        nearMisses.increment();
+    }
+
+    void remoteHit() {
+        remoteHits.increment();
+    }
+
+    void remoteMiss() {
+        remoteMisses.increment();
+    }
+
+    void put() {
+        puts.increment();
+    }
+
+    void load(long nanos, boolean failed) {
+        if (failed) {
+            failedLoads.increment();
+            failedLoadNanos.add(nanos);
+        } else {
+            loads.increment();
+            loadNanos.add(nanos);
+        }
+    }
+
+    public long getNearHits() {
+        return nearHits.sum();
+    }
+
+    public long getNearMisses() {
+        return nearMisses.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    public long getFailedLoads() {
+        return failedLoads.sum();
+    }
+
+    public long getFailedLoadNanos() {
+        return failedLoadNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "near[hits=" + getNearHits() + ", misses=" + getNearMisses() + "], "
+                + "remote[hits=" + getRemoteHits() + ", misses=" + getRemoteMisses() + "], "
+                + "puts=" + getPuts() + ", loads=" + getLoads() + ", failedLoads=" + getFailedLoads();
+    }
+}
@@ -0,0 +1,365 @@
+package com.bhagat.redis.cache;
+
+import lombok.extern.java.Log;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * {@link Cache} keeping a bounded in-process copy (near tier) of the entries of a remote cache (Redis).
+ * <p>
+ * Reads are served from the near tier when possible and fall through to the remote tier otherwise. Writes go to
+ * both tiers and are broadcast through the {@link CacheInvalidationChannel} so other nodes drop their near copy.
+ * A near entry can still be stale for at most its time-to-live if an invalidation races with a remote read.
+ * <p>
+ * Missing entries requested through {@link #get(Object, Callable)} are loaded once: concurrent callers in this JVM
+ * share one in-flight load and other nodes wait for the holder of the {@link LoadLease}. Entries close to their
+ * expiry may be recomputed in the background (XFetch), so callers do not all block when they expire.
+ */
+@Log
+public class TwoTierCache implements Cache {
+    private final String name;
+    @Nullable
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEntry> near;
+    private final Cache remote;
+    private final TwoTierCacheProperties.CacheSpec spec;
+    private final LoadLease lease;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+    // kept apart from the loads that misses join: a refresh completes with null when another node refreshes
+    private final ConcurrentMap<String, CompletableFuture<CacheEntry>> refreshing = new ConcurrentHashMap<>();
+    private final TierStatistics statistics = new TierStatistics();
+
+    /**
+     * @param name
+     * @param near                near tier, {@literal null} to always read from the remote tier
+     * @param remote
+     * @param spec
+     * @param lease
+     * @param invalidationChannel
+     * @param refreshExecutor     runs the early refreshes
+     */
+    public TwoTierCache(String name, @Nullable com.github.benmanes.caffeine.cache.Cache<String, CacheEntry> near,
+                        Cache remote, TwoTierCacheProperties.CacheSpec spec, LoadLease lease,
+                        CacheInvalidationChannel invalidationChannel, Executor refreshExecutor) {
+        this.name = name;
+        this.near = near;
+        this.remote = remote;
+        this.spec = spec;
+        this.lease = lease;
+        this.invalidationChannel = invalidationChannel;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public TierStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the approximate number of near entries, {@literal null} without near tier
+     */
+    @Nullable
+    public Long getNearSize() {
+        return near != null ? near.estimatedSize() : null;
+    }
+
+    /**
+     * @return the near entries dropped to stay under the maximum size, when the near tier records statistics
+     */
+    public long getNearEvictions() {
+        return near != null ? near.stats().evictionCount() : 0;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        CacheEntry entry = lookup(key);
+        return entry != null ? new SimpleValueWrapper(entry.getValue()) : null;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEntry entry = lookup(key);
+        if (entry != null) {
+            if (shouldRefreshEarly(entry)) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) entry.getValue();
+        }
+        if (!spec.isSingleFlight()) {
+            return (T) store(key, load(key, valueLoader)).getValue();
+        }
+        try {
+            return (T) loadOnce(key, valueLoader, false).join().getValue();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        if (value == null && !spec.isCacheNullValues()) {
+            evict(key);
+            return;
+        }
+        store(key, new CacheEntry(value, 0, expiresAt()));
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        if (value == null && !spec.isCacheNullValues()) {
+            return get(key);
+        }
+        CacheEntry entry = new CacheEntry(value, 0, expiresAt());
+        ValueWrapper existing = remote.putIfAbsent(key, entry);
+        if (existing != null) {
+            CacheEntry existingEntry = toEntry(existing.get());
+            putNear(nearKey(key), existingEntry);
+            return new SimpleValueWrapper(existingEntry.getValue());
+        }
+        statistics.put();
+        putNear(nearKey(key), entry);
+        invalidationChannel.publish(name, nearKey(key));
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictNear(nearKey(key));
+        invalidationChannel.publish(name, nearKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        evictNear(null);
+        invalidationChannel.publish(name, null);
+    }
+
+    /**
+     * Evict the entries whose key matches a glob-style pattern, e.g. {@code 42:*}. Remote tiers other than a
+     * {@link RedisCache} are cleared entirely, and so is the near tier of every node.
+     *
+     * @param keyPattern
+     */
+    public void evictMatching(String keyPattern) {
+        if (remote instanceof RedisCache) {
+            RedisCache redisCache = (RedisCache) remote;
+            String pattern = redisCache.getCacheConfiguration().getKeyPrefixFor(name) + keyPattern;
+            redisCache.getNativeCache().clean(name, pattern.getBytes(StandardCharsets.UTF_8));
+        } else {
+            remote.clear();
+        }
+        evictNear(null);
+        invalidationChannel.publish(name, null);
+    }
+
+    /**
+     * Drop near entries only, used when another node changed the remote tier.
+     *
+     * @param key key to drop, {@literal null} to drop all entries
+     */
+    void evictNear(@Nullable String key) {
+        if (near == null) {
+            return;
+        }
+        if (key == null) {
+            near.invalidateAll();
+        } else {
+            near.invalidate(key);
+        }
+    }
+
+    @Nullable
+    private CacheEntry lookup(Object key) {
+        String nearKey = nearKey(key);
+        if (near != null) {
+            CacheEntry entry = near.getIfPresent(nearKey);
+            if (entry != null) {
+                statistics.nearHit();
+                return entry;
+            }
+            statistics.nearMiss();
+        }
+        CacheEntry entry = remoteEntry(key);
+        if (entry == null) {
+            statistics.remoteMiss();
+            return null;
+        }
+        statistics.remoteHit();
+        putNear(nearKey, entry);
+        return entry;
+    }
+
+    @Nullable
+    private CacheEntry remoteEntry(Object key) {
+        ValueWrapper wrapper = remote.get(key);
+        return wrapper != null ? toEntry(wrapper.get()) : null;
+    }
+
+    private CompletableFuture<CacheEntry> loadOnce(Object key, Callable<?> valueLoader, boolean refresh) {
+        String nearKey = nearKey(key);
+        ConcurrentMap<String, CompletableFuture<CacheEntry>> loads = refresh ? refreshing : inFlight;
+        CompletableFuture<CacheEntry> mine = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> running = loads.putIfAbsent(nearKey, mine);
+        if (running != null) {
+            return running;
+        }
+        try {
+            mine.complete(loadUnderLease(key, nearKey, valueLoader, refresh));
+        } catch (Throwable ex) {
+            mine.completeExceptionally(ex);
+        } finally {
+            loads.remove(nearKey, mine);
+        }
+        return mine;
+    }
+
+    /**
+     * @return the loaded entry, {@literal null} if this is a refresh and another node is already refreshing
+     * @throws ValueRetrievalException if interrupted while waiting for the lease, with the interrupt status kept
+     */
+    @Nullable
+    private CacheEntry loadUnderLease(Object key, String nearKey, Callable<?> valueLoader, boolean refresh) {
+        long pollMillis = Math.max(1, Math.min(100, spec.getLeaseTime().toMillis() / 10));
+        while (!lease.tryAcquire(name, nearKey, spec.getLeaseTime())) {
+            if (refresh) {
+                return null;
+            }
+            CacheEntry loaded = remoteEntry(key);
+            if (loaded != null) {
+                putNear(nearKey, loaded);
+                return loaded;
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+        }
+        try {
+            if (!refresh) {
+                CacheEntry loaded = remoteEntry(key);
+                if (loaded != null) {
+                    putNear(nearKey, loaded);
+                    return loaded;
+                }
+            }
+            return store(key, load(key, valueLoader));
+        } finally {
+            lease.release(name, nearKey);
+        }
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        String nearKey = nearKey(key);
+        if (refreshing.containsKey(nearKey) || inFlight.containsKey(nearKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> loadOnce(key, valueLoader, true).whenComplete((entry, ex) -> {
+                if (ex != null) {
+                    log.log(Level.WARNING, "Early refresh of " + name + "::" + key + " failed", ex);
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            // refreshing is best effort, the entry is recomputed on expiry otherwise
+        }
+    }
+
+    private boolean shouldRefreshEarly(CacheEntry entry) {
+        if (spec.getEarlyRefreshBeta() <= 0 || entry.getExpiresAt() == 0) {
+            return false;
+        }
+        double gap = entry.getLoadMillis() * spec.getEarlyRefreshBeta() * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() - gap >= entry.getExpiresAt();
+    }
+
+    private CacheEntry load(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            statistics.load(System.nanoTime() - start, true);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        long loadNanos = System.nanoTime() - start;
+        statistics.load(loadNanos, false);
+        long loadMillis = loadNanos / 1_000_000;
+        return new CacheEntry(value, loadMillis, expiresAt());
+    }
+
+    private CacheEntry store(Object key, CacheEntry entry) {
+        if (entry.getValue() == null && !spec.isCacheNullValues()) {
+            return entry;
+        }
+        remote.put(key, entry);
+        statistics.put();
+        putNear(nearKey(key), entry);
+        invalidationChannel.publish(name, nearKey(key));
+        return entry;
+    }
+
+    private void putNear(String nearKey, CacheEntry entry) {
+        if (near != null) {
+            near.put(nearKey, entry);
+        }
+    }
+
+    private long expiresAt() {
+        long ttl = spec.getTimeToLive().toMillis();
+        return ttl > 0 ? System.currentTimeMillis() + ttl : 0;
+    }
+
+    private static CacheEntry toEntry(@Nullable Object stored) {
+        return stored instanceof CacheEntry ? (CacheEntry) stored : new CacheEntry(stored, 0, 0);
+    }
+
+    static String nearKey(Object key) {
+        return key.toString();
+    }
+}
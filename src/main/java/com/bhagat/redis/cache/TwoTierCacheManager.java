@@ -0,0 +1,102 @@
+package com.bhagat.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheManager} decorating each {@link RedisCacheManager} cache with a bounded in-process near tier.
+ */
+public class TwoTierCacheManager implements CacheManager, InitializingBean, DisposableBean {
+    private final RedisCacheManager remote;
+    private final TwoTierCacheProperties properties;
+    private final CacheInvalidationChannel invalidationChannel;
+    private final LoadLease lease;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(RedisCacheManager remote, RedisConnectionFactory cf, TwoTierCacheProperties properties) {
+        this.remote = remote;
+        this.properties = properties;
+        this.invalidationChannel = new CacheInvalidationChannel(cf, properties.getInvalidationChannel(), this::evictNear);
+        this.lease = new RedisLoadLease(cf);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        this.refreshExecutor = new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1_000), threadFactory,
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * @return the listener to subscribe so that evictions done by other nodes reach this one
+     */
+    public CacheInvalidationChannel getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        remote.afterPropertiesSet();
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    @Nullable
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = remote.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> createCache(n, redisCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        Set<String> names = new LinkedHashSet<>(remote.getCacheNames());
+        names.addAll(caches.keySet());
+        return names;
+    }
+
+    protected TwoTierCache createCache(String name, Cache redisCache) {
+        TwoTierCacheProperties.Near near = properties.getNear();
+        com.github.benmanes.caffeine.cache.Cache<String, CacheEntry> nearCache = near.isEnabled()
+                ? Caffeine.newBuilder()
+                .maximumSize(near.getMaximumSize())
+                .expireAfterWrite(near.getTimeToLive())
+                .recordStats()
+                .<String, CacheEntry>build()
+                : null;
+        return new TwoTierCache(name, nearCache, redisCache, properties.getSpec(name), lease, invalidationChannel,
+                refreshExecutor);
+    }
+
+    private void evictNear(String cacheName, @Nullable String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictNear(key);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bhagat.redis.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters of a {@link TwoTierCache}: the common {@code cache.*} meters, hits counting both tiers and
+ * evictions the near tier only, plus {@code cache.tier.gets} per tier and result and the {@code cache.load} timer
+ * of the value loaders. All read the {@link TierStatistics} counters when published.
+ */
+public class TwoTierCacheMetrics extends CacheMeterBinder {
+    private final TwoTierCache cache;
+
+    public TwoTierCacheMetrics(TwoTierCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        return cache.getNearSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return cache.getStatistics().getNearHits() + cache.getStatistics().getRemoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return cache.getStatistics().getRemoteMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return cache.getNearEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return cache.getStatistics().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        TierStatistics statistics = cache.getStatistics();
+        tierGets(registry, statistics, "near", "hit", TierStatistics::getNearHits);
+        tierGets(registry, statistics, "near", "miss", TierStatistics::getNearMisses);
+        tierGets(registry, statistics, "remote", "hit", TierStatistics::getRemoteHits);
+        tierGets(registry, statistics, "remote", "miss", TierStatistics::getRemoteMisses);
+        FunctionTimer.builder("cache.load", statistics, TierStatistics::getLoads, TierStatistics::getLoadNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName())
+                .tag("result", "success")
+                .description("Values computed on a miss")
+                .register(registry);
+        FunctionTimer.builder("cache.load", statistics, TierStatistics::getFailedLoads, TierStatistics::getFailedLoadNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName())
+                .tag("result", "failure")
+                .description("Values computed on a miss")
+                .register(registry);
+    }
+
+    private void tierGets(MeterRegistry registry, TierStatistics statistics, String tier, String result,
+                          ToDoubleFunction<TierStatistics> count) {
+        FunctionCounter.builder("cache.tier.gets", statistics, count)
+                .tags(getTagsWithCacheName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .description("Lookups per tier, a near miss falls through to the remote tier")
+                .register(registry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.bhagat.redis.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the in-process (L1) tier placed in front of the Redis (L2) cache and of the individual caches.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class TwoTierCacheProperties {
+
+    /**
+     * Pub/sub channel used to broadcast evictions to the other nodes.
+     */
+    private String invalidationChannel = "cache-invalidation";
+
+    /**
+     * Threads recomputing entries ahead of their expiry.
+     */
+    private int refreshThreads = 2;
+
+    private final Near near = new Near();
+
+    /**
+     * Per cache name settings, caches without an entry use the {@link CacheSpec} defaults.
+     */
+    private final Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+    public CacheSpec getSpec(String cacheName) {
+        return caches.getOrDefault(cacheName, CacheSpec.DEFAULT);
+    }
+
+    /**
+     * @param defaults configuration applied to every cache
+     * @return the Redis configuration of each configured cache
+     */
+    public Map<String, RedisCacheConfiguration> toRedisCacheConfigurations(RedisCacheConfiguration defaults) {
+        Map<String, RedisCacheConfiguration> configurations = new LinkedHashMap<>();
+        caches.forEach((name, spec) -> {
+            RedisCacheConfiguration configuration = defaults.entryTtl(spec.getTimeToLive());
+            configurations.put(name, spec.isCacheNullValues() ? configuration : configuration.disableCachingNullValues());
+        });
+        return configurations;
+    }
+
+    @Data
+    public static class Near {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class CacheSpec {
+        static final CacheSpec DEFAULT = new CacheSpec();
+
+        /**
+         * Time-to-live of the Redis entries, {@link Duration#ZERO} to keep them forever.
+         */
+        private Duration timeToLive = Duration.ZERO;
+        /**
+         * Random extra time-to-live, up to this duration, given to each Redis entry so entries written together do
+         * not all expire together. Only effective together with a {@link #timeToLive}.
+         */
+        private Duration timeToLiveJitter = Duration.ZERO;
+        /**
+         * Cache {@literal null} values; when disabled they are returned to the caller without being stored.
+         */
+        private boolean cacheNullValues = true;
+        /**
+         * Redis entries kept at most, the least recently used ones are deleted beyond; {@literal 0} for no limit.
+         * The deletes run in a script touching undeclared keys: single node Redis only, not Redis Cluster.
+         */
+        private long maxEntries = 0;
+        /**
+         * Run at most one loader per key, in this JVM and across the cluster.
+         */
+        private boolean singleFlight = true;
+        /**
+         * How long a node may hold the cluster wide load lease before other nodes load on their own.
+         */
+        private Duration leaseTime = Duration.ofSeconds(30);
+        /**
+         * Beta of the probabilistic early refresh, higher values refresh earlier; {@literal 0} disables it.
+         * Only effective together with a {@link #timeToLive}.
+         */
+        private double earlyRefreshBeta = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bhagat.redis.cart;
+
+import com.bhagat.redis.serializer.KryoRedisSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.time.Duration;
+
+/**
+ *
+ */
+@Configuration
+public class CartConfiguration {
+
+    /**
+     * Shopping cart orders, expiring with the session
+     *
+     * @param redisConnectionFactory
+     * @param binary
+     * @param timeToLive
+     * @return
+     */
+    @Bean
+    public CartStore cartStore(LettuceConnectionFactory redisConnectionFactory,
+                               @Qualifier("binaryRedisSerializer") KryoRedisSerializer binary,
+                               @Value("${app.cart.time-to-live:30m}") Duration timeToLive) {
+        return new CartStore(redisConnectionFactory, binary, timeToLive);
+    }
+
+    /**
+     * The same carts for the reactive endpoints
+     *
+     * @param redisConnectionFactory
+     * @param binary
+     * @param timeToLive
+     * @return
+     */
+    @Bean
+    public ReactiveCartStore reactiveCartStore(LettuceConnectionFactory redisConnectionFactory,
+                                               @Qualifier("binaryRedisSerializer") KryoRedisSerializer binary,
+                                               @Value("${app.cart.time-to-live:30m}") Duration timeToLive) {
+        return new ReactiveCartStore(redisConnectionFactory, binary, timeToLive);
+    }
+}
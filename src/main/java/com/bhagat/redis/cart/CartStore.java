@@ -0,0 +1,109 @@
+package com.bhagat.redis.cart;
+
+import com.bhagat.redis.connection.RedisFutures;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.ShoppingCart;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Orders of the {@link ShoppingCart shopping carts}, one list entry per order under {@code carts:<id>:orders}.
+ * <p>
+ * Adding an order appends a single entry, so the bytes sent do not depend on the number of orders already in the
+ * cart. Every access also resets the expiry of the list, which should match the session timeout.
+ */
+public class CartStore {
+    private static final String KEY_PREFIX = "carts:";
+    private static final String KEY_SUFFIX = ":orders";
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisSerializer<Object> serializer;
+    private final Duration timeToLive;
+
+    public CartStore(LettuceConnectionFactory connectionFactory, RedisSerializer<Object> serializer, Duration timeToLive) {
+        this.connectionFactory = connectionFactory;
+        this.serializer = serializer;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param cart
+     * @param order
+     * @return the number of orders in the cart, the new one included
+     */
+    public long addOrder(ShoppingCart cart, Order order) {
+        byte[] key = key(cart);
+        byte[] value = serializer.serialize(order);
+        List<Object> replies = RedisFutures.execute(connectionFactory, commands -> Arrays.asList(
+                commands.rpush(key, value),
+                commands.pexpire(key, timeToLive.toMillis())));
+        return (Long) replies.get(0);
+    }
+
+    /**
+     * @param cart
+     * @return the number of orders in the cart
+     */
+    public long size(ShoppingCart cart) {
+        byte[] key = key(cart);
+        List<Object> replies = RedisFutures.execute(connectionFactory, commands -> Arrays.asList(
+                commands.llen(key),
+                commands.pexpire(key, timeToLive.toMillis())));
+        return (Long) replies.get(0);
+    }
+
+    /**
+     * @param cart
+     * @param offset index of the first order, negative to count from the most recent one
+     * @param count  maximum number of orders
+     * @return the orders, oldest first
+     */
+    public List<Order> getOrders(ShoppingCart cart, long offset, int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        byte[] key = key(cart);
+        long end = offset < 0 ? Math.min(offset + count - 1, -1) : offset + count - 1;
+        List<Object> replies = RedisFutures.execute(connectionFactory, commands -> Arrays.asList(
+                commands.lrange(key, offset, end),
+                commands.pexpire(key, timeToLive.toMillis())));
+        return read(replies.get(0));
+    }
+
+    /**
+     * @param cart
+     * @param count maximum number of orders
+     * @return the most recent orders, oldest first
+     */
+    public List<Order> getLastOrders(ShoppingCart cart, int count) {
+        return getOrders(cart, -count, count);
+    }
+
+    /**
+     * @param cart
+     */
+    public void clear(ShoppingCart cart) {
+        byte[] key = key(cart);
+        RedisFutures.execute(connectionFactory, commands -> Arrays.asList(commands.del(key)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Order> read(Object reply) {
+        List<byte[]> values = (List<byte[]>) reply;
+        List<Order> orders = new ArrayList<>(values.size());
+        for (byte[] value : values) {
+            orders.add((Order) serializer.deserialize(value));
+        }
+        return orders;
+    }
+
+    static byte[] key(ShoppingCart cart) {
+        return (KEY_PREFIX + cart.getId() + KEY_SUFFIX).getBytes(StandardCharsets.UTF_8);
+    }
+}
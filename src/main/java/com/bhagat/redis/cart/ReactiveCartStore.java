@@ -0,0 +1,69 @@
+package com.bhagat.redis.cart;
+
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.ShoppingCart;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking access to the lists of {@link CartStore}, same keys and encoding. The expiry is reset after each
+ * command has replied, so it always applies to the list as that command left it.
+ */
+public class ReactiveCartStore {
+    private final ReactiveRedisTemplate<byte[], byte[]> template;
+    private final RedisSerializer<Object> serializer;
+    private final Duration timeToLive;
+
+    public ReactiveCartStore(ReactiveRedisConnectionFactory connectionFactory, RedisSerializer<Object> serializer,
+                             Duration timeToLive) {
+        this.template = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.byteArray());
+        this.serializer = serializer;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param cart
+     * @param order
+     * @return the number of orders in the cart, the new one included
+     */
+    public Mono<Long> addOrder(ShoppingCart cart, Order order) {
+        byte[] key = CartStore.key(cart);
+        return Mono.fromSupplier(() -> serializer.serialize(order))
+                .flatMap(value -> template.opsForList().rightPush(key, value))
+                .flatMap(size -> template.expire(key, timeToLive).thenReturn(size));
+    }
+
+    /**
+     * @param cart
+     * @return the number of orders in the cart
+     */
+    public Mono<Long> size(ShoppingCart cart) {
+        byte[] key = CartStore.key(cart);
+        return template.opsForList().size(key)
+                .flatMap(size -> template.expire(key, timeToLive).thenReturn(size));
+    }
+
+    /**
+     * @param cart
+     * @param offset index of the first order, negative to count from the most recent one
+     * @param count  maximum number of orders
+     * @return the orders, oldest first
+     */
+    public Flux<Order> getOrders(ShoppingCart cart, long offset, int count) {
+        if (count <= 0) {
+            return Flux.empty();
+        }
+        byte[] key = CartStore.key(cart);
+        long end = offset < 0 ? Math.min(offset + count - 1, -1) : offset + count - 1;
+        return template.opsForList().range(key, offset, end).collectList()
+                .flatMap(values -> template.expire(key, timeToLive).thenReturn(values))
+                .flatMapIterable(values -> values)
+                .map(value -> (Order) serializer.deserialize(value));
+    }
+}
@@ -0,0 +1,90 @@
+package com.bhagat.redis.connection;
+
+import io.lettuce.core.ReadFrom;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Copies of the client configuration of the application, sharing its client resources, options and timeouts, and
+ * the settings of the connection pools. Pools are named so that their JMX beans can be told apart.
+ */
+public final class ClientConfigurations {
+    /**
+     * Pool of the application connection factory.
+     */
+    public static final String SHARED_POOL = "shared";
+    /**
+     * Pool of the {@link DedicatedConnectionFactory}.
+     */
+    public static final String DEDICATED_POOL = "dedicated";
+    /**
+     * Start of the JMX names of the connection pools, followed by the pool name.
+     */
+    public static final String JMX_NAME_PREFIX = "redis-";
+
+    private ClientConfigurations() {
+    }
+
+    /**
+     * @param source
+     * @param pool
+     * @return the configuration with the given pool, reading from the master only
+     */
+    static LettuceClientConfiguration pooled(LettuceClientConfiguration source, ConnectionProperties.Pool pool) {
+        GenericObjectPoolConfig<?> poolConfig = poolConfig(DEDICATED_POOL, pool.getMaxActive(), pool.getMaxIdle(),
+                pool.getMinIdle(), pool.getMaxWait());
+        // a connection closed by its user, as a ManualFlushPipeline left unclean, is dropped instead of reused
+        poolConfig.setTestOnReturn(true);
+        return copy(source, LettucePoolingClientConfiguration.builder().poolConfig(poolConfig)).build();
+    }
+
+    /**
+     * @param name     of the pool, its JMX name starts with {@code redis-<name>}
+     * @param maxTotal
+     * @param maxIdle
+     * @param minIdle
+     * @param maxWait  {@literal null} to wait forever
+     * @return the pool settings
+     */
+    static GenericObjectPoolConfig<?> poolConfig(String name, int maxTotal, int maxIdle, int minIdle, @Nullable Duration maxWait) {
+        GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(maxTotal);
+        poolConfig.setMaxIdle(maxIdle);
+        poolConfig.setMinIdle(minIdle);
+        poolConfig.setMaxWaitMillis(maxWait != null ? maxWait.toMillis() : -1);
+        poolConfig.setJmxNamePrefix(JMX_NAME_PREFIX + name);
+        return poolConfig;
+    }
+
+    /**
+     * @param source
+     * @param readFrom
+     * @return the configuration reading from the given nodes, without pool
+     */
+    static LettuceClientConfiguration readingFrom(LettuceClientConfiguration source, ReadFrom readFrom) {
+        return copy(source, LettuceClientConfiguration.builder()).readFrom(readFrom).build();
+    }
+
+    private static LettuceClientConfigurationBuilder copy(LettuceClientConfiguration source, LettuceClientConfigurationBuilder builder) {
+        if (source.isUseSsl()) {
+            LettuceClientConfiguration.LettuceSslClientConfigurationBuilder ssl = builder.useSsl();
+            if (!source.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (source.isStartTls()) {
+                ssl.startTls();
+            }
+        }
+        source.getClientResources().ifPresent(builder::clientResources);
+        source.getClientOptions().ifPresent(builder::clientOptions);
+        source.getClientName().ifPresent(builder::clientName);
+        return builder.commandTimeout(source.getCommandTimeout())
+                .shutdownTimeout(source.getShutdownTimeout())
+                .shutdownQuietPeriod(source.getShutdownQuietPeriod());
+    }
+}
@@ -0,0 +1,65 @@
+package com.bhagat.redis.connection;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder;
+
+/**
+ * The application factory shares one native connection for the commands that do not block; Spring Data Redis
+ * takes the blocking commands and transactions to connections of the {@code spring.redis.lettuce.pool}. The
+ * factories below are not {@code RedisConnectionFactory} beans, so Spring Boot still creates the application one.
+ */
+@Configuration
+public class ConnectionConfiguration {
+
+    /**
+     * Same pool as Spring Boot configures from {@code spring.redis.lettuce.pool}, named for the pool metrics
+     *
+     * @param redisProperties
+     * @return
+     */
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer sharedPoolCustomizer(RedisProperties redisProperties) {
+        return builder -> {
+            RedisProperties.Pool pool = redisProperties.getLettuce().getPool();
+            if (pool != null && builder instanceof LettucePoolingClientConfigurationBuilder) {
+                GenericObjectPoolConfig<?> poolConfig = ClientConfigurations.poolConfig(ClientConfigurations.SHARED_POOL,
+                        pool.getMaxActive(), pool.getMaxIdle(), pool.getMinIdle(), pool.getMaxWait());
+                if (pool.getTimeBetweenEvictionRuns() != null) {
+                    poolConfig.setTimeBetweenEvictionRunsMillis(pool.getTimeBetweenEvictionRuns().toMillis());
+                }
+                ((LettucePoolingClientConfigurationBuilder) builder).poolConfig(poolConfig);
+            }
+        };
+    }
+
+    /**
+     * Pooled unshared connections, for the {@link ManualFlushPipeline manual flush pipelines} and blocking reads
+     *
+     * @param redisConnectionFactory
+     * @param properties
+     * @return
+     */
+    @Bean
+    public DedicatedConnectionFactory dedicatedConnectionFactory(LettuceConnectionFactory redisConnectionFactory,
+                                                                 ConnectionProperties properties) {
+        return new DedicatedConnectionFactory(redisConnectionFactory, properties);
+    }
+
+    /**
+     * Connection of the read-mostly queries, reading from replicas when configured
+     *
+     * @param redisConnectionFactory
+     * @param properties
+     * @return
+     */
+    @Bean
+    public ReplicaConnectionFactory replicaConnectionFactory(LettuceConnectionFactory redisConnectionFactory,
+                                                             ConnectionProperties properties) {
+        return new ReplicaConnectionFactory(redisConnectionFactory, properties);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bhagat.redis.connection;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the connections opened besides the shared one of the application {@code LettuceConnectionFactory},
+ * which is configured with the {@code spring.redis} properties.
+ */
+@Data
+@ConfigurationProperties("app.redis")
+public class ConnectionProperties {
+    /**
+     * Nodes read by the read-mostly queries, a Lettuce {@link io.lettuce.core.ReadFrom} name such as
+     * {@code replicaPreferred}. Replicas are discovered from the configured server. Unset to read from it only.
+     */
+    private String readFrom;
+    /**
+     * Pool of the {@link DedicatedConnectionFactory dedicated connections}.
+     */
+    private Pool dedicated = new Pool();
+    /**
+     * Commands buffered by a {@link ManualFlushPipeline} before they are written to the socket, {@literal 0} to
+     * write them on flush only.
+     */
+    private int pipelineWriteBatchSize = 1000;
+
+    @Data
+    public static class Pool {
+        /**
+         * Connections open at once, callers wait beyond.
+         */
+        private int maxActive = 8;
+        /**
+         * Connections kept open while unused.
+         */
+        private int maxIdle = 8;
+        /**
+         * Connections opened ahead of use.
+         */
+        private int minIdle = 0;
+        /**
+         * Longest wait for a connection when all are in use.
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+    }
+}
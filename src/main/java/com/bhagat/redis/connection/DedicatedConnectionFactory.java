@@ -0,0 +1,56 @@
+package com.bhagat.redis.connection;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Connections to the same standalone server as the application {@link LettuceConnectionFactory}, each with its own
+ * native connection.
+ * <p>
+ * The application factory shares one native connection between all its connections, pipelined ones included, so
+ * any state changed on it, such as disabling auto flush, affects every other caller. Connections from this factory
+ * can be changed freely, as long as the change is undone before the
+ * {@link org.springframework.data.redis.connection.RedisConnection} is closed: native connections are pooled and
+ * handed to the next caller instead of being opened and closed each time. They always use the master, the callers
+ * read what they are about to write.
+ */
+public class DedicatedConnectionFactory implements InitializingBean, DisposableBean {
+    private final LettuceConnectionFactory connectionFactory;
+    private final int pipelineWriteBatchSize;
+
+    public DedicatedConnectionFactory(LettuceConnectionFactory shared) {
+        this(shared, new ConnectionProperties());
+    }
+
+    public DedicatedConnectionFactory(LettuceConnectionFactory shared, ConnectionProperties properties) {
+        this.connectionFactory = new LettuceConnectionFactory(shared.getStandaloneConfiguration(),
+                ClientConfigurations.pooled(shared.getClientConfiguration(), properties.getDedicated()));
+        this.connectionFactory.setShareNativeConnection(false);
+        this.pipelineWriteBatchSize = properties.getPipelineWriteBatchSize();
+    }
+
+    /**
+     * @return factory whose connections never use a shared native connection
+     */
+    public LettuceConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * @return commands a {@link ManualFlushPipeline} buffers before writing them, {@literal 0} for no limit
+     */
+    public int getPipelineWriteBatchSize() {
+        return pipelineWriteBatchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @Override
+    public void destroy() {
+        connectionFactory.destroy();
+    }
+}
@@ -0,0 +1,148 @@
+package com.bhagat.redis.connection;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pipeline on a dedicated Lettuce connection that writes to the socket in batches instead of command by command.
+ * <p>
+ * {@link RedisConnection#openPipeline()} in Spring Data Redis 2.2 flushes every command on its own, so a pipeline
+ * of thousands of commands still pays one socket write per command. Here commands are buffered by Lettuce
+ * and written together, and {@link #flush()} waits for all their replies.
+ * <p>
+ * Spring Data Redis 2.2 also pipelines on the native connection shared by the whole application, so the pipeline
+ * is opened on a {@link DedicatedConnectionFactory} instead, where turning auto flush off affects no one else.
+ * <p>
+ * Besides {@link #flush()}, commands are written every
+ * {@link DedicatedConnectionFactory#getPipelineWriteBatchSize() write batch size} commands without waiting, so Redis starts on a large batch while the rest is still being encoded and the
+ * buffered commands do not pile up in memory.
+ * <p>
+ * A pipeline closed after a failure, with replies not awaited or a {@code MULTI} not executed, waits for the
+ * replies and discards the transaction before the connection goes back to the pool, so the next user does not
+ * run its commands inside them. If that fails the native connection is closed and the pool drops it.
+ */
+public class ManualFlushPipeline implements AutoCloseable {
+    private final RedisConnection connection;
+    private final StatefulRedisConnection<byte[], byte[]> nativeConnection;
+    private final RedisAsyncCommands<byte[], byte[]> commands;
+    private final long timeoutMillis;
+    private final int writeBatchSize;
+    private final List<RedisFuture<?>> futures = new ArrayList<>();
+    private int unwritten;
+
+    @SuppressWarnings("unchecked")
+    private ManualFlushPipeline(LettuceConnectionFactory connectionFactory, int writeBatchSize) {
+        this.writeBatchSize = writeBatchSize;
+        this.timeoutMillis = connectionFactory.getClientConfiguration().getCommandTimeout().toMillis();
+        this.connection = connectionFactory.getConnection();
+        try {
+            connection.openPipeline();
+            Object nativeCommands = connection.getNativeConnection();
+            Assert.isInstanceOf(RedisAsyncCommands.class, nativeCommands, "Manual flush requires a standalone connection");
+            this.commands = (RedisAsyncCommands<byte[], byte[]>) nativeCommands;
+            this.nativeConnection = commands.getStatefulConnection();
+            nativeConnection.setAutoFlushCommands(false);
+        } catch (RuntimeException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @param connectionFactory
+     * @return a pipeline to {@link #close()} once done
+     */
+    public static ManualFlushPipeline open(DedicatedConnectionFactory connectionFactory) {
+        return new ManualFlushPipeline(connectionFactory.getConnectionFactory(), connectionFactory.getPipelineWriteBatchSize());
+    }
+
+    /**
+     * @return commands to issue, their futures must be handed to {@link #add(RedisFuture)} to be part of the results
+     */
+    public RedisAsyncCommands<byte[], byte[]> commands() {
+        return commands;
+    }
+
+    /**
+     * @param future
+     * @return the given future
+     */
+    public <T> RedisFuture<T> add(RedisFuture<T> future) {
+        futures.add(future);
+        if (writeBatchSize > 0 && ++unwritten >= writeBatchSize) {
+            nativeConnection.flushCommands();
+            unwritten = 0;
+        }
+        return future;
+    }
+
+    /**
+     * Write the buffered commands and wait for their replies.
+     *
+     * @return the replies of the {@link #add(RedisFuture) added} commands, in order
+     */
+    public List<Object> flush() {
+        nativeConnection.flushCommands();
+        unwritten = 0;
+        // kept until all replies came back, for close() to wait on when they do not
+        List<Object> results = RedisFutures.awaitAll(futures, timeoutMillis);
+        futures.clear();
+        return results;
+    }
+
+    @Override
+    public void close() {
+        try {
+            boolean clean = settle();
+            nativeConnection.setAutoFlushCommands(true);
+            connection.closePipeline();
+            if (!clean) {
+                nativeConnection.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Discard an open transaction and wait for the replies of the commands sent, failed ones included.
+     *
+     * @return {@literal false} if replies are still missing, the connection must not be reused
+     */
+    private boolean settle() {
+        if (futures.isEmpty() && !nativeConnection.isMulti()) {
+            return true;
+        }
+        List<RedisFuture<?>> pending = new ArrayList<>(futures);
+        futures.clear();
+        if (nativeConnection.isMulti()) {
+            pending.add(commands.discard());
+        }
+        nativeConnection.flushCommands();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (RedisFuture<?> future : pending) {
+            try {
+                future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | CancellationException ex) {
+                // answered, the connection is in step
+            } catch (TimeoutException ex) {
+                return false;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !nativeConnection.isMulti();
+    }
+}
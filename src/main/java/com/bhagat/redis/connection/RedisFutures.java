@@ -0,0 +1,68 @@
+package com.bhagat.redis.connection;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Waiting on the replies of commands sent without waiting in between.
+ */
+public final class RedisFutures {
+
+    private RedisFutures() {
+    }
+
+    /**
+     * Send commands on the shared native connection without waiting in between, then wait for all replies.
+     *
+     * @param connectionFactory
+     * @param commands issues the commands and returns their futures
+     * @return the replies, in the order of the returned futures
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object> execute(LettuceConnectionFactory connectionFactory,
+                                       Function<RedisClusterAsyncCommands<byte[], byte[]>, List<? extends RedisFuture<?>>> commands) {
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            List<? extends RedisFuture<?>> futures =
+                    commands.apply((RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection());
+            return awaitAll(futures, connectionFactory.getClientConfiguration().getCommandTimeout().toMillis());
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * @param futures
+     * @param timeoutMillis
+     * @return the replies, in the order of the futures
+     */
+    public static List<Object> awaitAll(Collection<? extends RedisFuture<?>> futures, long timeoutMillis) {
+        RedisFuture<?>[] pending = futures.toArray(new RedisFuture[0]);
+        try {
+            if (!LettuceFutures.awaitAll(timeoutMillis, TimeUnit.MILLISECONDS, pending)) {
+                throw new RedisSystemException("Redis commands timed out after " + timeoutMillis + "ms", null);
+            }
+            List<Object> results = new ArrayList<>(pending.length);
+            for (RedisFuture<?> future : pending) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("Interrupted while waiting for Redis replies", ex);
+        } catch (ExecutionException ex) {
+            throw new RedisSystemException("Redis command failed", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bhagat.redis.connection;
+
+import io.lettuce.core.ReadFrom;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.util.StringUtils;
+
+/**
+ * Connections of the read-mostly queries, reading from the nodes selected by {@code app.redis.read-from}.
+ * <p>
+ * Lettuce discovers the replicas of the configured server and sends the read-only commands to the selected nodes,
+ * everything else, scripts included, to the master. Replication is asynchronous: a read may miss a write
+ * acknowledged just before. Without {@code read-from} the application factory is used as is.
+ */
+public class ReplicaConnectionFactory implements InitializingBean, DisposableBean {
+    private final LettuceConnectionFactory shared;
+    private final LettuceConnectionFactory replicas;
+
+    public ReplicaConnectionFactory(LettuceConnectionFactory shared, ConnectionProperties properties) {
+        this.shared = shared;
+        if (StringUtils.hasText(properties.getReadFrom())) {
+            this.replicas = new LettuceConnectionFactory(shared.getStandaloneConfiguration(),
+                    ClientConfigurations.readingFrom(shared.getClientConfiguration(), ReadFrom.valueOf(properties.getReadFrom())));
+        } else {
+            this.replicas = null;
+        }
+    }
+
+    /**
+     * @return factory sharing one native connection, routing the reads to the selected nodes
+     */
+    public LettuceConnectionFactory getConnectionFactory() {
+        return replicas != null ? replicas : shared;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (replicas != null) {
+            replicas.afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (replicas != null) {
+            replicas.destroy();
+        }
+    }
+}
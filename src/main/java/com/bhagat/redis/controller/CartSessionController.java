@@ -1,5 +1,8 @@
 package com.bhagat.redis.controller;
 
+import com.bhagat.redis.cart.CartStore;
+import com.bhagat.redis.id.IdGenerator;
+import com.bhagat.redis.id.IdGenerators;
 import com.bhagat.redis.model.Order;
 import com.bhagat.redis.model.ShoppingCart;
 import lombok.extern.java.Log;
@@ -11,24 +14,32 @@ import org.springframework.web.bind.annotation.SessionAttributes;
 
 import java.util.Collections;
 import java.util.Date;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Log
 @Controller
-@SessionAttributes("cart")
+@SessionAttributes("shoppingCart")
 public class CartSessionController {
-    private final AtomicLong ids = new AtomicLong();
+    private static final int SHOWN_ORDERS = 20;
 
-    @ModelAttribute("cart")
+    private final CartStore carts;
+    private final IdGenerator orderIds;
+
+    public CartSessionController(CartStore carts, IdGenerators ids) {
+        this.carts = carts;
+        this.orderIds = ids.forType(Order.class);
+    }
+
+    @ModelAttribute("shoppingCart")
     private ShoppingCart cart() {
         log.info("Creating new Cart");
         return new ShoppingCart();
     }
 
     @GetMapping("/orders")
-    String orders(@ModelAttribute("cart") ShoppingCart cart, Model model) {
-        cart.addOrder(new Order(ids.incrementAndGet(), new Date(), Collections.emptyList()));
-        model.addAttribute("orders", cart.getOrders());
+    String orders(@ModelAttribute("shoppingCart") ShoppingCart cart, Model model) {
+        long count = carts.addOrder(cart, new Order(orderIds.nextId(), new Date(), Collections.emptyList()));
+        model.addAttribute("orders", carts.getLastOrders(cart, SHOWN_ORDERS));
+        model.addAttribute("orderCount", count);
         return "orders";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.bhagat.redis.controller;
+
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.repository.OrderRepository;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Orders through the blocking repository, the request thread waits for Redis. See {@link ReactiveOrderController}
+ * for the non-blocking counterpart.
+ */
+@RestController
+public class OrderController {
+    private final OrderRepository orderRepository;
+
+    public OrderController(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    @GetMapping("/api/orders/{id}")
+    ResponseEntity<Order> order(@PathVariable Long id) {
+        return ResponseEntity.of(orderRepository.findById(id));
+    }
+}
@@ -0,0 +1,87 @@
+package com.bhagat.redis.controller;
+
+import com.bhagat.redis.model.Address;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Geo searches over the persons, written as newline delimited JSON, one person per line, nearest first.
+ */
+@RestController
+public class PersonGeoController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_LIMIT = 1000;
+
+    private final PersonRepository personRepository;
+    private final ObjectMapper objectMapper;
+
+    public PersonGeoController(PersonRepository personRepository, ObjectMapper objectMapper) {
+        this.personRepository = personRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(path = "/persons/near", produces = NDJSON)
+    ResponseEntity<StreamingResponseBody> near(@RequestParam double lon, @RequestParam double lat,
+                                               @RequestParam double radius,
+                                               @RequestParam(defaultValue = "KILOMETERS") Metrics metric,
+                                               @RequestParam(defaultValue = "100") int limit) {
+        GeoResults<Person> results = personRepository.findByAddress_LocationNear(new Point(lon, lat),
+                new Distance(radius, metric), limit(limit));
+        return ResponseEntity.ok().body(out -> write(results, out));
+    }
+
+    @GetMapping(path = "/persons/within", produces = NDJSON)
+    ResponseEntity<StreamingResponseBody> within(@RequestParam double minLon, @RequestParam double minLat,
+                                                 @RequestParam double maxLon, @RequestParam double maxLat,
+                                                 @RequestParam(defaultValue = "100") int limit) {
+        GeoResults<Person> results = personRepository.findByAddress_LocationWithin(
+                new Box(new Point(minLon, minLat), new Point(maxLon, maxLat)), limit(limit));
+        return ResponseEntity.ok().body(out -> write(results, out));
+    }
+
+    private void write(GeoResults<Person> results, OutputStream out) throws IOException {
+        for (GeoResult<Person> result : results) {
+            out.write(objectMapper.writeValueAsBytes(line(result)));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * The line of a person, without the lazily loaded children.
+     */
+    private static Map<String, Object> line(GeoResult<Person> result) {
+        Person person = result.getContent();
+        Address address = person.getAddress();
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", person.getId());
+        line.put("firstname", person.getFirstname());
+        line.put("lastname", person.getLastname());
+        line.put("city", address == null ? null : address.getCity());
+        line.put("location", address == null || address.getLocation() == null ? null
+                : new double[]{address.getLocation().getX(), address.getLocation().getY()});
+        line.put("distance", result.getDistance().getValue());
+        return line;
+    }
+
+    private static int limit(int limit) {
+        return limit <= 0 ? MAX_LIMIT : Math.min(limit, MAX_LIMIT);
+    }
+}
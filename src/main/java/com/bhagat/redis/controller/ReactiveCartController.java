@@ -0,0 +1,61 @@
+package com.bhagat.redis.controller;
+
+import com.bhagat.redis.cart.ReactiveCartStore;
+import com.bhagat.redis.id.IdGenerator;
+import com.bhagat.redis.id.IdGenerators;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.ShoppingCart;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * The cart of the HTTP session, the same one as {@link CartSessionController}'s. Carts are never addressed by id, so
+ * a client only reaches its own.
+ */
+@RestController
+@RequestMapping("/reactive/cart/orders")
+public class ReactiveCartController {
+    private static final int MAX_COUNT = 1000;
+    private static final String CART_ATTRIBUTE = "shoppingCart";
+
+    private final ReactiveCartStore carts;
+    private final IdGenerator orderIds;
+
+    public ReactiveCartController(ReactiveCartStore carts, IdGenerators ids) {
+        this.carts = carts;
+        this.orderIds = ids.forType(Order.class);
+    }
+
+    @GetMapping
+    Flux<Order> orders(HttpServletRequest request, @RequestParam(defaultValue = "20") int count) {
+        HttpSession session = request.getSession(false);
+        ShoppingCart cart = session != null ? (ShoppingCart) session.getAttribute(CART_ATTRIBUTE) : null;
+        if (cart == null) {
+            return Flux.empty();
+        }
+        int limited = Math.min(count, MAX_COUNT);
+        return carts.getOrders(cart, -limited, limited);
+    }
+
+    @PostMapping
+    Mono<Long> addOrder(HttpSession session) {
+        ShoppingCart cart = (ShoppingCart) session.getAttribute(CART_ATTRIBUTE);
+        if (cart == null) {
+            cart = new ShoppingCart();
+            session.setAttribute(CART_ATTRIBUTE, cart);
+        }
+        ShoppingCart sessionCart = cart;
+        return Mono.fromSupplier(() -> new Order(orderIds.nextId(), new Date(), Collections.emptyList()))
+                .flatMap(order -> carts.addOrder(sessionCart, order));
+    }
+}
@@ -0,0 +1,84 @@
+package com.bhagat.redis.controller;
+
+import com.bhagat.redis.index.SortedSetIndexes;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.reactive.ReactiveEntityOperations;
+import com.bhagat.redis.service.OrderService;
+import org.springframework.data.domain.Range;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Orders and line items over the reactive Redis API: no request thread waits on Redis, the response is written
+ * when the reply arrives. Time ranges are streamed as server-sent events or {@code application/stream+json}, one
+ * order per event or line, as they are read.
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveOrderController {
+    private final ReactiveEntityOperations operations;
+    private final OrderService orderService;
+
+    public ReactiveOrderController(ReactiveEntityOperations operations, OrderService orderService) {
+        this.operations = operations;
+        this.orderService = orderService;
+    }
+
+    @GetMapping("/orders/{id}")
+    Mono<ResponseEntity<Order>> order(@PathVariable Long id) {
+        return operations.findById(Order.class, id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(path = "/orders", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    Flux<Order> orders(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+        return operations.findByRange(Order.class, "when",
+                Range.closed(SortedSetIndexes.score(from), SortedSetIndexes.score(to)));
+    }
+
+    /**
+     * Takes the descriptions of the line items only: the order and line item ids are always generated, a client
+     * supplied id would rewrite the line item of another order.
+     *
+     * @param descriptions of the line items
+     * @param customerId
+     * @return the placed order
+     */
+    @PostMapping("/orders")
+    Mono<Order> placeOrder(@RequestBody List<String> descriptions, @RequestParam(required = false) String customerId) {
+        List<LineItem> lineItems = new ArrayList<>(descriptions.size());
+        for (String description : descriptions) {
+            lineItems.add(new LineItem(null, null, description));
+        }
+        return orderService.placeOrderAsync(new Order(null, new Date(), null), lineItems, customerId);
+    }
+
+    @GetMapping("/line-items/{id}")
+    Mono<ResponseEntity<LineItem>> lineItem(@PathVariable Long id) {
+        return operations.findById(LineItem.class, id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(path = "/orders/{id}/line-items", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    Flux<LineItem> lineItems(@PathVariable Long id) {
+        return operations.findByIndex(LineItem.class, "orderId", id);
+    }
+}
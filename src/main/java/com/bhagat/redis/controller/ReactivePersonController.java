@@ -0,0 +1,38 @@
+package com.bhagat.redis.controller;
+
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.reactive.ReactiveEntityOperations;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Persons over the reactive Redis API, children included.
+ */
+@RestController
+@RequestMapping("/reactive/persons")
+public class ReactivePersonController {
+    private final ReactiveEntityOperations operations;
+
+    public ReactivePersonController(ReactiveEntityOperations operations) {
+        this.operations = operations;
+    }
+
+    @GetMapping("/{id}")
+    Mono<ResponseEntity<Person>> person(@PathVariable String id) {
+        return operations.findById(Person.class, id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    Flux<Person> byLastname(@RequestParam String lastname) {
+        return operations.findByIndex(Person.class, "lastname", lastname);
+    }
+}
@@ -0,0 +1,197 @@
+package com.bhagat.redis.convert;
+
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.MappingRedisConverter;
+import org.springframework.data.redis.core.convert.PathIndexResolver;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link MappingRedisConverter} resolving {@link org.springframework.data.annotation.Reference references} in
+ * batches instead of one {@code HGETALL} per referenced entity.
+ * <p>
+ * Before an entity is read, the references of the whole graph reachable from it are fetched level by level,
+ * one {@link BatchingReferenceResolver#fetch(java.util.Collection) batch} per level, so reading an order with
+ * its line items costs two round trips whatever the number of line items. References marked
+ * {@link LazyReference} are skipped and become a {@link LazyReferenceList} fetching its entities in one batch
+ * on first access.
+ */
+public class BatchingRedisConverter extends MappingRedisConverter {
+    private final BatchingReferenceResolver references;
+
+    public BatchingRedisConverter(RedisMappingContext mappingContext, BatchingReferenceResolver references) {
+        super(mappingContext, new PathIndexResolver(mappingContext), references);
+        this.references = references;
+    }
+
+    @Override
+    public <R> R read(Class<R> type, RedisData source) {
+        RedisPersistentEntity<?> entity = getMappingContext().getPersistentEntity(type);
+        if (entity == null || source.getBucket().isEmpty()) {
+            return super.read(type, source);
+        }
+        return references.withPrefetchScope(() -> {
+            Map<String, Class<?>> pending = new LinkedHashMap<>();
+            collectReferences(entity, source.getBucket(), pending);
+            prefetch(pending);
+            List<RedisPersistentProperty> lazy = lazyReferences(entity);
+            if (lazy.isEmpty()) {
+                return super.read(type, source);
+            }
+            RedisData withoutLazy = new RedisData(copyWithout(source.getBucket(), lazy));
+            withoutLazy.setId(source.getId());
+            withoutLazy.setKeyspace(source.getKeyspace());
+            withoutLazy.setTimeToLive(source.getTimeToLive());
+            R result = super.read(type, withoutLazy);
+            if (result != null) {
+                for (RedisPersistentProperty property : lazy) {
+                    List<String> keys = referenceKeys(property, source.getBucket());
+                    Class<?> referenced = property.getActualType();
+                    entity.getPropertyAccessor(result).setProperty(property,
+                            new LazyReferenceList<>(() -> readReferences(referenced, keys)));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the referenced entities, fetching them and their eager references in batches.
+     *
+     * @param type
+     * @param keys referenced keys, {@code keyspace:id}
+     * @return the entities found, in the order of the keys
+     */
+    public <R> List<R> readReferences(Class<R> type, List<String> keys) {
+        return references.withPrefetchScope(() -> {
+            Map<String, Class<?>> pending = new LinkedHashMap<>();
+            for (String key : keys) {
+                pending.put(key, type);
+            }
+            prefetch(pending);
+            List<R> result = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                KeyspaceIdentifier identifier = KeyspaceIdentifier.of(key);
+                Map<byte[], byte[]> hash = references.resolveReference(identifier.getId(), identifier.getKeyspace());
+                if (!CollectionUtils.isEmpty(hash)) {
+                    result.add(read(type, new RedisData(hash)));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the entity leaving its references out, without fetching anything: enough to resolve its indexes.
+     *
+     * @param type
+     * @param source
+     * @return the entity, its references {@literal null}
+     */
+    public <R> R readWithoutReferences(Class<R> type, RedisData source) {
+        RedisPersistentEntity<?> entity = getMappingContext().getRequiredPersistentEntity(type);
+        List<RedisPersistentProperty> references = new ArrayList<>();
+        entity.doWithAssociations((AssociationHandler<RedisPersistentProperty>) association ->
+                references.add(association.getInverse()));
+        if (references.isEmpty()) {
+            return super.read(type, source);
+        }
+        Bucket bucket = copyWithout(source.getBucket(), references);
+        references.forEach(property -> bucket.remove(property.getName()));
+        RedisData withoutReferences = new RedisData(bucket);
+        withoutReferences.setId(source.getId());
+        withoutReferences.setKeyspace(source.getKeyspace());
+        return super.read(type, withoutReferences);
+    }
+
+    /**
+     * Fetch the pending references and, level by level, the references of the fetched hashes.
+     */
+    private void prefetch(Map<String, Class<?>> pending) {
+        pending.keySet().removeIf(references::isPrefetched);
+        while (!pending.isEmpty()) {
+            Map<String, Map<byte[], byte[]>> fetched = references.fetch(pending.keySet());
+            Map<String, Class<?>> next = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<byte[], byte[]>> hash : fetched.entrySet()) {
+                RedisPersistentEntity<?> entity = getMappingContext().getPersistentEntity(pending.get(hash.getKey()));
+                if (entity != null && !CollectionUtils.isEmpty(hash.getValue())) {
+                    collectReferences(entity, Bucket.newBucketFromRawMap(hash.getValue()), next);
+                }
+            }
+            next.keySet().removeIf(references::isPrefetched);
+            pending = next;
+        }
+    }
+
+    private void collectReferences(RedisPersistentEntity<?> entity, Bucket bucket, Map<String, Class<?>> target) {
+        entity.doWithAssociations((AssociationHandler<RedisPersistentProperty>) association -> {
+            RedisPersistentProperty property = association.getInverse();
+            if (!isLazy(property)) {
+                for (String key : referenceKeys(property, bucket)) {
+                    target.put(key, property.getActualType());
+                }
+            }
+        });
+    }
+
+    private List<String> referenceKeys(RedisPersistentProperty property, Bucket bucket) {
+        List<String> keys = new ArrayList<>();
+        if (property.isCollectionLike()) {
+            Map<Integer, byte[]> byIndex = new HashMap<>();
+            String prefix = property.getName() + ".[";
+            for (Map.Entry<String, byte[]> entry : bucket.extract(prefix).entrySet()) {
+                String index = entry.getKey().substring(prefix.length(), entry.getKey().length() - 1);
+                byIndex.put(Integer.valueOf(index), entry.getValue());
+            }
+            byIndex.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                    .forEach(entry -> addKey(entry.getValue(), keys));
+        } else {
+            addKey(bucket.get(property.getName()), keys);
+        }
+        return keys;
+    }
+
+    private void addKey(byte[] value, List<String> keys) {
+        if (value != null) {
+            String key = fromBytes(value, String.class);
+            if (KeyspaceIdentifier.isValid(key)) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private List<RedisPersistentProperty> lazyReferences(RedisPersistentEntity<?> entity) {
+        List<RedisPersistentProperty> lazy = new ArrayList<>();
+        entity.doWithAssociations((AssociationHandler<RedisPersistentProperty>) association -> {
+            if (isLazy(association.getInverse())) {
+                lazy.add(association.getInverse());
+            }
+        });
+        return lazy;
+    }
+
+    private static boolean isLazy(RedisPersistentProperty property) {
+        return property.isAnnotationPresent(LazyReference.class) && List.class.equals(property.getType());
+    }
+
+    private static Bucket copyWithout(Bucket bucket, List<RedisPersistentProperty> properties) {
+        Bucket copy = new Bucket();
+        bucket.entrySet().forEach(entry -> copy.put(entry.getKey(), entry.getValue()));
+        for (RedisPersistentProperty property : properties) {
+            copy.extract(property.getName() + ".[").keySet().forEach(copy::remove);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bhagat.redis.convert;
+
+import com.bhagat.redis.connection.RedisFutures;
+import io.lettuce.core.RedisFuture;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.convert.ReferenceResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link ReferenceResolver} able to fetch many referenced hashes at once.
+ * <p>
+ * {@link #fetch(Collection)} sends one {@code HGETALL} per key without waiting in between, on the shared native
+ * connection, and waits for all replies. Hashes fetched inside {@link #withPrefetchScope(Supplier)} are then served
+ * from memory to {@link #resolveReference(Object, String)} until the outermost scope ends.
+ */
+public class BatchingReferenceResolver implements ReferenceResolver {
+    private final LettuceConnectionFactory connectionFactory;
+    private final ThreadLocal<Map<String, Map<byte[], byte[]>>> prefetched = new ThreadLocal<>();
+
+    public BatchingReferenceResolver(LettuceConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Map<byte[], byte[]> resolveReference(Object id, String keyspace) {
+        String key = keyspace + ":" + id;
+        Map<String, Map<byte[], byte[]>> scope = prefetched.get();
+        if (scope != null && scope.containsKey(key)) {
+            return scope.get(key);
+        }
+        return fetch(Collections.singletonList(key)).get(key);
+    }
+
+    /**
+     * @param keys hash keys, {@code keyspace:id}
+     * @return the hash of each key, empty when the key does not exist
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<byte[], byte[]>> fetch(Collection<String> keys) {
+        List<String> ordered = new ArrayList<>(keys);
+        List<Object> hashes = RedisFutures.execute(connectionFactory, commands -> {
+            List<RedisFuture<Map<byte[], byte[]>>> futures = new ArrayList<>(ordered.size());
+            for (String key : ordered) {
+                futures.add(commands.hgetall(key.getBytes(StandardCharsets.UTF_8)));
+            }
+            return futures;
+        });
+        Map<String, Map<byte[], byte[]>> result = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            result.put(ordered.get(i), (Map<byte[], byte[]>) hashes.get(i));
+        }
+        Map<String, Map<byte[], byte[]>> scope = prefetched.get();
+        if (scope != null) {
+            scope.putAll(result);
+        }
+        return result;
+    }
+
+    /**
+     * @param key
+     * @return whether the hash was fetched in the current scope already
+     */
+    public boolean isPrefetched(String key) {
+        Map<String, Map<byte[], byte[]>> scope = prefetched.get();
+        return scope != null && scope.containsKey(key);
+    }
+
+    /**
+     * Run the given action keeping the hashes fetched meanwhile. Nested scopes share the outermost one.
+     *
+     * @param action
+     * @return the result of the action
+     */
+    public <T> T withPrefetchScope(Supplier<T> action) {
+        if (prefetched.get() != null) {
+            return action.get();
+        }
+        prefetched.set(new HashMap<>());
+        try {
+            return action.get();
+        } finally {
+            prefetched.remove();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bhagat.redis.convert;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.convert.RedisCustomConversions;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+/**
+ * Replaces the repository converter and reference resolver registered by Spring Data Redis, which only
+ * registers its own when no bean of the same name exists.
+ */
+@Configuration
+public class ConverterConfiguration {
+
+    /**
+     * @param connectionFactory
+     * @return
+     */
+    @Bean("redisReferenceResolver")
+    public BatchingReferenceResolver redisReferenceResolver(LettuceConnectionFactory connectionFactory) {
+        return new BatchingReferenceResolver(connectionFactory);
+    }
+
+    /**
+     * @param keyValueMappingContext
+     * @param redisReferenceResolver
+     * @param redisCustomConversions
+     * @return
+     */
+    @Bean("redisConverter")
+    public BatchingRedisConverter redisConverter(RedisMappingContext keyValueMappingContext,
+                                                 BatchingReferenceResolver redisReferenceResolver,
+                                                 RedisCustomConversions redisCustomConversions) {
+        BatchingRedisConverter converter = new BatchingRedisConverter(keyValueMappingContext, redisReferenceResolver);
+        converter.setCustomConversions(redisCustomConversions);
+        return converter;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bhagat.redis.convert;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link org.springframework.data.annotation.Reference} list that {@link BatchingRedisConverter} reads
+ * lazily: the referenced hashes are only fetched, in one batch, when the list is first accessed.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface LazyReference {
+}
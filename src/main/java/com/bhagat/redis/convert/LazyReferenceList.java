@@ -0,0 +1,77 @@
+package com.bhagat.redis.convert;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * List of referenced entities loaded on first access. Serialized as a plain {@link ArrayList} of the loaded
+ * entities.
+ *
+ * @param <E> the referenced type
+ */
+public class LazyReferenceList<E> extends AbstractList<E> implements Serializable {
+    private transient Supplier<List<E>> loader;
+    private volatile List<E> target;
+
+    /**
+     * @param loader reads the referenced entities, called at most once
+     */
+    public LazyReferenceList(Supplier<List<E>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * @return whether the referenced entities were read already
+     */
+    public boolean isLoaded() {
+        return target != null;
+    }
+
+    @Override
+    public E get(int index) {
+        return target().get(index);
+    }
+
+    @Override
+    public int size() {
+        return target().size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        return target().set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        target().add(index, element);
+    }
+
+    @Override
+    public E remove(int index) {
+        return target().remove(index);
+    }
+
+    private List<E> target() {
+        List<E> loaded = target;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = target;
+                if (loaded == null) {
+                    loaded = new ArrayList<>(loader.get());
+                    target = loaded;
+                    loader = null;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return new ArrayList<>(target());
+    }
+}
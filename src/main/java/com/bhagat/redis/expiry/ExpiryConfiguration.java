@@ -0,0 +1,70 @@
+package com.bhagat.redis.expiry;
+
+import com.bhagat.redis.listener.MessageDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ *
+ */
+@Configuration
+public class ExpiryConfiguration {
+
+    /**
+     * Static, a post processor must not initialize its configuration early
+     *
+     * @param properties
+     * @return
+     */
+    @Bean
+    public static KeyspaceTimeToLivePostProcessor keyspaceTimeToLivePostProcessor(ObjectProvider<ExpiryProperties> properties) {
+        return new KeyspaceTimeToLivePostProcessor(properties);
+    }
+
+    /**
+     * @param connectionFactory
+     * @param keyValueMappingContext
+     * @param properties
+     * @param meterRegistry
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(value = "app.expiry.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+    public ExpirySweeper expirySweeper(LettuceConnectionFactory connectionFactory, RedisMappingContext keyValueMappingContext,
+                                       ExpiryProperties properties, MeterRegistry meterRegistry) {
+        return new ExpirySweeper(connectionFactory, keyValueMappingContext, properties, meterRegistry);
+    }
+
+    /**
+     * Receives the expired key events when some entity expires. Messages are only queued on the receiving thread,
+     * the {@link MessageDispatcher} hands them to the sweeper in batches.
+     *
+     * @param cf
+     * @param expirySweeper
+     * @param dispatcher
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(value = "app.expiry.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer expiryMessageListener(RedisConnectionFactory cf, ExpirySweeper expirySweeper,
+                                                               MessageDispatcher dispatcher) {
+        RedisMessageListenerContainer mlc = new RedisMessageListenerContainer();
+        if (!expirySweeper.getKeyspaces().isEmpty()) {
+            mlc.addMessageListener(dispatcher.batching("expiry-sweeper", expirySweeper), new PatternTopic(ExpirySweeper.EXPIRED_EVENTS));
+        }
+        mlc.setConnectionFactory(cf);
+        mlc.setTaskExecutor(new SyncTaskExecutor());
+        mlc.setSubscriptionExecutor(new SimpleAsyncTaskExecutor("redis-expiry-subscription-"));
+        return mlc;
+    }
+}
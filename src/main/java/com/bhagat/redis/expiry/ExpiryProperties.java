@@ -0,0 +1,54 @@
+package com.bhagat.redis.expiry;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time-to-live of the entities and settings of the {@link ExpirySweeper} removing what expired entities leave behind.
+ */
+@Data
+@ConfigurationProperties("app.expiry")
+public class ExpiryProperties {
+
+    /**
+     * Time-to-live of the entities per keyspace. A {@code @RedisHash(timeToLive)} or {@code @TimeToLive} property
+     * of the entity takes precedence. Fractions of a second are rounded up.
+     */
+    private final Map<String, Duration> timeToLive = new LinkedHashMap<>();
+
+    private final Sweeper sweeper = new Sweeper();
+
+    @Data
+    public static class Sweeper {
+        private boolean enabled = true;
+        /**
+         * Turn on the expired key events ({@code notify-keyspace-events Ex}) when the server has them off.
+         */
+        private boolean configureNotifications = true;
+        /**
+         * Ids checked per script call.
+         */
+        private int batchSize = 100;
+        /**
+         * Ids checked per second at most, expired events and reconciliation passes together.
+         */
+        private int maxIdsPerSecond = 1_000;
+        /**
+         * Expired ids waiting to be swept, further ones are dropped and left to the next reconciliation pass.
+         */
+        private int queueCapacity = 100_000;
+        /**
+         * Delay between two sweeps of the waiting ids.
+         */
+        private Duration interval = Duration.ofMillis(100);
+        /**
+         * Delay between two passes over the keyspace sets, catching the events missed while no node listened.
+         * The first pass starts one interval after startup.
+         */
+        private Duration reconcileInterval = Duration.ofHours(1);
+    }
+}
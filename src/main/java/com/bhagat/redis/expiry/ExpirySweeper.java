@@ -0,0 +1,328 @@
+package com.bhagat.redis.expiry;
+
+import com.bhagat.redis.connection.RedisFutures;
+import com.bhagat.redis.index.PrefixIndexed;
+import com.bhagat.redis.index.SortedSetIndexes;
+import com.bhagat.redis.listener.BatchMessageListener;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Removes the ids of expired entities from their keyspace set, index sets, sorted set and prefix indexes and
+ * {@code keyspace:id:idx} helper set, which Redis leaves behind when the hash expires.
+ * <p>
+ * Instead of the phantom key listener of Spring Data Redis, cleaning up synchronously on the pub/sub thread, expired
+ * key events are received in batches and queued; one background thread checks the queued ids with
+ * {@code scripts/expiry-sweep.lua}, a batch per call. Events are lost while no node listens, so the keyspace sets
+ * are also walked every {@code reconcileInterval} with {@code SSCAN}, one page per sweep. Both share a rate limit
+ * of {@code maxIdsPerSecond}, so sweeping never floods the server serving the requests.
+ * <p>
+ * Only the keyspaces of entities that can expire are swept: those listed in {@code app.expiry.time-to-live} and
+ * those with a {@code @RedisHash(timeToLive)} or a {@code @TimeToLive} property.
+ */
+@Log
+public class ExpirySweeper implements BatchMessageListener, SmartLifecycle {
+    /**
+     * Expired key events of every database.
+     */
+    public static final String EXPIRED_EVENTS = "__keyevent@*__:expired";
+
+    private static final RedisSerializer<byte[]> RAW = RedisSerializer.byteArray();
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<Long> RAW_LONG = (RedisSerializer) RAW;
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final ExpiryProperties.Sweeper properties;
+    private final Set<String> keyspaces;
+    /**
+     * Keyspace set followed by the prefix index keys of each swept keyspace.
+     */
+    private final Map<String, List<byte[]>> scriptKeys = new HashMap<>();
+    private final BlockingQueue<Expired> expired;
+    private final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+    private final DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+    /**
+     * {@code SSCAN} cursor of the keyspaces of the running reconciliation pass, only used by the sweeper thread.
+     */
+    private final Map<String, String> cursors = new LinkedHashMap<>();
+    private final Counter sweptByEvent;
+    private final Counter sweptByScan;
+    private final Counter dropped;
+    private long nextSweepNanos;
+    private long passRemoved;
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param connectionFactory
+     * @param mappingContext    finds the keyspaces of the expiring entities
+     * @param properties
+     * @param meterRegistry
+     */
+    public ExpirySweeper(LettuceConnectionFactory connectionFactory, RedisMappingContext mappingContext,
+                         ExpiryProperties properties, MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties.getSweeper();
+        this.keyspaces = expiringKeyspaces(mappingContext, properties);
+        for (RedisPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (keyspaces.contains(entity.getKeySpace())) {
+                scriptKeys.put(entity.getKeySpace(), scriptKeys(entity));
+            }
+        }
+        this.expired = new ArrayBlockingQueue<>(this.properties.getQueueCapacity());
+        this.template.setConnectionFactory(connectionFactory);
+        this.template.setEnableDefaultSerializer(false);
+        this.template.afterPropertiesSet();
+        this.script.setLocation(new ClassPathResource("scripts/expiry-sweep.lua"));
+        this.script.setResultType(Long.class);
+        Gauge.builder("redis.expiry.queued", expired, BlockingQueue::size).register(meterRegistry);
+        this.sweptByEvent = Counter.builder("redis.expiry.swept").tag("source", "event").register(meterRegistry);
+        this.sweptByScan = Counter.builder("redis.expiry.swept").tag("source", "scan").register(meterRegistry);
+        this.dropped = Counter.builder("redis.expiry.dropped").register(meterRegistry);
+    }
+
+    /**
+     * @return the swept keyspaces, empty when no entity expires
+     */
+    public Set<String> getKeyspaces() {
+        return keyspaces;
+    }
+
+    @Override
+    public void onMessages(List<Message> messages) {
+        for (Message message : messages) {
+            String key = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = key.lastIndexOf(':');
+            if (separator <= 0 || !keyspaces.contains(key.substring(0, separator))) {
+                continue;
+            }
+            if (!expired.offer(new Expired(key.substring(0, separator), key.substring(separator + 1)))) {
+                dropped.increment();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || keyspaces.isEmpty()) {
+            return;
+        }
+        if (properties.isConfigureNotifications()) {
+            configureNotifications();
+        }
+        running = true;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweep, properties.getInterval().toMillis(),
+                properties.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::startPass, properties.getReconcileInterval().toMillis(),
+                properties.getReconcileInterval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Sweeping the indexes of expired entities of " + keyspaces);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start a pass over the keyspace sets now, unless one is running.
+     */
+    public void reconcile() {
+        if (running) {
+            executor.execute(this::startPass);
+        }
+    }
+
+    private void startPass() {
+        if (cursors.isEmpty()) {
+            passRemoved = 0;
+            keyspaces.forEach(keyspace -> cursors.put(keyspace, ScanCursor.INITIAL.getCursor()));
+        }
+    }
+
+    /**
+     * Check the queued ids, then one page of the running pass.
+     */
+    private void sweep() {
+        try {
+            List<Expired> batch = new ArrayList<>(properties.getBatchSize());
+            while (running && expired.drainTo(batch, properties.getBatchSize()) > 0) {
+                Map<String, List<String>> ids = new LinkedHashMap<>();
+                for (Expired entry : batch) {
+                    ids.computeIfAbsent(entry.keyspace, keyspace -> new ArrayList<>()).add(entry.id);
+                }
+                ids.forEach((keyspace, keyspaceIds) -> sweptByEvent.increment(remove(keyspace, keyspaceIds)));
+                batch.clear();
+            }
+            if (running && !cursors.isEmpty()) {
+                scanPage(cursors.keySet().iterator().next());
+            }
+        } catch (RuntimeException ex) {
+            log.warning("Cannot sweep expired entities: " + ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanPage(String keyspace) {
+        ScanCursor cursor = ScanCursor.of(cursors.get(keyspace));
+        ValueScanCursor<byte[]> page = (ValueScanCursor<byte[]>) RedisFutures.execute(connectionFactory, commands ->
+                Collections.singletonList(commands.sscan(toBytes(keyspace), cursor, ScanArgs.Builder.limit(properties.getBatchSize())))).get(0);
+        List<String> ids = new ArrayList<>(page.getValues().size());
+        for (byte[] id : page.getValues()) {
+            ids.add(new String(id, StandardCharsets.UTF_8));
+        }
+        long removed = remove(keyspace, ids);
+        sweptByScan.increment(removed);
+        passRemoved += removed;
+        if (!page.isFinished()) {
+            cursors.put(keyspace, page.getCursor());
+            return;
+        }
+        cursors.remove(keyspace);
+        if (cursors.isEmpty()) {
+            log.info("Reconciled the keyspaces " + keyspaces + ", removed " + passRemoved + " expired ids");
+        }
+    }
+
+    /**
+     * @return the number of ids removed, those whose hash no longer exists
+     */
+    private long remove(String keyspace, List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        throttle(ids.size());
+        List<byte[]> args = new ArrayList<>(ids.size() + 1);
+        args.add(toBytes(keyspace));
+        ids.forEach(id -> args.add(toBytes(id)));
+        List<byte[]> keys = scriptKeys.getOrDefault(keyspace, Collections.singletonList(toBytes(keyspace)));
+        Long removed = template.execute(script, RAW, RAW_LONG, keys, args.toArray());
+        return removed != null ? removed : 0;
+    }
+
+    /**
+     * Wait until the ids fit in {@code maxIdsPerSecond}, a batch is never split.
+     */
+    private void throttle(int ids) {
+        long now = System.nanoTime();
+        long start = Math.max(now, nextSweepNanos);
+        nextSweepNanos = start + ids * TimeUnit.SECONDS.toNanos(1) / properties.getMaxIdsPerSecond();
+        if (start > now) {
+            LockSupport.parkNanos(start - now);
+        }
+    }
+
+    /**
+     * Add the expired events to {@code notify-keyspace-events} unless already there. Servers forbidding
+     * {@code CONFIG} only get the reconciliation passes.
+     */
+    private void configureNotifications() {
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            Properties config = connection.getConfig("notify-keyspace-events");
+            String flags = config != null ? config.getProperty("notify-keyspace-events", "") : "";
+            boolean keyevent = flags.contains("E");
+            boolean expiredEvents = flags.contains("x") || flags.contains("A");
+            if (!keyevent || !expiredEvents) {
+                String updated = flags + (keyevent ? "" : "E") + (expiredEvents ? "" : "x");
+                connection.setConfig("notify-keyspace-events", updated);
+                log.info("Set notify-keyspace-events to " + updated);
+            }
+        } catch (RuntimeException ex) {
+            log.warning("Cannot enable the expired key events, only the reconciliation passes will sweep: " + ex);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private static Set<String> expiringKeyspaces(RedisMappingContext mappingContext, ExpiryProperties properties) {
+        Set<String> keyspaces = new TreeSet<>(properties.getTimeToLive().keySet());
+        for (RedisPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            RedisHash hash = entity.findAnnotation(RedisHash.class);
+            if (hash != null && (hash.timeToLive() > 0 || entity.hasExplictTimeToLiveProperty())) {
+                keyspaces.add(entity.getKeySpace());
+            }
+        }
+        return keyspaces;
+    }
+
+    private static List<byte[]> scriptKeys(RedisPersistentEntity<?> entity) {
+        String keyspace = entity.getKeySpace();
+        List<byte[]> keys = new ArrayList<>();
+        keys.add(toBytes(keyspace));
+        entity.doWithProperties((PropertyHandler<RedisPersistentProperty>) property -> {
+            if (property.isAnnotationPresent(PrefixIndexed.class)) {
+                keys.add(toBytes(SortedSetIndexes.prefixIndexKey(keyspace, property.getName())));
+                keys.add(toBytes(SortedSetIndexes.prefixMembersKey(keyspace, property.getName())));
+            }
+        });
+        return keys;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class Expired {
+        final String keyspace;
+        final String id;
+
+        Expired(String keyspace, String id) {
+            this.keyspace = keyspace;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bhagat.redis.expiry;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.domain.EntityScanner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.convert.KeyspaceConfiguration;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Registers the {@code app.expiry.time-to-live} of each keyspace in the keyspace configuration of the
+ * {@link RedisMappingContext}, before any entity is saved: the mapping context keeps the time-to-live of a type
+ * once it has been read.
+ * <p>
+ * The mapping context only learns about the entities as they are used, so the {@link RedisHash} types of the
+ * application packages are scanned and added to it first.
+ */
+@Log
+public class KeyspaceTimeToLivePostProcessor implements BeanPostProcessor, ApplicationContextAware {
+    private final ObjectProvider<ExpiryProperties> properties;
+    private ApplicationContext applicationContext;
+
+    public KeyspaceTimeToLivePostProcessor(ObjectProvider<ExpiryProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof RedisMappingContext) {
+            configure((RedisMappingContext) bean);
+        }
+        return bean;
+    }
+
+    private void configure(RedisMappingContext mappingContext) {
+        try {
+            new EntityScanner(applicationContext).scan(RedisHash.class).forEach(mappingContext::getPersistentEntity);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("Cannot scan the entities", ex);
+        }
+        KeyspaceConfiguration configuration = mappingContext.getMappingConfiguration().getKeyspaceConfiguration();
+        for (Map.Entry<String, Duration> timeToLive : properties.getObject().getTimeToLive().entrySet()) {
+            RedisPersistentEntity<?> entity = findEntity(mappingContext, timeToLive.getKey());
+            if (entity == null) {
+                log.warning("No entity is stored in keyspace " + timeToLive.getKey() + ", its time-to-live is ignored");
+                continue;
+            }
+            KeyspaceConfiguration.KeyspaceSettings settings = new KeyspaceConfiguration.KeyspaceSettings(entity.getType(), timeToLive.getKey());
+            settings.setTimeToLive(seconds(timeToLive.getKey(), timeToLive.getValue()));
+            configuration.addKeyspaceSettings(settings);
+        }
+    }
+
+    /**
+     * Redis expires keys in whole seconds, a fraction is rounded up rather than truncated: a time-to-live under a
+     * second would otherwise become 0, no expiry at all.
+     */
+    private static long seconds(String keyspace, Duration timeToLive) {
+        long seconds = timeToLive.getSeconds();
+        if (!timeToLive.isNegative() && timeToLive.getNano() > 0) {
+            seconds++;
+            log.warning("Time-to-live " + timeToLive + " of keyspace " + keyspace + " is rounded up to " + seconds
+                    + "s, Redis expires keys in whole seconds");
+        }
+        return seconds;
+    }
+
+    private static RedisPersistentEntity<?> findEntity(RedisMappingContext mappingContext, String keyspace) {
+        for (RedisPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (keyspace.equals(entity.getKeySpace())) {
+                return entity;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bhagat.redis.id;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IdGenerator} reserving blocks of consecutive ids with {@code INCRBY} on a counter shared by all the nodes.
+ * Ids are served from the local block with a single atomic increment; only the thread exhausting a block goes to
+ * Redis, once per block size ids.
+ * <p>
+ * Ids are unique but only roughly ordered across nodes, and the unused rest of a block is lost on restart.
+ */
+public class BlockIdGenerator implements IdGenerator {
+    private final StringRedisTemplate template;
+    private final String key;
+    private final int blockSize;
+    private volatile Block block = new Block(0, 0);
+
+    /**
+     * @param template
+     * @param key       counter holding the last reserved id
+     * @param blockSize ids reserved per round trip
+     */
+    public BlockIdGenerator(StringRedisTemplate template, String key, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive, was " + blockSize);
+        }
+        this.template = template;
+        this.key = key;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            Block current = this.block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            reserve(current);
+        }
+    }
+
+    /**
+     * Replace the exhausted block, unless another thread already did.
+     */
+    private synchronized void reserve(Block exhausted) {
+        if (this.block != exhausted) {
+            return;
+        }
+        Long last = template.opsForValue().increment(key, blockSize);
+        if (last == null) {
+            throw new IllegalStateException("INCRBY " + key + " returned no value, is it used in a pipeline?");
+        }
+        this.block = new Block(last - blockSize + 1, last + 1);
+    }
+
+    private static class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bhagat.redis.id;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+/**
+ * Also replaces the repository template registered by Spring Data Redis, which only registers its own when no
+ * bean of the same name exists.
+ */
+@Configuration
+public class IdConfiguration {
+
+    /**
+     * Worker id of this node in snowflake mode, when not configured
+     *
+     * @param redisConnectionFactory
+     * @param properties
+     * @return
+     */
+    @Bean
+    @Lazy
+    public WorkerIdLease workerIdLease(RedisConnectionFactory redisConnectionFactory, IdProperties properties) {
+        return new WorkerIdLease(new StringRedisTemplate(redisConnectionFactory), properties.getWorkerLeaseTime());
+    }
+
+    /**
+     * @param keyValueMappingContext
+     * @param redisConnectionFactory
+     * @param properties
+     * @param workerIdLease
+     * @return
+     */
+    @Bean
+    public IdGenerators idGenerators(RedisMappingContext keyValueMappingContext, RedisConnectionFactory redisConnectionFactory,
+                                     IdProperties properties, ObjectProvider<WorkerIdLease> workerIdLease) {
+        if (properties.getMode() == IdProperties.Mode.SNOWFLAKE) {
+            int workerId = properties.getWorkerId() != null
+                    ? properties.getWorkerId()
+                    : workerIdLease.getObject().getWorkerId();
+            IdGenerator snowflake = new SnowflakeIdGenerator(workerId);
+            return new IdGenerators(keyValueMappingContext, keyspace -> snowflake);
+        }
+        StringRedisTemplate template = new StringRedisTemplate(redisConnectionFactory);
+        return new IdGenerators(keyValueMappingContext,
+                keyspace -> new BlockIdGenerator(template, "ids:" + keyspace, properties.getBlockSize()));
+    }
+
+    /**
+     * @param redisKeyValueAdapter
+     * @param keyValueMappingContext
+     * @param idGenerators
+     * @return
+     */
+    @Bean("redisKeyValueTemplate")
+    public IdGeneratingRedisKeyValueTemplate redisKeyValueTemplate(RedisKeyValueAdapter redisKeyValueAdapter,
+                                                                   RedisMappingContext keyValueMappingContext,
+                                                                   IdGenerators idGenerators) {
+        return new IdGeneratingRedisKeyValueTemplate(redisKeyValueAdapter, keyValueMappingContext, idGenerators);
+    }
+}
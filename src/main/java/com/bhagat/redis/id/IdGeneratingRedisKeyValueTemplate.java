@@ -0,0 +1,22 @@
+package com.bhagat.redis.id;
+
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+/**
+ * {@link RedisKeyValueTemplate} giving new entities an id from the {@link IdGenerators} instead of a random one.
+ */
+public class IdGeneratingRedisKeyValueTemplate extends RedisKeyValueTemplate {
+    private final IdGenerators ids;
+
+    public IdGeneratingRedisKeyValueTemplate(RedisKeyValueAdapter adapter, RedisMappingContext mappingContext, IdGenerators ids) {
+        super(adapter, mappingContext);
+        this.ids = ids;
+    }
+
+    @Override
+    public <T> T insert(T objectToInsert) {
+        return super.insert(ids.assignIfMissing(objectToInsert), objectToInsert);
+    }
+}
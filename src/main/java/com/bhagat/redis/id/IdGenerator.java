@@ -0,0 +1,12 @@
+package com.bhagat.redis.id;
+
+/**
+ * Source of unique, positive {@code long} ids, shared by all the nodes using the same Redis.
+ */
+public interface IdGenerator {
+
+    /**
+     * @return an id never returned before, by this or another node
+     */
+    long nextId();
+}
@@ -0,0 +1,73 @@
+package com.bhagat.redis.id;
+
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Ids of the entities, one {@link IdGenerator} per keyspace. {@code Long} ids are used as generated, {@code String}
+ * ids hold their decimal form.
+ */
+public class IdGenerators {
+    private final RedisMappingContext mappingContext;
+    private final Function<String, IdGenerator> factory;
+    private final ConcurrentMap<String, IdGenerator> generators = new ConcurrentHashMap<>();
+
+    /**
+     * @param mappingContext
+     * @param factory        creates the generator of a keyspace
+     */
+    public IdGenerators(RedisMappingContext mappingContext, Function<String, IdGenerator> factory) {
+        this.mappingContext = mappingContext;
+        this.factory = factory;
+    }
+
+    /**
+     * @param type entity type
+     * @return the generator of the keyspace of the type
+     */
+    public IdGenerator forType(Class<?> type) {
+        String keyspace = mappingContext.getRequiredPersistentEntity(type).getKeySpace();
+        return generators.computeIfAbsent(keyspace, factory);
+    }
+
+    /**
+     * @param type entity type
+     * @return a new id for the type, {@code Long} or {@code String} depending on its id property
+     */
+    public Object nextId(Class<?> type) {
+        Class<?> idType = mappingContext.getRequiredPersistentEntity(type).getRequiredIdProperty().getType();
+        long id = forType(type).nextId();
+        if (Long.class.equals(idType) || long.class.equals(idType)) {
+            return id;
+        }
+        if (String.class.equals(idType)) {
+            return Long.toString(id);
+        }
+        throw new IllegalArgumentException("Cannot generate an id of type " + idType.getName() + " for " + type.getName());
+    }
+
+    /**
+     * Set a new id on the entity when it has none.
+     *
+     * @param entity
+     * @return the id of the entity
+     */
+    public Object assignIfMissing(Object entity) {
+        RedisPersistentEntity<?> persistentEntity = mappingContext.getRequiredPersistentEntity(entity.getClass());
+        Object id = persistentEntity.getIdentifierAccessor(entity).getIdentifier();
+        if (id != null) {
+            return id;
+        }
+        RedisPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        id = nextId(entity.getClass());
+        PersistentPropertyAccessor<?> accessor = persistentEntity.getPropertyAccessor(entity);
+        accessor.setProperty(idProperty, id);
+        return id;
+    }
+}
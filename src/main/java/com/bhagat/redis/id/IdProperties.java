@@ -0,0 +1,41 @@
+package com.bhagat.redis.id;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link IdGenerators}.
+ */
+@Data
+@ConfigurationProperties("app.ids")
+public class IdProperties {
+    /**
+     * How ids are generated.
+     */
+    private Mode mode = Mode.BLOCK;
+    /**
+     * Ids reserved per INCRBY in {@link Mode#BLOCK} mode.
+     */
+    private int blockSize = 1000;
+    /**
+     * Fixed worker id in {@link Mode#SNOWFLAKE} mode, leased from Redis when not set.
+     */
+    private Integer workerId;
+    /**
+     * How long a leased worker id stays reserved after its node stopped renewing it.
+     */
+    private Duration workerLeaseTime = Duration.ofSeconds(30);
+
+    public enum Mode {
+        /**
+         * Blocks of consecutive ids reserved with INCRBY, one counter per keyspace.
+         */
+        BLOCK,
+        /**
+         * Time ordered ids built from the clock and a worker id, no round trip.
+         */
+        SNOWFLAKE
+    }
+}
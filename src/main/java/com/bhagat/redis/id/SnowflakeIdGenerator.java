@@ -0,0 +1,53 @@
+package com.bhagat.redis.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time ordered {@link IdGenerator}: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of worker id and 12 bits
+ * of sequence. Ids need no round trip at all, uniqueness across nodes comes from the worker ids being distinct.
+ * <p>
+ * The timestamp and sequence are advanced together with a compare and set. When more than 4096 ids are asked
+ * within a millisecond, or the clock goes backwards, the timestamp runs ahead of the clock instead of waiting.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+    /**
+     * 2019-01-01T00:00:00Z, ids stay positive until 2088.
+     */
+    public static final long EPOCH = 1546300800000L;
+    public static final int WORKER_BITS = 10;
+    public static final int MAX_WORKERS = 1 << WORKER_BITS;
+    private static final int SEQUENCE_BITS = 12;
+
+    private final long worker;
+    private final LongSupplier clock;
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * @param workerId id of this node, below {@link #MAX_WORKERS} and not used by any other node
+     */
+    public SnowflakeIdGenerator(int workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId >= MAX_WORKERS) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + (MAX_WORKERS - 1) + ", was " + workerId);
+        }
+        this.worker = (long) workerId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            long previous = last.get();
+            long next = Math.max((clock.getAsLong() - EPOCH) << SEQUENCE_BITS, previous + 1);
+            if (last.compareAndSet(previous, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1 << SEQUENCE_BITS) - 1);
+                return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | worker | sequence;
+            }
+        }
+    }
+}
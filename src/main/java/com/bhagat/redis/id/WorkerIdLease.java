@@ -0,0 +1,91 @@
+package com.bhagat.redis.id;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake worker id held with {@code SET NX PX} on {@code ids:workers:<id>} and renewed in the background, so two
+ * running nodes never share one. The search starts at a shared counter to avoid probing from 0 on every start.
+ */
+@Log
+public class WorkerIdLease implements DisposableBean {
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final String token = UUID.randomUUID().toString();
+    private final StringRedisTemplate template;
+    private final Duration leaseTime;
+    private final int workerId;
+    private final ScheduledExecutorService renewals;
+
+    /**
+     * Acquire a free worker id.
+     *
+     * @param template
+     * @param leaseTime how long the id stays reserved when this node stops renewing it
+     */
+    public WorkerIdLease(StringRedisTemplate template, Duration leaseTime) {
+        this.template = template;
+        this.leaseTime = leaseTime;
+        this.workerId = acquire();
+        this.renewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-id-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(leaseTime.toMillis() / 3, 1);
+        renewals.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    private int acquire() {
+        Long start = template.opsForValue().increment("ids:workers");
+        for (int i = 0; i < SnowflakeIdGenerator.MAX_WORKERS; i++) {
+            int candidate = (int) ((start + i) % SnowflakeIdGenerator.MAX_WORKERS);
+            if (Boolean.TRUE.equals(template.opsForValue().setIfAbsent(key(candidate), token, leaseTime))) {
+                log.info("Acquired worker id " + candidate);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + SnowflakeIdGenerator.MAX_WORKERS + " worker ids are leased");
+    }
+
+    private void renew() {
+        try {
+            Long renewed = template.execute(RENEW, Collections.singletonList(key(workerId)), token,
+                    String.valueOf(leaseTime.toMillis()));
+            if (renewed == null || renewed == 0) {
+                log.severe("Lost the lease of worker id " + workerId + ", ids may collide with another node");
+            }
+        } catch (RuntimeException ex) {
+            log.warning("Cannot renew the lease of worker id " + workerId + ": " + ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        renewals.shutdownNow();
+        template.execute(RELEASE, Collections.singletonList(key(workerId)), token);
+    }
+
+    private static String key(int workerId) {
+        return "ids:workers:" + workerId;
+    }
+}
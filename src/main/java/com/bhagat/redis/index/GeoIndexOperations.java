@@ -0,0 +1,146 @@
+package com.bhagat.redis.index;
+
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.GeoIndexedPropertyValue;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nearest-first searches over {@link org.springframework.data.redis.core.index.GeoIndexed} properties:
+ * {@code GEORADIUS ... WITHDIST ASC COUNT} on the index, then one batch reading the matching entities.
+ */
+public class GeoIndexOperations {
+    /**
+     * Earth radius used by Redis for its distances, in meters.
+     */
+    private static final double EARTH_RADIUS = 6372797.560856;
+
+    private final StringRedisTemplate template;
+    private final BatchingRedisConverter converter;
+    private final SortedSetIndexes indexes;
+
+    public GeoIndexOperations(StringRedisTemplate template, BatchingRedisConverter converter, SortedSetIndexes indexes) {
+        this.template = template;
+        this.converter = converter;
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param type
+     * @param path   geo indexed property path, such as {@code address.location}
+     * @param center
+     * @param radius
+     * @param limit  maximum number of entities, {@literal 0} or negative for all
+     * @return the entities within the radius, nearest first, with their distance in the metric of the radius
+     */
+    public <T> GeoResults<T> near(Class<T> type, String path, Point center, Distance radius, int limit) {
+        RedisGeoCommands.GeoRadiusCommandArgs args = RedisGeoCommands.GeoRadiusCommandArgs.newGeoRadiusArgs()
+                .includeDistance().sortAscending();
+        if (limit > 0) {
+            args.limit(limit);
+        }
+        GeoResults<RedisGeoCommands.GeoLocation<String>> found = template.opsForGeo()
+                .radius(indexKey(type, path), new Circle(center, radius), args);
+        return read(type, found == null ? new ArrayList<>() : found.getContent(), radius.getMetric());
+    }
+
+    /**
+     * Searches the circle around the box, nearest to its center first, and keeps the entities inside the box.
+     * The circle is read {@code limit} locations at a time until {@code limit} of them fall inside the box.
+     *
+     * @param type
+     * @param path  geo indexed property path, such as {@code address.location}
+     * @param box   lower left and upper right corners
+     * @param limit maximum number of entities, {@literal 0} or negative for all
+     * @return the entities within the box, nearest to its center first, with their distance in kilometers
+     */
+    public <T> GeoResults<T> within(Class<T> type, String path, Box box, int limit) {
+        double minX = Math.min(box.getFirst().getX(), box.getSecond().getX());
+        double maxX = Math.max(box.getFirst().getX(), box.getSecond().getX());
+        double minY = Math.min(box.getFirst().getY(), box.getSecond().getY());
+        double maxY = Math.max(box.getFirst().getY(), box.getSecond().getY());
+        Point center = new Point((minX + maxX) / 2, (minY + maxY) / 2);
+        double corner = Math.max(distance(center, new Point(maxX, maxY)), distance(center, new Point(maxX, minY)));
+        Distance radius = new Distance(corner / 1000 + 0.001, Metrics.KILOMETERS);
+        String indexKey = indexKey(type, path);
+
+        List<GeoResult<RedisGeoCommands.GeoLocation<String>>> inside = new ArrayList<>();
+        int count = limit > 0 ? limit : 0;
+        while (true) {
+            RedisGeoCommands.GeoRadiusCommandArgs args = RedisGeoCommands.GeoRadiusCommandArgs.newGeoRadiusArgs()
+                    .includeDistance().includeCoordinates().sortAscending();
+            if (count > 0) {
+                args.limit(count);
+            }
+            GeoResults<RedisGeoCommands.GeoLocation<String>> found = template.opsForGeo()
+                    .radius(indexKey, new Circle(center, radius), args);
+            List<GeoResult<RedisGeoCommands.GeoLocation<String>>> content = found == null ? new ArrayList<>() : found.getContent();
+            inside.clear();
+            for (GeoResult<RedisGeoCommands.GeoLocation<String>> result : content) {
+                Point point = result.getContent().getPoint();
+                if (point.getX() >= minX && point.getX() <= maxX && point.getY() >= minY && point.getY() <= maxY) {
+                    inside.add(result);
+                    if (limit > 0 && inside.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            if (count == 0 || inside.size() == limit || content.size() < count) {
+                break;
+            }
+            count *= 2;
+        }
+        return read(type, inside, Metrics.KILOMETERS);
+    }
+
+    private <T> GeoResults<T> read(Class<T> type, List<GeoResult<RedisGeoCommands.GeoLocation<String>>> found,
+                                   Metric metric) {
+        String keyspace = indexes.getKeyspace(type);
+        List<String> keys = new ArrayList<>(found.size());
+        for (GeoResult<RedisGeoCommands.GeoLocation<String>> result : found) {
+            keys.add(keyspace + ":" + result.getContent().getName());
+        }
+        RedisPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+        Map<String, T> byId = new HashMap<>(keys.size());
+        for (T value : converter.readReferences(type, keys)) {
+            byId.put(String.valueOf(entity.getIdentifierAccessor(value).getIdentifier()), value);
+        }
+        List<GeoResult<T>> results = new ArrayList<>(found.size());
+        for (GeoResult<RedisGeoCommands.GeoLocation<String>> result : found) {
+            T value = byId.get(result.getContent().getName());
+            if (value != null) {
+                results.add(new GeoResult<>(value, result.getDistance()));
+            }
+        }
+        return new GeoResults<>(results, metric);
+    }
+
+    private String indexKey(Class<?> type, String path) {
+        return indexes.getKeyspace(type) + ":" + GeoIndexedPropertyValue.geoIndexName(path);
+    }
+
+    /**
+     * Haversine distance in meters, as computed by Redis.
+     */
+    private static double distance(Point from, Point to) {
+        double lat1 = Math.toRadians(from.getY());
+        double lat2 = Math.toRadians(to.getY());
+        double u = Math.sin((lat2 - lat1) / 2);
+        double v = Math.sin(Math.toRadians(to.getX() - from.getX()) / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(u * u + Math.cos(lat1) * Math.cos(lat2) * v * v));
+    }
+}
@@ -0,0 +1,60 @@
+package com.bhagat.redis.index;
+
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+/**
+ *
+ */
+@Configuration
+public class IndexConfiguration {
+
+    @Bean
+    public SortedSetIndexes sortedSetIndexes(RedisMappingContext keyValueMappingContext) {
+        return new SortedSetIndexes(keyValueMappingContext);
+    }
+
+    /**
+     * Keeps the sorted set indexes up to date, listens to the repository events
+     *
+     * @param connectionFactory
+     * @param sortedSetIndexes
+     * @return
+     */
+    @Bean
+    public SortedSetIndexWriter sortedSetIndexWriter(LettuceConnectionFactory connectionFactory, SortedSetIndexes sortedSetIndexes) {
+        return new SortedSetIndexWriter(connectionFactory, sortedSetIndexes);
+    }
+
+    @Bean
+    public RangeIndexOperations rangeIndexOperations(StringRedisTemplate stringRedisTemplate,
+                                                     BatchingRedisConverter redisConverter,
+                                                     SortedSetIndexes sortedSetIndexes) {
+        return new RangeIndexOperations(stringRedisTemplate, redisConverter, sortedSetIndexes);
+    }
+
+    @Bean
+    public SortedIndexOperations sortedIndexOperations(StringRedisTemplate stringRedisTemplate,
+                                                       BatchingRedisConverter redisConverter,
+                                                       SortedSetIndexes sortedSetIndexes) {
+        return new SortedIndexOperations(stringRedisTemplate, redisConverter, sortedSetIndexes);
+    }
+
+    @Bean
+    public PrefixIndexOperations prefixIndexOperations(LettuceConnectionFactory connectionFactory,
+                                                       BatchingRedisConverter redisConverter,
+                                                       SortedSetIndexes sortedSetIndexes) {
+        return new PrefixIndexOperations(connectionFactory, redisConverter, sortedSetIndexes);
+    }
+
+    @Bean
+    public GeoIndexOperations geoIndexOperations(StringRedisTemplate stringRedisTemplate,
+                                                 BatchingRedisConverter redisConverter,
+                                                 SortedSetIndexes sortedSetIndexes) {
+        return new GeoIndexOperations(stringRedisTemplate, redisConverter, sortedSetIndexes);
+    }
+}
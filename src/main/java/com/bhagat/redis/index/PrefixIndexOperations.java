@@ -0,0 +1,109 @@
+package com.bhagat.redis.index;
+
+import com.bhagat.redis.connection.RedisFutures;
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Type-ahead reads of the entities whose {@link PrefixIndexed} property starts with a prefix. One
+ * {@code ZRANGEBYLEX} with a {@code LIMIT} reads at most {@link #MAX_COUNT} ids from the index, then one batch reads
+ * the matching entities.
+ */
+public class PrefixIndexOperations {
+    /**
+     * Maximum number of entities returned by one search, whatever the requested count.
+     */
+    public static final int MAX_COUNT = 100;
+
+    /**
+     * Greater than any byte of an UTF-8 string, bounds the members starting with a prefix.
+     */
+    private static final byte UPPER_BOUND = (byte) 0xFF;
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final BatchingRedisConverter converter;
+    private final SortedSetIndexes indexes;
+
+    public PrefixIndexOperations(LettuceConnectionFactory connectionFactory, BatchingRedisConverter converter,
+                                 SortedSetIndexes indexes) {
+        this.connectionFactory = connectionFactory;
+        this.converter = converter;
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param type
+     * @param property prefix indexed property
+     * @param prefix
+     * @return the number of entities whose value starts with the prefix, {@code ZLEXCOUNT} is {@code O(log(N))}
+     */
+    public long count(Class<?> type, String property, String prefix) {
+        byte[] key = indexKey(type, property);
+        Range<byte[]> range = range(type, property, prefix);
+        Long count = (Long) RedisFutures.execute(connectionFactory, commands ->
+                Collections.singletonList(commands.zlexcount(key, range))).get(0);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @param type
+     * @param property prefix indexed property
+     * @param prefix
+     * @param offset
+     * @param count    maximum number of entities, capped to {@link #MAX_COUNT}
+     * @return the entities whose value starts with the prefix, ordered by value then id
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> find(Class<T> type, String property, String prefix, long offset, int count) {
+        byte[] key = indexKey(type, property);
+        Range<byte[]> range = range(type, property, prefix);
+        Limit limit = Limit.create(offset, Math.min(count, MAX_COUNT));
+        List<byte[]> members = (List<byte[]>) RedisFutures.execute(connectionFactory, commands ->
+                Collections.singletonList(commands.zrangebylex(key, range, limit))).get(0);
+        if (members == null || members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String keyspace = indexes.getKeyspace(type);
+        List<String> keys = new ArrayList<>(members.size());
+        for (byte[] member : members) {
+            keys.add(keyspace + ":" + SortedSetIndexes.prefixMemberId(new String(member, StandardCharsets.UTF_8)));
+        }
+        return converter.readReferences(type, keys);
+    }
+
+    private byte[] indexKey(Class<?> type, String property) {
+        return toBytes(SortedSetIndexes.prefixIndexKey(indexes.getKeyspace(type), property));
+    }
+
+    /**
+     * @return the members from {@code [prefix} included to {@code prefix\xff} excluded
+     */
+    private Range<byte[]> range(Class<?> type, String property, String prefix) {
+        byte[] from = toBytes(SortedSetIndexes.prefixValue(getProperty(type, property), prefix));
+        byte[] to = Arrays.copyOf(from, from.length + 1);
+        to[from.length] = UPPER_BOUND;
+        return Range.from(Range.Boundary.including(from), Range.Boundary.excluding(to));
+    }
+
+    private RedisPersistentProperty getProperty(Class<?> type, String property) {
+        for (RedisPersistentProperty prefixed : indexes.getPrefixIndexedProperties(type)) {
+            if (prefixed.getName().equals(property)) {
+                return prefixed;
+            }
+        }
+        throw new IllegalArgumentException(type.getSimpleName() + "." + property + " is not @PrefixIndexed");
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package com.bhagat.redis.index;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indexes a string property for prefix searches in one sorted set per keyspace, {@code keyspace:property#prefix}.
+ * All members share the score 0 and are {@code value\0id}, so Redis orders them lexicographically and
+ * {@code ZRANGEBYLEX} returns the entities whose value starts with a prefix, in {@code O(log(N) + M)}, through
+ * {@link PrefixIndexOperations}.
+ * <p>
+ * The member of each entity is also kept in the {@code keyspace:property#prefix-members} hash, used to move the
+ * entity when its value changes and to remove it when it is deleted or expires.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface PrefixIndexed {
+
+    /**
+     * @return whether values and prefixes are lower cased, so searches ignore case
+     */
+    boolean caseFolding() default false;
+}
@@ -0,0 +1,68 @@
+package com.bhagat.redis.index;
+
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Range queries over {@link RangeIndexed} properties: {@code ZRANGEBYSCORE} or {@code ZREVRANGEBYSCORE} with
+ * {@code LIMIT} on the index, then one batch reading the matching entities.
+ */
+public class RangeIndexOperations {
+    private final StringRedisTemplate template;
+    private final BatchingRedisConverter converter;
+    private final SortedSetIndexes indexes;
+
+    public RangeIndexOperations(StringRedisTemplate template, BatchingRedisConverter converter, SortedSetIndexes indexes) {
+        this.template = template;
+        this.converter = converter;
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param type
+     * @param property range indexed property
+     * @param min      lowest score, inclusive
+     * @param max      highest score, inclusive
+     * @param offset
+     * @param count    maximum number of entities, negative for all
+     * @return the entities, by ascending score
+     */
+    public <T> List<T> findByRange(Class<T> type, String property, double min, double max, long offset, long count) {
+        String keyspace = indexes.getKeyspace(type);
+        Set<String> ids = template.opsForZSet()
+                .rangeByScore(SortedSetIndexes.indexKey(keyspace, property), min, max, offset, count);
+        return read(type, keyspace, ids);
+    }
+
+    /**
+     * @param type
+     * @param property range indexed property
+     * @param min      lowest score, inclusive
+     * @param max      highest score, inclusive
+     * @param offset
+     * @param count    maximum number of entities, negative for all
+     * @return the entities, by descending score
+     */
+    public <T> List<T> findByRangeDescending(Class<T> type, String property, double min, double max, long offset, long count) {
+        String keyspace = indexes.getKeyspace(type);
+        Set<String> ids = template.opsForZSet()
+                .reverseRangeByScore(SortedSetIndexes.indexKey(keyspace, property), min, max, offset, count);
+        return read(type, keyspace, ids);
+    }
+
+    private <T> List<T> read(Class<T> type, String keyspace, Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            keys.add(keyspace + ":" + id);
+        }
+        return converter.readReferences(type, keys);
+    }
+}
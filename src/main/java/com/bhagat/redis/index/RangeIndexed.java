@@ -0,0 +1,19 @@
+package com.bhagat.redis.index;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indexes a {@link java.util.Date}, {@link java.time.Instant} or numeric property in one sorted set per keyspace,
+ * {@code keyspace:property#range}, scored by the property value. Unlike
+ * {@link org.springframework.data.redis.core.index.Indexed}, which keeps one set per distinct value, the sorted set
+ * answers range queries through {@link RangeIndexOperations}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface RangeIndexed {
+}
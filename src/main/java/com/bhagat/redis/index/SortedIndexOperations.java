@@ -0,0 +1,140 @@
+package com.bhagat.redis.index;
+
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Paged reads of the entities having a given value of a {@link SortedIndexed} property. Only the requested ids are
+ * read from the index, then one batch reads the matching entities.
+ */
+public class SortedIndexOperations {
+    private final StringRedisTemplate template;
+    private final BatchingRedisConverter converter;
+    private final SortedSetIndexes indexes;
+
+    public SortedIndexOperations(StringRedisTemplate template, BatchingRedisConverter converter, SortedSetIndexes indexes) {
+        this.template = template;
+        this.converter = converter;
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param type
+     * @param property sorted indexed property
+     * @param value
+     * @return the number of entities with the value, {@code ZCARD} is constant time
+     */
+    public long count(Class<?> type, String property, Object value) {
+        Long count = template.opsForZSet().zCard(indexKey(type, property, value));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @param type
+     * @param property sorted indexed property
+     * @param value
+     * @param offset
+     * @param count    maximum number of entities
+     * @return the entities with the value, ordered by id
+     */
+    public <T> List<T> find(Class<T> type, String property, Object value, long offset, int count) {
+        Collection<String> ids = template.opsForZSet().range(indexKey(type, property, value), offset, offset + count - 1);
+        return read(type, ids);
+    }
+
+    /**
+     * Keyset variant of {@link #find(Class, String, Object, long, int)}, its cost does not grow with the number of
+     * entities skipped.
+     *
+     * @param type
+     * @param property sorted indexed property
+     * @param value
+     * @param afterId  id of the last entity of the previous slice, {@literal null} for the first slice
+     * @param count    maximum number of entities
+     * @return the entities with the value and an id greater than {@code afterId}, ordered by id
+     */
+    public <T> List<T> findAfter(Class<T> type, String property, Object value, @Nullable String afterId, int count) {
+        RedisZSetCommands.Range range = afterId == null
+                ? RedisZSetCommands.Range.unbounded()
+                : RedisZSetCommands.Range.range().gt(afterId);
+        Collection<String> ids = template.opsForZSet().rangeByLex(indexKey(type, property, value), range,
+                RedisZSetCommands.Limit.limit().count(count));
+        return read(type, ids);
+    }
+
+    /**
+     * Iterate the entities with {@code ZSCAN}, reading one batch at a time. As for any {@code SCAN}, an entity
+     * added or removed during the iteration may or may not be returned, and one may be returned twice if the
+     * index is resized meanwhile. The stream must be closed to release the cursor.
+     *
+     * @param type
+     * @param property  sorted indexed property
+     * @param value
+     * @param batchSize number of ids scanned and entities read per round trip
+     * @return the entities with the value, in no particular order
+     */
+    public <T> Stream<T> stream(Class<T> type, String property, Object value, int batchSize) {
+        Cursor<ZSetOperations.TypedTuple<String>> cursor = template.opsForZSet()
+                .scan(indexKey(type, property, value), ScanOptions.scanOptions().count(batchSize).build());
+        Iterator<List<String>> batches = new Iterator<List<String>>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                if (!cursor.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<String> ids = new ArrayList<>(batchSize);
+                while (ids.size() < batchSize && cursor.hasNext()) {
+                    ids.add(cursor.next().getValue());
+                }
+                return ids;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .flatMap(ids -> read(type, ids).stream())
+                .onClose(() -> {
+                    try {
+                        cursor.close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    private String indexKey(Class<?> type, String property, Object value) {
+        return SortedSetIndexes.sortedIndexKey(indexes.getKeyspace(type), property, value);
+    }
+
+    private <T> List<T> read(Class<T> type, @Nullable Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String keyspace = indexes.getKeyspace(type);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            keys.add(keyspace + ":" + id);
+        }
+        return converter.readReferences(type, keys);
+    }
+}
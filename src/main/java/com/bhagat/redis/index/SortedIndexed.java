@@ -0,0 +1,20 @@
+package com.bhagat.redis.index;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indexes a simple property (string, number or enum) in one sorted set per value,
+ * {@code keyspace:property#sorted:value}, holding the ids of the entities with that value in lexicographical
+ * order. Unlike the set of {@link org.springframework.data.redis.core.index.Indexed}, which can only be read whole,
+ * the sorted set is paged with {@code ZRANGE}, {@code ZRANGEBYLEX} or {@code ZSCAN} and counted with {@code ZCARD}
+ * through {@link SortedIndexOperations}. Both annotations can be combined on the same property.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface SortedIndexed {
+}
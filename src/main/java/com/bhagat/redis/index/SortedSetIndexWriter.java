@@ -0,0 +1,163 @@
+package com.bhagat.redis.index;
+
+import com.bhagat.redis.connection.RedisFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisScriptingAsyncCommands;
+import io.lettuce.core.api.async.RedisSetAsyncCommands;
+import io.lettuce.core.api.async.RedisSortedSetAsyncCommands;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.keyvalue.core.event.KeyValueEvent;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@link RangeIndexed} and {@link SortedIndexed} sorted sets when entities are inserted or updated.
+ * <p>
+ * Each sorted set is also added to the {@code keyspace:id:idx} set listing the indexes of the entity. Spring Data
+ * Redis removes the entity from every index listed there, using {@code ZREM} for sorted sets, when it is deleted,
+ * expires or is updated, so no extra cleanup is needed.
+ * <p>
+ * The {@link PrefixIndexed} sorted sets hold {@code value\0id} members the {@code ZREM} of the id cannot remove, they
+ * are maintained by {@code scripts/prefix-index.lua} on insert, update and delete instead.
+ * <p>
+ * All the commands of an event, the script included, are sent in one round trip.
+ */
+public class SortedSetIndexWriter implements ApplicationListener<KeyValueEvent<?>> {
+    private final LettuceConnectionFactory connectionFactory;
+    private final SortedSetIndexes indexes;
+    private final DefaultRedisScript<Long> prefixScript = new DefaultRedisScript<>();
+    private final byte[] prefixScriptBody;
+
+    public SortedSetIndexWriter(LettuceConnectionFactory connectionFactory, SortedSetIndexes indexes) {
+        this.connectionFactory = connectionFactory;
+        this.indexes = indexes;
+        this.prefixScript.setLocation(new ClassPathResource("scripts/prefix-index.lua"));
+        this.prefixScript.setResultType(Long.class);
+        this.prefixScriptBody = toBytes(prefixScript.getScriptAsString());
+    }
+
+    @Override
+    public void onApplicationEvent(KeyValueEvent<?> event) {
+        if (event instanceof KeyValueEvent.AfterInsertEvent) {
+            KeyValueEvent.AfterInsertEvent<?> insert = (KeyValueEvent.AfterInsertEvent<?>) event;
+            index(insert.getKeyspace(), insert.getKey(), insert.getPayload());
+        } else if (event instanceof KeyValueEvent.AfterUpdateEvent) {
+            KeyValueEvent.AfterUpdateEvent<?> update = (KeyValueEvent.AfterUpdateEvent<?>) event;
+            index(update.getKeyspace(), update.getKey(), update.after());
+        } else if (event instanceof KeyValueEvent.AfterDeleteEvent) {
+            KeyValueEvent.AfterDeleteEvent<?> delete = (KeyValueEvent.AfterDeleteEvent<?>) event;
+            Object id = delete.getKey();
+            Class<?> type = delete.getType();
+            if (!indexes.getPrefixIndexedProperties(type).isEmpty()) {
+                RedisFutures.execute(connectionFactory, commands -> {
+                    List<RedisFuture<?>> futures = new ArrayList<>();
+                    futures.add(commands.scriptLoad(prefixScriptBody));
+                    indexPrefixes(commands, delete.getKeyspace(), id, type, null, futures);
+                    return futures;
+                });
+            }
+        }
+    }
+
+    /**
+     * Queue the index commands of saved entities without waiting for their replies, for writers that maintain the
+     * other keys of the entities in their own pipeline instead of publishing repository events. The prefix script is
+     * loaded once, ahead of the entities, so its {@code EVALSHA} cannot miss even after a restart of Redis.
+     *
+     * @param commands of the pipeline
+     * @param keyspace
+     * @param entities by id
+     * @return the futures of the queued commands
+     */
+    public <C extends RedisSetAsyncCommands<byte[], byte[]> & RedisSortedSetAsyncCommands<byte[], byte[]>
+            & RedisScriptingAsyncCommands<byte[], byte[]>> List<RedisFuture<?>> index(C commands, String keyspace,
+                                                                                     Map<?, ?> entities) {
+        List<RedisFuture<?>> futures = new ArrayList<>();
+        boolean scriptLoaded = false;
+        for (Map.Entry<?, ?> entry : entities.entrySet()) {
+            Object entity = entry.getValue();
+            if (!scriptLoaded && !indexes.getPrefixIndexedProperties(entity.getClass()).isEmpty()) {
+                futures.add(commands.scriptLoad(prefixScriptBody));
+                scriptLoaded = true;
+            }
+            index(commands, keyspace, entry.getKey(), entity, futures);
+        }
+        return futures;
+    }
+
+    private void index(String keyspace, Object id, Object entity) {
+        if (entity == null || !isIndexed(entity.getClass())) {
+            return;
+        }
+        RedisFutures.execute(connectionFactory, commands -> index(commands, keyspace, Collections.singletonMap(id, entity)));
+    }
+
+    private boolean isIndexed(Class<?> type) {
+        return !indexes.getIndexedProperties(type).isEmpty() || !indexes.getSortedIndexedProperties(type).isEmpty()
+                || !indexes.getPrefixIndexedProperties(type).isEmpty();
+    }
+
+    private <C extends RedisSetAsyncCommands<byte[], byte[]> & RedisSortedSetAsyncCommands<byte[], byte[]>
+            & RedisScriptingAsyncCommands<byte[], byte[]>> void index(C commands, String keyspace, Object id,
+                                                                       Object entity, List<RedisFuture<?>> futures) {
+        indexPrefixes(commands, keyspace, id, entity.getClass(), entity, futures);
+        byte[] member = toBytes(id.toString());
+        byte[] helperKey = toBytes(keyspace + ":" + id + ":idx");
+        for (RedisPersistentProperty property : indexes.getIndexedProperties(entity.getClass())) {
+            byte[] indexKey = toBytes(SortedSetIndexes.indexKey(keyspace, property.getName()));
+            Double score = SortedSetIndexes.score(indexes.getValue(entity, property));
+            if (score != null) {
+                futures.add(commands.zadd(indexKey, score, member));
+                futures.add(commands.sadd(helperKey, indexKey));
+            } else {
+                futures.add(commands.zrem(indexKey, member));
+                futures.add(commands.srem(helperKey, indexKey));
+            }
+        }
+        for (RedisPersistentProperty property : indexes.getSortedIndexedProperties(entity.getClass())) {
+            Object value = indexes.getValue(entity, property);
+            if (value != null) {
+                byte[] indexKey = toBytes(SortedSetIndexes.sortedIndexKey(keyspace, property.getName(), value));
+                futures.add(commands.zadd(indexKey, 0, member));
+                futures.add(commands.sadd(helperKey, indexKey));
+            }
+        }
+    }
+
+    /**
+     * Move the entity in the prefix indexes of its type, or remove it when the entity is {@literal null}. The script
+     * must be loaded earlier on the same connection.
+     */
+    private void indexPrefixes(RedisScriptingAsyncCommands<byte[], byte[]> commands, String keyspace, Object id,
+                               Class<?> type, @Nullable Object entity, List<RedisFuture<?>> futures) {
+        List<RedisPersistentProperty> prefixed = indexes.getPrefixIndexedProperties(type);
+        if (prefixed.isEmpty()) {
+            return;
+        }
+        byte[][] keys = new byte[2 * prefixed.size()][];
+        byte[][] args = new byte[prefixed.size() + 1][];
+        args[0] = toBytes(id.toString());
+        for (int i = 0; i < prefixed.size(); i++) {
+            RedisPersistentProperty property = prefixed.get(i);
+            keys[2 * i] = toBytes(SortedSetIndexes.prefixIndexKey(keyspace, property.getName()));
+            keys[2 * i + 1] = toBytes(SortedSetIndexes.prefixMembersKey(keyspace, property.getName()));
+            Object value = entity != null ? indexes.getValue(entity, property) : null;
+            args[i + 1] = value != null ? toBytes(SortedSetIndexes.prefixMember(property, value, id)) : new byte[0];
+        }
+        futures.add(commands.evalsha(prefixScript.getSha1(), ScriptOutputType.INTEGER, keys, args));
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
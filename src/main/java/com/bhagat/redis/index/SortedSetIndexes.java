@@ -0,0 +1,184 @@
+package com.bhagat.redis.index;
+
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.lang.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keys and scores of the {@link RangeIndexed}, {@link SortedIndexed} and {@link PrefixIndexed} properties of the
+ * mapped entities.
+ */
+public class SortedSetIndexes {
+    /**
+     * Separates the value from the id in the members of a prefix index, it sorts before any character so an entity
+     * with value {@code ab} comes before one with {@code abc}.
+     */
+    public static final char PREFIX_SEPARATOR = '\0';
+    /**
+     * Follows the property name in the keys of the sorted indexes. Property paths are Java identifiers, so keys with
+     * it can never be the {@code keyspace:property:value} set of an {@link org.springframework.data.redis.core.index.Indexed}
+     * property, nor match the {@code keyspace:property:*} pattern Spring Data Redis cleans up on partial updates.
+     */
+    static final char NAMESPACE_SEPARATOR = '#';
+
+    private final RedisMappingContext mappingContext;
+    private final Map<Class<?>, List<RedisPersistentProperty>> rangeProperties = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<RedisPersistentProperty>> sortedProperties = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<RedisPersistentProperty>> prefixProperties = new ConcurrentHashMap<>();
+
+    public SortedSetIndexes(RedisMappingContext mappingContext) {
+        this.mappingContext = mappingContext;
+    }
+
+    /**
+     * @param type
+     * @return the range indexed properties of the type, empty if it is not an entity
+     */
+    public List<RedisPersistentProperty> getIndexedProperties(Class<?> type) {
+        return rangeProperties.computeIfAbsent(type, t -> findAnnotated(t, RangeIndexed.class));
+    }
+
+    /**
+     * @param type
+     * @return the sorted indexed properties of the type, empty if it is not an entity
+     */
+    public List<RedisPersistentProperty> getSortedIndexedProperties(Class<?> type) {
+        return sortedProperties.computeIfAbsent(type, t -> findAnnotated(t, SortedIndexed.class));
+    }
+
+    /**
+     * @param type
+     * @return the prefix indexed properties of the type, empty if it is not an entity
+     */
+    public List<RedisPersistentProperty> getPrefixIndexedProperties(Class<?> type) {
+        return prefixProperties.computeIfAbsent(type, t -> findAnnotated(t, PrefixIndexed.class));
+    }
+
+    /**
+     * @param entity
+     * @param property
+     * @return the value of the property
+     */
+    @Nullable
+    public Object getValue(Object entity, RedisPersistentProperty property) {
+        return mappingContext.getRequiredPersistentEntity(entity.getClass()).getPropertyAccessor(entity).getProperty(property);
+    }
+
+    /**
+     * @param type
+     * @return the keyspace of the entity type
+     */
+    public String getKeyspace(Class<?> type) {
+        return mappingContext.getRequiredPersistentEntity(type).getKeySpace();
+    }
+
+    /**
+     * @param keyspace
+     * @param property
+     * @return the sorted set scoring the ids by the value of the range indexed property, {@code keyspace:property#range}
+     */
+    public static String indexKey(String keyspace, String property) {
+        return keyspace + ":" + property + NAMESPACE_SEPARATOR + "range";
+    }
+
+    /**
+     * @param keyspace
+     * @param property
+     * @param value
+     * @return the sorted set holding the ids of the entities with the value, {@code keyspace:property#sorted:value}
+     */
+    public static String sortedIndexKey(String keyspace, String property, Object value) {
+        return keyspace + ":" + property + NAMESPACE_SEPARATOR + "sorted:" + value;
+    }
+
+    /**
+     * @param keyspace
+     * @param property
+     * @return the sorted set holding the {@code value\0id} members of the prefix index, {@code keyspace:property#prefix}
+     */
+    public static String prefixIndexKey(String keyspace, String property) {
+        return keyspace + ":" + property + NAMESPACE_SEPARATOR + "prefix";
+    }
+
+    /**
+     * @param keyspace
+     * @param property
+     * @return the hash holding the member of each id in the prefix index, {@code keyspace:property#prefix-members}
+     */
+    public static String prefixMembersKey(String keyspace, String property) {
+        return prefixIndexKey(keyspace, property) + "-members";
+    }
+
+    /**
+     * @param property prefix indexed property
+     * @param value    value of the property or searched prefix
+     * @return the value as stored in the prefix index, lower cased when the index folds case
+     */
+    public static String prefixValue(RedisPersistentProperty property, Object value) {
+        PrefixIndexed prefixIndexed = property.findAnnotation(PrefixIndexed.class);
+        String string = value.toString();
+        return prefixIndexed != null && prefixIndexed.caseFolding() ? string.toLowerCase(Locale.ROOT) : string;
+    }
+
+    /**
+     * @param property prefix indexed property
+     * @param value
+     * @param id
+     * @return the member of the entity in the prefix index
+     */
+    public static String prefixMember(RedisPersistentProperty property, Object value, Object id) {
+        return prefixValue(property, value) + PREFIX_SEPARATOR + id;
+    }
+
+    /**
+     * @param member member of a prefix index
+     * @return the id of the entity
+     */
+    public static String prefixMemberId(String member) {
+        return member.substring(member.lastIndexOf(PREFIX_SEPARATOR) + 1);
+    }
+
+    /**
+     * @param value
+     * @return the score of the value, {@literal null} if the value is not indexed
+     */
+    @Nullable
+    public static Double score(@Nullable Object value) {
+        if (value instanceof Date) {
+            return (double) ((Date) value).getTime();
+        }
+        if (value instanceof Instant) {
+            return (double) ((Instant) value).toEpochMilli();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return null;
+    }
+
+    private List<RedisPersistentProperty> findAnnotated(Class<?> type, Class<? extends Annotation> annotation) {
+        RedisPersistentEntity<?> entity = mappingContext.getPersistentEntity(type);
+        if (entity == null) {
+            return Collections.emptyList();
+        }
+        List<RedisPersistentProperty> indexed = new ArrayList<>();
+        entity.doWithProperties((PropertyHandler<RedisPersistentProperty>) property -> {
+            if (property.isAnnotationPresent(annotation)) {
+                indexed.add(property);
+            }
+        });
+        return indexed;
+    }
+}
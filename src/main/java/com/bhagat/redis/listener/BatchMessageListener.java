@@ -0,0 +1,17 @@
+package com.bhagat.redis.listener;
+
+import org.springframework.data.redis.connection.Message;
+
+import java.util.List;
+
+/**
+ * Receives the pub/sub messages of a channel in batches, in the order they were published.
+ */
+@FunctionalInterface
+public interface BatchMessageListener {
+
+    /**
+     * @param messages messages of a single channel, oldest first
+     */
+    void onMessages(List<Message> messages);
+}
@@ -0,0 +1,171 @@
+package com.bhagat.redis.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.java.Log;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * {@link MessageListener} queuing the messages and handing them in batches to a {@link BatchMessageListener} on a
+ * shared executor, so the thread receiving the messages only enqueues and a slow listener only delays itself.
+ * <p>
+ * Each channel has its own bounded queue, drained by at most one task at a time, so messages of a channel are
+ * delivered in order; the queue is discarded once drained. Messages arriving to a full queue are dropped and handed
+ * to the overflow callback instead, on the receiving thread. The meters {@code redis.listener.queued}
+ * (waiting messages), {@code redis.listener.lag} (time from receipt to delivery) and {@code redis.listener.dropped}
+ * are tagged with the listener name.
+ */
+@Log
+public class DispatchingMessageListener implements MessageListener {
+    private final String name;
+    private final BatchMessageListener delegate;
+    private final Executor executor;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Consumer<Message> overflow;
+    private final ConcurrentMap<ByteArrayWrapper, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer lag;
+    private final Counter dropped;
+
+    /**
+     * @param name          listener name, for the meters and logs
+     * @param delegate
+     * @param executor      runs the listener
+     * @param queueCapacity messages waiting per channel
+     * @param batchSize     messages per call of the listener
+     * @param meterRegistry
+     */
+    public DispatchingMessageListener(String name, BatchMessageListener delegate, Executor executor,
+                                      int queueCapacity, int batchSize, MeterRegistry meterRegistry) {
+        this(name, delegate, executor, queueCapacity, batchSize, message -> {
+        }, meterRegistry);
+    }
+
+    /**
+     * @param name          listener name, for the meters and logs
+     * @param delegate
+     * @param executor      runs the listener
+     * @param queueCapacity messages waiting per channel
+     * @param batchSize     messages per call of the listener
+     * @param overflow      receives the messages dropped because their queue is full
+     * @param meterRegistry
+     */
+    public DispatchingMessageListener(String name, BatchMessageListener delegate, Executor executor,
+                                      int queueCapacity, int batchSize, Consumer<Message> overflow,
+                                      MeterRegistry meterRegistry) {
+        this.name = name;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.overflow = overflow;
+        meterRegistry.gauge("redis.listener.queued", Tags.of("listener", name), queued);
+        this.lag = Timer.builder("redis.listener.lag").tag("listener", name).register(meterRegistry);
+        this.dropped = Counter.builder("redis.listener.dropped").tag("listener", name).register(meterRegistry);
+    }
+
+    @Override
+    public void onMessage(Message message, @Nullable byte[] pattern) {
+        Received received = new Received(message, System.nanoTime());
+        AtomicBoolean offered = new AtomicBoolean();
+        // offered under the lock of the map entry, so a lane being discarded cannot take the message
+        Lane lane = lanes.compute(new ByteArrayWrapper(message.getChannel()), (channel, existing) -> {
+            Lane target = existing != null ? existing : new Lane(channel);
+            offered.set(target.queue.offer(received));
+            return target;
+        });
+        if (!offered.get()) {
+            dropped.increment();
+            overflow.accept(message);
+            return;
+        }
+        queued.incrementAndGet();
+        lane.schedule();
+    }
+
+    /**
+     * @return messages received and not yet delivered
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return channels with messages waiting or being delivered
+     */
+    int getLanes() {
+        return lanes.size();
+    }
+
+    private class Lane implements Runnable {
+        final ByteArrayWrapper channel;
+        final Queue<Received> queue = new LinkedBlockingQueue<>(queueCapacity);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Lane(ByteArrayWrapper channel) {
+            this.channel = channel;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Message> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+            long now = System.nanoTime();
+            Received received;
+            while (batch.size() < batchSize && (received = queue.poll()) != null) {
+                batch.add(received.message);
+                lag.record(now - received.nanos, TimeUnit.NANOSECONDS);
+            }
+            queued.addAndGet(-batch.size());
+            try {
+                if (!batch.isEmpty()) {
+                    delegate.onMessages(batch);
+                }
+            } catch (RuntimeException ex) {
+                log.warning("Listener " + name + " failed on " + batch.size() + " messages of channel "
+                        + new String(batch.get(0).getChannel(), StandardCharsets.UTF_8) + ": " + ex);
+            } finally {
+                scheduled.set(false);
+                if (!queue.isEmpty()) {
+                    schedule();
+                } else {
+                    lanes.computeIfPresent(channel, (key, lane) -> lane == this && queue.isEmpty() ? null : lane);
+                }
+            }
+        }
+    }
+
+    private static class Received {
+        final Message message;
+        final long nanos;
+
+        Received(Message message, long nanos) {
+            this.message = message;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.bhagat.redis.listener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ *
+ */
+@Configuration
+public class ListenerConfiguration {
+
+    /**
+     * Runs the pub/sub listeners on its own fixed pool. The pool is not a bean, so it does not replace the
+     * {@code applicationTaskExecutor} Spring Boot only creates when no other executor bean exists.
+     *
+     * @param properties
+     * @param meterRegistry
+     * @return
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public MessageDispatcher messageDispatcher(ListenerProperties properties, MeterRegistry meterRegistry) {
+        return new MessageDispatcher(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bhagat.redis.listener;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the pub/sub message dispatch.
+ */
+@Data
+@ConfigurationProperties("app.listener")
+public class ListenerProperties {
+    /**
+     * Threads running the listeners, shared by all of them.
+     */
+    private int threads = 4;
+    /**
+     * Messages waiting per listener and channel, further messages are dropped and counted.
+     */
+    private int queueCapacity = 10_000;
+    /**
+     * Messages handed to a listener per call.
+     */
+    private int batchSize = 100;
+}
@@ -0,0 +1,67 @@
+package com.bhagat.redis.listener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.function.Consumer;
+
+/**
+ * Wraps listeners into {@link DispatchingMessageListener}s sharing one fixed pool. The pool queue holds at most one
+ * task per listener and channel, the messages themselves wait in the bounded queues of the listeners.
+ */
+public class MessageDispatcher {
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final ListenerProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public MessageDispatcher(ListenerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.executor.setCorePoolSize(properties.getThreads());
+        this.executor.setMaxPoolSize(properties.getThreads());
+        this.executor.setThreadNamePrefix("redis-listener-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(10);
+    }
+
+    public void start() {
+        executor.initialize();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param name     listener name, for the meters
+     * @param listener
+     * @return a listener handing the messages to the given one in batches, off the receiving thread
+     */
+    public DispatchingMessageListener batching(String name, BatchMessageListener listener) {
+        return new DispatchingMessageListener(name, listener, executor, properties.getQueueCapacity(),
+                properties.getBatchSize(), meterRegistry);
+    }
+
+    /**
+     * @param name     listener name, for the meters
+     * @param listener called once per message, without the matched pattern
+     * @return a listener calling the given one off the receiving thread, in order per channel
+     */
+    public DispatchingMessageListener ordered(String name, MessageListener listener) {
+        return ordered(name, listener, message -> {
+        });
+    }
+
+    /**
+     * @param name     listener name, for the meters
+     * @param listener called once per message, without the matched pattern
+     * @param overflow receives the messages dropped because the queue of their channel is full
+     * @return a listener calling the given one off the receiving thread, in order per channel
+     */
+    public DispatchingMessageListener ordered(String name, MessageListener listener, Consumer<Message> overflow) {
+        return new DispatchingMessageListener(name, messages -> messages.forEach(message -> listener.onMessage(message, null)),
+                executor, properties.getQueueCapacity(), properties.getBatchSize(), overflow, meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bhagat.redis.metrics;
+
+import com.bhagat.redis.connection.ClientConfigurations;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.java.Log;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Utilization of the Redis connection pools, read from the JMX beans commons-pool2 registers for them:
+ * {@code redis.pool.active}, {@code idle}, {@code waiters} and {@code max}, tagged by pool. Spring Data Redis
+ * creates a pool per connection type on first use, so the beans are looked up on each read and a pool not used
+ * yet reads as zero.
+ */
+@Log
+public class ConnectionPoolMetrics implements MeterBinder {
+    private static final List<String> POOLS = Arrays.asList(ClientConfigurations.SHARED_POOL, ClientConfigurations.DEDICATED_POOL);
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String pool : POOLS) {
+            ObjectName names = names(pool);
+            gauge(registry, "redis.pool.active", "Connections borrowed", pool, names, "NumActive");
+            gauge(registry, "redis.pool.idle", "Connections open and not borrowed", pool, names, "NumIdle");
+            gauge(registry, "redis.pool.waiters", "Callers waiting for a connection", pool, names, "NumWaiters");
+            gauge(registry, "redis.pool.max", "Connections allowed at once", pool, names, "MaxTotal");
+        }
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, String pool, ObjectName names, String attribute) {
+        Gauge.builder(name, names, n -> sum(n, attribute))
+                .strongReference(true)
+                .description(description)
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    private double sum(ObjectName names, String attribute) {
+        double sum = 0;
+        for (ObjectName name : server.queryNames(names, null)) {
+            try {
+                sum += ((Number) server.getAttribute(name, attribute)).doubleValue();
+            } catch (JMException ex) {
+                // the pool closed while being read
+                log.log(Level.FINE, "Cannot read " + attribute + " of " + name, ex);
+            }
+        }
+        return sum;
+    }
+
+    private static ObjectName names(String pool) {
+        try {
+            return new ObjectName("org.apache.commons.pool2:type=GenericObjectPool,name="
+                    + ClientConfigurations.JMX_NAME_PREFIX + pool + "*");
+        } catch (JMException ex) {
+            throw new IllegalArgumentException("Invalid pool name " + pool, ex);
+        }
+    }
+}
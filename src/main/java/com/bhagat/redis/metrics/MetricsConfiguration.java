@@ -0,0 +1,58 @@
+package com.bhagat.redis.metrics;
+
+import com.bhagat.redis.cache.TwoTierCache;
+import com.bhagat.redis.cache.TwoTierCacheMetrics;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters of the Redis layer, published with the other Micrometer meters on {@code /actuator/metrics} and
+ * {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Replaces the client resources of Spring Boot, with the same defaults, to time every command
+     *
+     * @param meterRegistry
+     * @return
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(MeterRegistry meterRegistry) {
+        return DefaultClientResources.builder()
+                .tracing(new RedisCommandMetrics(meterRegistry))
+                .build();
+    }
+
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    /**
+     * Static, a post processor must not initialize its configuration early
+     *
+     * @param meterRegistry
+     * @return
+     */
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    /**
+     * Lets Spring Boot bind the two tier caches with the other caches
+     *
+     * @return
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return TwoTierCacheMetrics::new;
+    }
+}
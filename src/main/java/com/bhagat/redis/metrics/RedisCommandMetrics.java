@@ -0,0 +1,155 @@
+package com.bhagat.redis.metrics;
+
+import io.lettuce.core.tracing.TraceContext;
+import io.lettuce.core.tracing.TraceContextProvider;
+import io.lettuce.core.tracing.Tracer;
+import io.lettuce.core.tracing.TracerProvider;
+import io.lettuce.core.tracing.Tracing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.SocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lettuce {@link Tracing} recording each command in Micrometer instead of a trace: the {@code redis.commands}
+ * timer, tagged by command and outcome, and the {@code redis.commands.active} gauge of the commands written and
+ * not yet answered.
+ * <p>
+ * Lettuce starts the span when the command is written to the connection and finishes it with the reply, so the
+ * time includes the queueing behind earlier commands of the same connection. A span is a few fields, the timers
+ * are looked up once per command type; percentiles are set with the {@code management.metrics.distribution}
+ * properties.
+ */
+public class RedisCommandMetrics implements Tracing, TracerProvider, TraceContextProvider {
+    private static final Endpoint ENDPOINT = new Endpoint() {
+    };
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> successes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> failures = new ConcurrentHashMap<>();
+    private final LongAdder active = new LongAdder();
+    private final Tracer tracer = new Tracer() {
+        @Override
+        public Span nextSpan() {
+            return new CommandSpan();
+        }
+
+        @Override
+        public Span nextSpan(TraceContext traceContext) {
+            return new CommandSpan();
+        }
+    };
+
+    public RedisCommandMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("redis.commands.active", active, LongAdder::sum)
+                .description("Redis commands written and not answered yet")
+                .register(registry);
+    }
+
+    @Override
+    public TracerProvider getTracerProvider() {
+        return this;
+    }
+
+    @Override
+    public TraceContextProvider initialTraceContextProvider() {
+        return this;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean includeCommandArgsInSpanTags() {
+        return false;
+    }
+
+    @Override
+    public Endpoint createEndpoint(SocketAddress socketAddress) {
+        return ENDPOINT;
+    }
+
+    @Override
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    @Override
+    public TraceContext getTraceContext() {
+        return TraceContext.EMPTY;
+    }
+
+    private Timer timer(String command, boolean failed) {
+        return (failed ? failures : successes).computeIfAbsent(command, c -> Timer.builder("redis.commands")
+                .description("Redis commands, from written to answered")
+                .tag("command", c)
+                .tag("outcome", failed ? "ERROR" : "SUCCESS")
+                .register(registry));
+    }
+
+    /**
+     * Times one command.
+     */
+    private class CommandSpan extends Tracer.Span {
+        private String command = "UNKNOWN";
+        private long start;
+        private boolean started;
+        private boolean failed;
+
+        @Override
+        public Tracer.Span start() {
+            start = System.nanoTime();
+            started = true;
+            active.increment();
+            return this;
+        }
+
+        @Override
+        public Tracer.Span name(String name) {
+            command = name;
+            return this;
+        }
+
+        @Override
+        public Tracer.Span annotate(String value) {
+            return this;
+        }
+
+        @Override
+        public Tracer.Span tag(String key, String value) {
+            // Lettuce tags error replies with "error" and failures with "exception"
+            if ("error".equals(key) || "exception".equals(key)) {
+                failed = true;
+            }
+            return this;
+        }
+
+        @Override
+        public Tracer.Span error(Throwable throwable) {
+            failed = true;
+            return this;
+        }
+
+        @Override
+        public Tracer.Span remoteEndpoint(Endpoint endpoint) {
+            return this;
+        }
+
+        @Override
+        public void finish() {
+            if (!started) {
+                return;
+            }
+            active.decrement();
+            timer(command, failed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bhagat.redis.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the calls to every Spring Data repository with the {@code redis.repository.invocations} timer, tagged by
+ * repository interface, method and outcome. The timing advice is added in front of the repository proxy, so custom
+ * fragments such as bulk saves are timed too.
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> registry;
+
+    /**
+     * @param registry looked up on first call, post processors are created before the registry
+     */
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            Class<?> repository = repositoryInterface((Advised) bean);
+            if (repository != null) {
+                ((Advised) bean).addAdvice(0, new TimingInterceptor(repository.getSimpleName()));
+            }
+        }
+        return bean;
+    }
+
+    private static Class<?> repositoryInterface(Advised advised) {
+        for (Class<?> type : advised.getProxiedInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the calls of one repository.
+     */
+    private class TimingInterceptor implements MethodInterceptor {
+        private final String repository;
+        private final ConcurrentMap<Method, Timer> successes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Method, Timer> failures = new ConcurrentHashMap<>();
+
+        TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                timer(invocation.getMethod(), failed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Timer timer(Method method, boolean failed) {
+            return (failed ? failures : successes).computeIfAbsent(method, m -> Timer.builder("redis.repository.invocations")
+                    .description("Calls to the Redis repositories")
+                    .tag("repository", repository)
+                    .tag("method", m.getName())
+                    .tag("outcome", failed ? "ERROR" : "SUCCESS")
+                    .register(registry.getObject()));
+        }
+    }
+}
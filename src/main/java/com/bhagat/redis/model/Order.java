@@ -1,5 +1,6 @@
 package com.bhagat.redis.model;
 
+import com.bhagat.redis.index.RangeIndexed;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,7 +8,6 @@ import lombok.ToString;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Reference;
 import org.springframework.data.redis.core.RedisHash;
-import org.springframework.data.redis.core.index.Indexed;
 
 import java.io.Serializable;
 import java.util.Date;
@@ -21,7 +21,7 @@ import java.util.List;
 public class Order implements Serializable {
     @Id
     private Long id;
-    @Indexed
+    @RangeIndexed
     private Date when;
     @Reference
     @ToString.Exclude
@@ -1,6 +1,9 @@
 package com.bhagat.redis.model;
 
 
+import com.bhagat.redis.convert.LazyReference;
+import com.bhagat.redis.index.PrefixIndexed;
+import com.bhagat.redis.index.SortedIndexed;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -19,11 +22,11 @@ import java.util.List;
 public class Person {
     private @Id String id;
     private @Indexed String firstname;
-    private @Indexed String lastname;
+    private @Indexed @SortedIndexed @PrefixIndexed(caseFolding = true) String lastname;
 
     private Gender gender;
     private Address address;
-    private @Reference List<Person> children;
+    private @Reference @LazyReference List<Person> children;
 
     public Person(String firstname, String lastname, Gender gender) {
         this.firstname = firstname;
@@ -1,20 +1,24 @@
 package com.bhagat.redis.model;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.UUID;
 
 /**
- *
+ * Session handle of a cart. The orders are kept in Redis by {@link com.bhagat.redis.cart.CartStore}, the session
+ * only holds the id so its size does not grow with the cart.
  */
 public class ShoppingCart implements Serializable {
-    private final Collection<Order> orders = new ArrayList<>();
+    private final String id;
 
-    public void addOrder(Order order) {
-        this.orders.add((order));
+    public ShoppingCart() {
+        this(UUID.randomUUID().toString());
     }
 
-    public Collection<Order> getOrders() {
-        return this.orders;
+    public ShoppingCart(String id) {
+        this.id = id;
     }
-}
\ No newline at end of file
+
+    public String getId() {
+        return this.id;
+    }
+}
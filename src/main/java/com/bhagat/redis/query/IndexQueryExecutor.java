@@ -0,0 +1,354 @@
+package com.bhagat.redis.query;
+
+import com.bhagat.redis.connection.RedisFutures;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mapping.MappingException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.index.Indexed;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.repository.query.RedisOperationChain;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executes the index lookups of derived and by-example queries in Redis.
+ * <p>
+ * When every property of the query is indexed, one script intersects the {@code AND} index sets, smallest first,
+ * unions the {@code OR} ones and returns the hashes of the requested ids: one round trip whatever the number of
+ * predicates. Otherwise the candidate ids, the intersection of the indexed {@code AND} predicates when there is
+ * one or else the whole keyspace set, are scanned and filtered on the hash fields, one round trip per batch. Such
+ * queries are counted in the {@code redis.query.scans} meter.
+ */
+@Log
+public class IndexQueryExecutor {
+    private static final int SCAN_BATCH_SIZE = 500;
+    private static final byte[] COUNT = bytes("count");
+    private static final byte[] FIND = bytes("find");
+    private static final RedisSerializer<byte[]> RAW = RedisSerializer.byteArray();
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<List> RAW_LIST = (RedisSerializer) RAW;
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<Long> RAW_LONG = (RedisSerializer) RAW;
+
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> findScript = script(List.class);
+    private final RedisScript<Long> countScript = script(Long.class);
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisConverter converter;
+    private final MeterRegistry meterRegistry;
+    private final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+    private final Map<String, Boolean> indexedPaths = new ConcurrentHashMap<>();
+    private final Set<String> reportedScans = ConcurrentHashMap.newKeySet();
+
+    public IndexQueryExecutor(LettuceConnectionFactory connectionFactory, RedisConverter converter, MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.converter = converter;
+        this.meterRegistry = meterRegistry;
+        this.template.setConnectionFactory(connectionFactory);
+        this.template.setEnableDefaultSerializer(false);
+        this.template.afterPropertiesSet();
+    }
+
+    /**
+     * @param chain    the index predicates, without {@code near}
+     * @param offset   ids to skip, {@literal 0} for none
+     * @param rows     maximum number of entities, {@literal -1} for all
+     * @param keyspace
+     * @param type
+     * @return the matching entities
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> find(RedisOperationChain chain, long offset, int rows, String keyspace, Class<T> type) {
+        Plan plan = plan(chain, keyspace);
+        if (plan.isIndexed()) {
+            List<Object> result = template.execute(findScript, RAW, RAW_LIST, plan.keys(), plan.arguments(FIND, offset, rows));
+            List<T> entities = new ArrayList<>();
+            for (int i = 0; result != null && i < result.size(); i += 2) {
+                entities.add(read(type, keyspace, (byte[]) result.get(i), toMap((List<byte[]>) result.get(i + 1))));
+            }
+            return entities;
+        }
+        List<byte[]> ids = scan(plan, keyspace);
+        int from = (int) Math.min(ids.size(), Math.max(offset, 0));
+        int to = rows < 0 ? ids.size() : (int) Math.min(ids.size(), from + rows);
+        return readAll(type, keyspace, ids.subList(from, to));
+    }
+
+    /**
+     * @param chain    the index predicates, without {@code near}
+     * @param keyspace
+     * @return the number of matching entities
+     */
+    public long count(RedisOperationChain chain, String keyspace) {
+        Plan plan = plan(chain, keyspace);
+        if (plan.isIndexed()) {
+            Long count = template.execute(countScript, RAW, RAW_LONG, plan.keys(), plan.arguments(COUNT, 0, -1));
+            return count == null ? 0 : count;
+        }
+        return scan(plan, keyspace).size();
+    }
+
+    private Plan plan(RedisOperationChain chain, String keyspace) {
+        Plan plan = new Plan(keyspace);
+        for (RedisOperationChain.PathAndValue predicate : chain.getSismember()) {
+            plan.and.add(predicate(keyspace, predicate));
+        }
+        for (RedisOperationChain.PathAndValue predicate : chain.getOrSismember()) {
+            plan.or.add(predicate(keyspace, predicate));
+        }
+        return plan;
+    }
+
+    private Predicate predicate(String keyspace, RedisOperationChain.PathAndValue predicate) {
+        byte[] value = converter.getConversionService().convert(predicate.getFirstValue(), byte[].class);
+        return new Predicate(predicate.getPath(), value, isIndexed(keyspace, predicate.getPath()));
+    }
+
+    /**
+     * Ids matching the plan, read by scanning the candidate ids and filtering them on their hash fields.
+     */
+    private List<byte[]> scan(Plan plan, String keyspace) {
+        Set<String> paths = new TreeSet<>();
+        plan.and.stream().filter(p -> !p.indexed).forEach(p -> paths.add(p.path));
+        plan.or.stream().filter(p -> !p.indexed).forEach(p -> paths.add(p.path));
+        String properties = String.join(",", paths);
+        meterRegistry.counter("redis.query.scans", "keyspace", keyspace, "properties", properties).increment();
+        if (reportedScans.add(keyspace + ":" + properties)) {
+            log.warning("Queries on " + keyspace + " by " + properties + " scan the keyspace, index "
+                    + (paths.size() > 1 ? "these properties" : "this property") + " to avoid it");
+        }
+
+        List<byte[]> indexedAnd = new ArrayList<>();
+        plan.and.stream().filter(p -> p.indexed).forEach(p -> indexedAnd.add(p.indexKey(keyspace)));
+        // a scan may return an id twice, so matches are kept in a set
+        Set<ByteArrayWrapper> matches = new LinkedHashSet<>();
+        if (plan.or.isEmpty() && !indexedAnd.isEmpty()) {
+            Set<byte[]> candidates = template.execute((RedisCallback<Set<byte[]>>) connection ->
+                    connection.sInter(indexedAnd.toArray(new byte[0][])));
+            List<Predicate> remaining = new ArrayList<>();
+            plan.and.stream().filter(p -> !p.indexed).forEach(remaining::add);
+            List<byte[]> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            for (byte[] id : candidates == null ? Collections.<byte[]>emptySet() : candidates) {
+                batch.add(id);
+                if (batch.size() == SCAN_BATCH_SIZE) {
+                    filter(keyspace, batch, remaining, Collections.emptyList(), matches);
+                    batch.clear();
+                }
+            }
+            filter(keyspace, batch, remaining, Collections.emptyList(), matches);
+            return ids(matches);
+        }
+        try (Cursor<byte[]> cursor = template.opsForSet()
+                .scan(bytes(keyspace), ScanOptions.scanOptions().count(SCAN_BATCH_SIZE).build())) {
+            List<byte[]> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == SCAN_BATCH_SIZE) {
+                    filter(keyspace, batch, plan.and, plan.or, matches);
+                    batch.clear();
+                }
+            }
+            filter(keyspace, batch, plan.and, plan.or, matches);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot close the scan of " + keyspace, ex);
+        }
+        return ids(matches);
+    }
+
+    /**
+     * Add to {@code matches} the ids whose hash fields match all the {@code and} predicates, when there are some,
+     * or any of the {@code or} predicates.
+     */
+    @SuppressWarnings("unchecked")
+    private void filter(String keyspace, List<byte[]> ids, List<Predicate> and, List<Predicate> or,
+                        Set<ByteArrayWrapper> matches) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> fields = new ArrayList<>();
+        for (Predicate predicate : and) {
+            if (!fields.contains(predicate.path)) {
+                fields.add(predicate.path);
+            }
+        }
+        for (Predicate predicate : or) {
+            if (!fields.contains(predicate.path)) {
+                fields.add(predicate.path);
+            }
+        }
+        byte[][] rawFields = fields.stream().map(IndexQueryExecutor::bytes).toArray(byte[][]::new);
+        List<Object> values = RedisFutures.execute(connectionFactory, commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(ids.size());
+            for (byte[] id : ids) {
+                futures.add(commands.hmget(objectKey(keyspace, id), rawFields));
+            }
+            return futures;
+        });
+        for (int i = 0; i < ids.size(); i++) {
+            List<KeyValue<byte[], byte[]>> hash = (List<KeyValue<byte[], byte[]>>) values.get(i);
+            boolean allAnd = and.stream().allMatch(p -> p.matches(hash.get(fields.indexOf(p.path))));
+            boolean anyOr = or.stream().anyMatch(p -> p.matches(hash.get(fields.indexOf(p.path))));
+            if ((!and.isEmpty() && allAnd) || anyOr) {
+                matches.add(new ByteArrayWrapper(ids.get(i)));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> readAll(Class<T> type, String keyspace, List<byte[]> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> hashes = RedisFutures.execute(connectionFactory, commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(ids.size());
+            for (byte[] id : ids) {
+                futures.add(commands.hgetall(objectKey(keyspace, id)));
+            }
+            return futures;
+        });
+        List<T> entities = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Map<byte[], byte[]> hash = (Map<byte[], byte[]>) hashes.get(i);
+            if (hash != null && !hash.isEmpty()) {
+                entities.add(read(type, keyspace, ids.get(i), hash));
+            }
+        }
+        return entities;
+    }
+
+    private <T> T read(Class<T> type, String keyspace, byte[] id, Map<byte[], byte[]> hash) {
+        RedisData data = new RedisData(hash);
+        data.setId(new String(id, StandardCharsets.UTF_8));
+        data.setKeyspace(keyspace);
+        return converter.read(type, data);
+    }
+
+    /**
+     * A path is indexed when the index configuration or an {@link Indexed} annotation says so. Paths of unknown
+     * keyspaces are assumed indexed, as Spring Data Redis does.
+     */
+    private boolean isIndexed(String keyspace, String path) {
+        return indexedPaths.computeIfAbsent(keyspace + ":" + path, key -> {
+            RedisMappingContext mappingContext = (RedisMappingContext) converter.getMappingContext();
+            if (mappingContext.getMappingConfiguration().getIndexConfiguration().hasIndexFor(keyspace, path)) {
+                return true;
+            }
+            for (RedisPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+                if (keyspace.equals(entity.getKeySpace())) {
+                    try {
+                        return mappingContext.getPersistentPropertyPath(path, entity.getType())
+                                .getRequiredLeafProperty().isAnnotationPresent(Indexed.class);
+                    } catch (MappingException | IllegalArgumentException ex) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    private static List<byte[]> ids(Collection<ByteArrayWrapper> wrapped) {
+        List<byte[]> ids = new ArrayList<>(wrapped.size());
+        for (ByteArrayWrapper id : wrapped) {
+            ids.add(id.getArray());
+        }
+        return ids;
+    }
+
+    private static byte[] objectKey(String keyspace, byte[] id) {
+        return ByteUtils.concat(bytes(keyspace + ":"), id);
+    }
+
+    private static Map<byte[], byte[]> toMap(List<byte[]> fieldsAndValues) {
+        Map<byte[], byte[]> hash = new LinkedHashMap<>(fieldsAndValues.size());
+        for (int i = 0; i < fieldsAndValues.size(); i += 2) {
+            hash.put(fieldsAndValues.get(i), fieldsAndValues.get(i + 1));
+        }
+        return hash;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static <T> RedisScript<T> script(Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("scripts/find-by-indexes.lua"));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    private static class Plan {
+        private final String keyspace;
+        private final List<Predicate> and = new ArrayList<>();
+        private final List<Predicate> or = new ArrayList<>();
+
+        Plan(String keyspace) {
+            this.keyspace = keyspace;
+        }
+
+        boolean isIndexed() {
+            return and.stream().allMatch(p -> p.indexed) && or.stream().allMatch(p -> p.indexed);
+        }
+
+        List<byte[]> keys() {
+            List<byte[]> keys = new ArrayList<>(and.size() + or.size());
+            and.forEach(p -> keys.add(p.indexKey(keyspace)));
+            or.forEach(p -> keys.add(p.indexKey(keyspace)));
+            return keys;
+        }
+
+        Object[] arguments(byte[] mode, long offset, int rows) {
+            return new Object[]{bytes(String.valueOf(and.size())), mode, bytes(keyspace + ":"),
+                    bytes(String.valueOf(Math.max(offset, 0))), bytes(String.valueOf(rows))};
+        }
+    }
+
+    private static class Predicate {
+        private final String path;
+        private final byte[] value;
+        private final boolean indexed;
+
+        Predicate(String path, byte[] value, boolean indexed) {
+            this.path = path;
+            this.value = value;
+            this.indexed = indexed;
+        }
+
+        byte[] indexKey(String keyspace) {
+            return ByteUtils.concat(bytes(keyspace + ":" + path + ":"), value);
+        }
+
+        boolean matches(KeyValue<byte[], byte[]> field) {
+            return field.hasValue() && Arrays.equals(field.getValue(), value);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bhagat.redis.query;
+
+import org.springframework.data.keyvalue.core.query.KeyValueQuery;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.repository.query.RedisOperationChain;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link RedisKeyValueAdapter} running the index lookups of derived and by-example queries through an
+ * {@link IndexQueryExecutor}. The stock query engine issues one {@code HGETALL} per matching id after the set
+ * operations; geo ({@code near}) queries and queries without criteria are still left to it.
+ */
+public class PlanningRedisKeyValueAdapter extends RedisKeyValueAdapter {
+    private final IndexQueryExecutor executor;
+
+    public PlanningRedisKeyValueAdapter(RedisOperations<?, ?> redisOps, RedisConverter redisConverter,
+                                        IndexQueryExecutor executor) {
+        super(redisOps, redisConverter);
+        this.executor = executor;
+    }
+
+    @Override
+    public <T> Iterable<T> find(KeyValueQuery<?> query, String keyspace, Class<T> type) {
+        RedisOperationChain chain = plannable(query);
+        if (chain == null) {
+            return super.find(query, keyspace, type);
+        }
+        return executor.find(chain, query.getOffset(), query.getRows(), keyspace, type);
+    }
+
+    @Override
+    public long count(KeyValueQuery<?> query, String keyspace) {
+        RedisOperationChain chain = plannable(query);
+        if (chain == null) {
+            return super.count(query, keyspace);
+        }
+        return executor.count(chain, keyspace);
+    }
+
+    @Nullable
+    private static RedisOperationChain plannable(KeyValueQuery<?> query) {
+        if (!(query.getCriteria() instanceof RedisOperationChain)) {
+            return null;
+        }
+        RedisOperationChain chain = (RedisOperationChain) query.getCriteria();
+        return chain.isEmpty() || chain.getNear() != null ? null : chain;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bhagat.redis.query;
+
+import com.bhagat.redis.connection.ReplicaConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.convert.RedisConverter;
+
+/**
+ * Runs the repository queries through an {@link IndexQueryExecutor}: the repository adapter registered by Spring
+ * Data Redis becomes a {@link PlanningRedisKeyValueAdapter}, keeping every setting of the repository configuration
+ * (keyspace events and their notification parameter).
+ */
+@Configuration
+public class QueryConfiguration {
+    private static final String ADAPTER_BEAN_NAME = "redisKeyValueAdapter";
+    private static final String EXECUTOR_BEAN_NAME = "indexQueryExecutor";
+
+    /**
+     * Reads from replicas when {@code app.redis.read-from} is set, its scripts still run on the master
+     *
+     * @param replicaConnectionFactory
+     * @param redisConverter
+     * @param meterRegistry
+     * @return
+     */
+    @Bean(EXECUTOR_BEAN_NAME)
+    public IndexQueryExecutor indexQueryExecutor(ReplicaConnectionFactory replicaConnectionFactory,
+                                                 RedisConverter redisConverter, MeterRegistry meterRegistry) {
+        return new IndexQueryExecutor(replicaConnectionFactory.getConnectionFactory(), redisConverter, meterRegistry);
+    }
+
+    /**
+     * Swaps the class of the adapter definition and appends the executor to its constructor arguments. Adapters
+     * declared by the application are left alone.
+     *
+     * @return
+     */
+    @Bean
+    public static BeanFactoryPostProcessor planningRedisKeyValueAdapter() {
+        return beanFactory -> {
+            if (!beanFactory.containsBeanDefinition(ADAPTER_BEAN_NAME)) {
+                return;
+            }
+            BeanDefinition adapter = beanFactory.getBeanDefinition(ADAPTER_BEAN_NAME);
+            if (!RedisKeyValueAdapter.class.getName().equals(adapter.getBeanClassName())) {
+                return;
+            }
+            adapter.setBeanClassName(PlanningRedisKeyValueAdapter.class.getName());
+            ConstructorArgumentValues arguments = adapter.getConstructorArgumentValues();
+            arguments.addIndexedArgumentValue(arguments.getArgumentCount(), new RuntimeBeanReference(EXECUTOR_BEAN_NAME));
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.bhagat.redis.reactive;
+
+import com.bhagat.redis.connection.ReplicaConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.convert.RedisConverter;
+
+/**
+ *
+ */
+@Configuration
+public class ReactiveConfiguration {
+
+    /**
+     * Entities of the repositories, read without blocking, from replicas when {@code app.redis.read-from} is set
+     *
+     * @param replicaConnectionFactory
+     * @param redisConverter
+     * @return
+     */
+    @Bean
+    public ReactiveEntityOperations reactiveEntityOperations(ReplicaConnectionFactory replicaConnectionFactory,
+                                                             RedisConverter redisConverter) {
+        return new ReactiveEntityOperations(replicaConnectionFactory.getConnectionFactory(), redisConverter);
+    }
+}
@@ -0,0 +1,178 @@
+package com.bhagat.redis.reactive;
+
+import com.bhagat.redis.index.SortedSetIndexes;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.MappingRedisConverter.KeyspaceIdentifier;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking reads of the entities written by the repositories, over the reactive Lettuce API. Hashes are mapped
+ * by the {@link RedisConverter}; references, lazy ones included, are read the same way and set once all arrived.
+ * <p>
+ * Lookups by id run up to {@link #CONCURRENCY} {@code HGETALL}s at once on the shared connection, results keep the
+ * order of the ids.
+ */
+public class ReactiveEntityOperations {
+    static final int CONCURRENCY = 64;
+
+    private final ReactiveRedisTemplate<byte[], byte[]> template;
+    private final RedisConverter converter;
+
+    public ReactiveEntityOperations(ReactiveRedisConnectionFactory connectionFactory, RedisConverter converter) {
+        this.template = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.byteArray());
+        this.converter = converter;
+    }
+
+    /**
+     * @param type
+     * @param id
+     * @return the entity, empty if missing
+     */
+    public <T> Mono<T> findById(Class<T> type, Object id) {
+        return read(type, keyspace(type), id.toString());
+    }
+
+    /**
+     * @param type
+     * @param ids
+     * @return the entities found, in the order of the ids
+     */
+    public <T> Flux<T> findAllById(Class<T> type, Iterable<?> ids) {
+        String keyspace = keyspace(type);
+        return Flux.fromIterable(ids).flatMapSequential(id -> read(type, keyspace, id.toString()), CONCURRENCY);
+    }
+
+    /**
+     * @param type
+     * @return all the entities, scanning the keyspace set
+     */
+    public <T> Flux<T> findAll(Class<T> type) {
+        String keyspace = keyspace(type);
+        return template.opsForSet().scan(toBytes(keyspace), ScanOptions.scanOptions().count(1000).build())
+                .flatMapSequential(id -> read(type, keyspace, new String(id, StandardCharsets.UTF_8)), CONCURRENCY);
+    }
+
+    /**
+     * @param type
+     * @param path  {@link org.springframework.data.redis.core.index.Indexed} property path
+     * @param value
+     * @return the entities having the value
+     */
+    public <T> Flux<T> findByIndex(Class<T> type, String path, Object value) {
+        String keyspace = keyspace(type);
+        byte[] indexKey = toBytes(keyspace + ":" + path + ":" + value);
+        return template.opsForSet().scan(indexKey, ScanOptions.scanOptions().count(1000).build())
+                .flatMapSequential(id -> read(type, keyspace, new String(id, StandardCharsets.UTF_8)), CONCURRENCY);
+    }
+
+    /**
+     * @param type
+     * @param property {@link com.bhagat.redis.index.RangeIndexed} property
+     * @param range    scores, see {@link SortedSetIndexes#score(Object)}
+     * @return the entities in the range, ordered by the property
+     */
+    public <T> Flux<T> findByRange(Class<T> type, String property, Range<Double> range) {
+        String keyspace = keyspace(type);
+        byte[] indexKey = toBytes(SortedSetIndexes.indexKey(keyspace, property));
+        return template.opsForZSet().rangeByScore(indexKey, range)
+                .flatMapSequential(id -> read(type, keyspace, new String(id, StandardCharsets.UTF_8)), CONCURRENCY);
+    }
+
+    private <T> Mono<T> read(Class<T> type, String keyspace, String id) {
+        return template.<byte[], byte[]>opsForHash().entries(toBytes(keyspace + ":" + id))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .filter(hash -> !hash.isEmpty())
+                .flatMap(hash -> read(type, keyspace, id, Bucket.newBucketFromRawMap(hash)));
+    }
+
+    /**
+     * Map the hash without its references, then read the referenced entities and set them.
+     */
+    private <T> Mono<T> read(Class<T> type, String keyspace, String id, Bucket bucket) {
+        RedisPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+        Map<RedisPersistentProperty, List<String>> references = extractReferences(entity, bucket);
+        RedisData data = new RedisData(bucket);
+        data.setId(id);
+        data.setKeyspace(keyspace);
+        T result = converter.read(type, data);
+        if (result == null || references.isEmpty()) {
+            return Mono.justOrEmpty(result);
+        }
+        PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(result);
+        return Flux.fromIterable(references.entrySet())
+                .concatMap(reference -> readReferences(reference.getKey().getActualType(), reference.getValue())
+                        .collectList()
+                        .doOnNext(values -> accessor.setProperty(reference.getKey(), reference.getKey().isCollectionLike()
+                                ? values : values.isEmpty() ? null : values.get(0))))
+                .then(Mono.fromSupplier(accessor::getBean));
+    }
+
+    private Flux<?> readReferences(Class<?> type, List<String> keys) {
+        return Flux.fromIterable(keys).flatMapSequential(key -> {
+            KeyspaceIdentifier identifier = KeyspaceIdentifier.of(key);
+            return read(type, identifier.getKeyspace(), identifier.getId());
+        }, CONCURRENCY);
+    }
+
+    /**
+     * @return the keys referenced by each reference property, removed from the bucket
+     */
+    private static Map<RedisPersistentProperty, List<String>> extractReferences(RedisPersistentEntity<?> entity, Bucket bucket) {
+        Map<RedisPersistentProperty, List<String>> references = new LinkedHashMap<>();
+        entity.doWithAssociations((AssociationHandler<RedisPersistentProperty>) association -> {
+            RedisPersistentProperty property = association.getInverse();
+            List<String> keys = new ArrayList<>();
+            if (property.isCollectionLike()) {
+                String prefix = property.getName() + ".[";
+                Map<Integer, String> byIndex = new HashMap<>();
+                for (Map.Entry<String, byte[]> entry : bucket.extract(prefix).entrySet()) {
+                    String index = entry.getKey().substring(prefix.length(), entry.getKey().length() - 1);
+                    byIndex.put(Integer.valueOf(index), new String(entry.getValue(), StandardCharsets.UTF_8));
+                    bucket.remove(entry.getKey());
+                }
+                byIndex.entrySet().stream()
+                        .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                        .forEach(entry -> keys.add(entry.getValue()));
+            } else {
+                byte[] value = bucket.get(property.getName());
+                if (value != null) {
+                    keys.add(new String(value, StandardCharsets.UTF_8));
+                    bucket.remove(property.getName());
+                }
+            }
+            keys.removeIf(key -> !KeyspaceIdentifier.isValid(key));
+            if (!keys.isEmpty()) {
+                references.put(property, keys);
+            }
+        });
+        return references;
+    }
+
+    private String keyspace(Class<?> type) {
+        return converter.getMappingContext().getRequiredPersistentEntity(type).getKeySpace();
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package com.bhagat.redis.repository;
+
+/**
+ * Repository fragment replacing {@link org.springframework.data.repository.CrudRepository#saveAll(Iterable)} with
+ * a pipelined implementation.
+ *
+ * @param <T> the domain type
+ */
+public interface BulkSaveRepository<T> {
+
+    /**
+     * Save the given entities, writing their hashes and secondary indexes in chunks of one round trip each.
+     *
+     * @param entities
+     * @return the saved entities, with generated ids
+     */
+    <S extends T> Iterable<S> saveAll(Iterable<S> entities);
+}
@@ -0,0 +1,268 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.bloom.BloomFilters;
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.connection.ManualFlushPipeline;
+import com.bhagat.redis.id.IdGenerators;
+import com.bhagat.redis.index.SortedSetIndexWriter;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.convert.GeoIndexedPropertyValue;
+import org.springframework.data.redis.core.convert.IndexedData;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.convert.SimpleIndexedPropertyValue;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pipelined {@link BulkSaveRepository}. Writes the same keys as {@link RedisKeyValueAdapter#put(Object, Object, String)}
+ * (the hash, the keyspace set, the index sets and the {@code keyspace:id:idx} helper set) but for a whole chunk of
+ * entities in three round trips: one reading the current index memberships, one reading the type of the indexes
+ * an entity leaves and one writing everything. Each round trip is a {@link ManualFlushPipeline}, written to the
+ * socket at once, and set writes are grouped per key so a chunk of entities sharing an index value costs one
+ * {@code SADD} instead of one per entity.
+ * <p>
+ * No repository event is published per entity: the write round trip also carries the sorted set indexes of the
+ * {@link SortedSetIndexWriter}, and the ids of a chunk are added to the {@link BloomFilters} with one call.
+ *
+ * @param <T> the domain type
+ */
+public class BulkSaveRepositoryImpl<T> implements BulkSaveRepository<T> {
+    private final RedisConverter converter;
+    private final DedicatedConnectionFactory connectionFactory;
+    private final SortedSetIndexWriter indexWriter;
+    private final BloomFilters bloomFilters;
+    private final BulkWriteProperties properties;
+    private final IdGenerators ids;
+
+    public BulkSaveRepositoryImpl(RedisKeyValueAdapter adapter, DedicatedConnectionFactory connectionFactory,
+                                  SortedSetIndexWriter indexWriter, BloomFilters bloomFilters,
+                                  BulkWriteProperties properties, IdGenerators ids) {
+        this.converter = adapter.getConverter();
+        this.connectionFactory = connectionFactory;
+        this.indexWriter = indexWriter;
+        this.bloomFilters = bloomFilters;
+        this.properties = properties;
+        this.ids = ids;
+    }
+
+    @Override
+    public <S extends T> Iterable<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        List<S> chunk = new ArrayList<>(properties.getChunkSize());
+        try (ManualFlushPipeline pipeline = ManualFlushPipeline.open(connectionFactory)) {
+            for (S entity : entities) {
+                chunk.add(entity);
+                if (chunk.size() == properties.getChunkSize()) {
+                    writeChunk(pipeline, chunk);
+                    saved.addAll(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(pipeline, chunk);
+                saved.addAll(chunk);
+            }
+        }
+        return saved;
+    }
+
+    private <S extends T> void writeChunk(ManualFlushPipeline pipeline, List<S> chunk) {
+        Map<ByteArrayWrapper, Write> unique = new LinkedHashMap<>();
+        for (S entity : chunk) {
+            Write write = new Write(entity);
+            // the last copy of an entity saved twice in a chunk wins, as with consecutive saves
+            unique.remove(new ByteArrayWrapper(write.objectKey));
+            unique.put(new ByteArrayWrapper(write.objectKey), write);
+        }
+        List<Write> writes = new ArrayList<>(unique.values());
+        RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+        for (Write write : writes) {
+            pipeline.add(commands.exists(write.objectKey));
+            pipeline.add(commands.smembers(write.helperKey));
+        }
+        List<Object> current = pipeline.flush();
+        Set<ByteArrayWrapper> leftIndexes = new HashSet<>();
+        for (int i = 0; i < writes.size(); i++) {
+            writes.get(i).readCurrent(current.get(2 * i), current.get(2 * i + 1));
+            for (byte[] left : writes.get(i).leftIndexes) {
+                leftIndexes.add(new ByteArrayWrapper(left));
+            }
+        }
+        Map<ByteArrayWrapper, DataType> types = readTypes(pipeline, leftIndexes);
+
+        if (properties.isTransactional()) {
+            pipeline.add(commands.multi());
+        }
+        SetWrites setWrites = new SetWrites();
+        for (Write write : writes) {
+            write.apply(pipeline, types, setWrites);
+        }
+        setWrites.apply(pipeline);
+        Map<String, Map<Object, Object>> entitiesByKeyspace = new LinkedHashMap<>();
+        Map<Class<?>, List<Object>> idsByType = new LinkedHashMap<>();
+        for (Write write : writes) {
+            entitiesByKeyspace.computeIfAbsent(write.data.getKeyspace(), k -> new LinkedHashMap<>())
+                    .put(write.id, write.entity);
+            idsByType.computeIfAbsent(write.entity.getClass(), k -> new ArrayList<>()).add(write.id);
+        }
+        entitiesByKeyspace.forEach((keyspace, entities) ->
+                indexWriter.index(commands, keyspace, entities).forEach(pipeline::add));
+        if (properties.isTransactional()) {
+            pipeline.add(commands.exec());
+        }
+        pipeline.flush();
+        idsByType.forEach(bloomFilters::putAll);
+    }
+
+    private Map<ByteArrayWrapper, DataType> readTypes(ManualFlushPipeline pipeline, Set<ByteArrayWrapper> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<ByteArrayWrapper> ordered = new ArrayList<>(keys);
+        for (ByteArrayWrapper key : ordered) {
+            pipeline.add(pipeline.commands().type(key.getArray()));
+        }
+        List<Object> results = pipeline.flush();
+        Map<ByteArrayWrapper, DataType> types = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            types.put(ordered.get(i), DataType.fromCode((String) results.get(i)));
+        }
+        return types;
+    }
+
+    private byte[] toBytes(Object source) {
+        if (source instanceof byte[]) {
+            return (byte[]) source;
+        }
+        return converter.getConversionService().convert(source, byte[].class);
+    }
+
+    /**
+     * Keys and values written for one entity.
+     */
+    private class Write {
+        final Object entity;
+        final Object id;
+        final RedisData data = new RedisData();
+        final byte[] rawId;
+        final byte[] objectKey;
+        final byte[] helperKey;
+        final Map<ByteArrayWrapper, GeoIndexedPropertyValue> indexes = new HashMap<>();
+        final List<byte[]> leftIndexes = new ArrayList<>();
+        boolean existed;
+
+        Write(Object entity) {
+            this.entity = entity;
+            this.id = ids.assignIfMissing(entity);
+            converter.write(entity, data);
+            this.rawId = toBytes(data.getId());
+            this.objectKey = toBytes(data.getKeyspace() + ":" + data.getId());
+            this.helperKey = toBytes(data.getKeyspace() + ":" + data.getId() + ":idx");
+            for (IndexedData indexed : data.getIndexedData()) {
+                if (indexed instanceof SimpleIndexedPropertyValue) {
+                    Object value = ((SimpleIndexedPropertyValue) indexed).getValue();
+                    if (value != null) {
+                        byte[] prefix = toBytes(indexed.getKeyspace() + ":" + indexed.getIndexName() + ":");
+                        indexes.put(new ByteArrayWrapper(ByteUtils.concat(prefix, toBytes(value))), null);
+                    }
+                } else if (indexed instanceof GeoIndexedPropertyValue) {
+                    byte[] indexKey = toBytes(indexed.getKeyspace() + ":" + indexed.getIndexName());
+                    indexes.put(new ByteArrayWrapper(indexKey), (GeoIndexedPropertyValue) indexed);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void readCurrent(Object exists, Object members) {
+            this.existed = exists instanceof Long && (Long) exists > 0;
+            if (members == null) {
+                return;
+            }
+            for (byte[] member : (Set<byte[]>) members) {
+                if (!indexes.containsKey(new ByteArrayWrapper(member))) {
+                    leftIndexes.add(member);
+                }
+            }
+        }
+
+        void apply(ManualFlushPipeline pipeline, Map<ByteArrayWrapper, DataType> types, SetWrites setWrites) {
+            RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+            if (existed) {
+                pipeline.add(commands.del(objectKey));
+            }
+            Map<byte[], byte[]> hash = data.getBucket().rawMap();
+            if (!hash.isEmpty()) {
+                pipeline.add(commands.hmset(objectKey, hash));
+            }
+            setWrites.add(toBytes(data.getKeyspace()), rawId);
+            if (!leftIndexes.isEmpty()) {
+                for (byte[] left : leftIndexes) {
+                    if (DataType.ZSET.equals(types.get(new ByteArrayWrapper(left)))) {
+                        pipeline.add(commands.zrem(left, rawId));
+                    } else {
+                        setWrites.remove(left, rawId);
+                    }
+                }
+                pipeline.add(commands.srem(helperKey, leftIndexes.toArray(new byte[0][])));
+            }
+            if (!indexes.isEmpty()) {
+                List<byte[]> indexKeys = new ArrayList<>(indexes.size());
+                for (Map.Entry<ByteArrayWrapper, GeoIndexedPropertyValue> index : indexes.entrySet()) {
+                    byte[] indexKey = index.getKey().getArray();
+                    if (index.getValue() != null) {
+                        Point point = index.getValue().getPoint();
+                        pipeline.add(commands.geoadd(indexKey, point.getX(), point.getY(), rawId));
+                    } else {
+                        setWrites.add(indexKey, rawId);
+                    }
+                    indexKeys.add(indexKey);
+                }
+                pipeline.add(commands.sadd(helperKey, indexKeys.toArray(new byte[0][])));
+            }
+            Long ttl = data.getTimeToLive();
+            if (ttl != null && ttl > 0) {
+                pipeline.add(commands.expire(objectKey, ttl));
+            }
+        }
+    }
+
+    /**
+     * Set members to add and remove, grouped by key. Removals are written first: an entity leaves its old index
+     * sets before joining the new ones.
+     */
+    private static class SetWrites {
+        final Map<ByteArrayWrapper, List<byte[]>> removals = new LinkedHashMap<>();
+        final Map<ByteArrayWrapper, List<byte[]>> additions = new LinkedHashMap<>();
+
+        void add(byte[] key, byte[] member) {
+            additions.computeIfAbsent(new ByteArrayWrapper(key), k -> new ArrayList<>()).add(member);
+        }
+
+        void remove(byte[] key, byte[] member) {
+            removals.computeIfAbsent(new ByteArrayWrapper(key), k -> new ArrayList<>()).add(member);
+        }
+
+        void apply(ManualFlushPipeline pipeline) {
+            RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+            for (Map.Entry<ByteArrayWrapper, List<byte[]>> removal : removals.entrySet()) {
+                pipeline.add(commands.srem(removal.getKey().getArray(), removal.getValue().toArray(new byte[0][])));
+            }
+            for (Map.Entry<ByteArrayWrapper, List<byte[]>> addition : additions.entrySet()) {
+                pipeline.add(commands.sadd(addition.getKey().getArray(), addition.getValue().toArray(new byte[0][])));
+            }
+        }
+    }
+}
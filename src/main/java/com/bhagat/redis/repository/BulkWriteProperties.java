@@ -0,0 +1,20 @@
+package com.bhagat.redis.repository;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link BulkSaveRepository} write path.
+ */
+@Data
+@ConfigurationProperties("app.repository.bulk")
+public class BulkWriteProperties {
+    /**
+     * Entities written per pipeline flush.
+     */
+    private int chunkSize = 500;
+    /**
+     * Wrap the writes of each chunk in MULTI/EXEC, so other clients never see a partially written chunk.
+     */
+    private boolean transactional = false;
+}
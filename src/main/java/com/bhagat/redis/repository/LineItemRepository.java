@@ -4,6 +4,6 @@ package com.bhagat.redis.repository;
 import com.bhagat.redis.model.LineItem;
 import org.springframework.data.repository.CrudRepository;
 
-public interface LineItemRepository extends CrudRepository<LineItem, Long> {
+public interface LineItemRepository extends CrudRepository<LineItem, Long>, BulkSaveRepository<LineItem> {
 
 }
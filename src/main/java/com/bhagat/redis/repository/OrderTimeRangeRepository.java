@@ -0,0 +1,43 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository fragment querying orders by time, through the sorted set index of {@link Order#getWhen()}.
+ */
+public interface OrderTimeRangeRepository {
+
+    Collection<Order> findByWhen(Date d);
+
+    /**
+     * @param from inclusive
+     * @param to   inclusive
+     * @return the orders, oldest first
+     */
+    List<Order> findByWhenBetween(Date from, Date to);
+
+    /**
+     * @param from     inclusive
+     * @param to       inclusive
+     * @param pageable
+     * @return one page of the orders, oldest first
+     */
+    Slice<Order> findByWhenBetween(Date from, Date to, Pageable pageable);
+
+    /**
+     * @param from exclusive
+     * @return the orders, oldest first
+     */
+    List<Order> findByWhenAfter(Date from);
+
+    /**
+     * @return the 100 most recent orders, newest first
+     */
+    List<Order> findTop100ByOrderByWhenDesc();
+}
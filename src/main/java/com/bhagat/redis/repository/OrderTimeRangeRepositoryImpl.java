@@ -0,0 +1,52 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.index.RangeIndexOperations;
+import com.bhagat.redis.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * {@link OrderTimeRangeRepository} executed as {@code ZRANGEBYSCORE} on {@code orders:when#range}.
+ */
+public class OrderTimeRangeRepositoryImpl implements OrderTimeRangeRepository {
+    private static final String WHEN = "when";
+
+    private final RangeIndexOperations operations;
+
+    public OrderTimeRangeRepositoryImpl(RangeIndexOperations operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public Collection<Order> findByWhen(Date d) {
+        return operations.findByRange(Order.class, WHEN, d.getTime(), d.getTime(), 0, -1);
+    }
+
+    @Override
+    public List<Order> findByWhenBetween(Date from, Date to) {
+        return operations.findByRange(Order.class, WHEN, from.getTime(), to.getTime(), 0, -1);
+    }
+
+    @Override
+    public Slice<Order> findByWhenBetween(Date from, Date to, Pageable pageable) {
+        List<Order> orders = operations.findByRange(Order.class, WHEN, from.getTime(), to.getTime(),
+                pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = orders.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? orders.subList(0, pageable.getPageSize()) : orders, pageable, hasNext);
+    }
+
+    @Override
+    public List<Order> findByWhenAfter(Date from) {
+        return operations.findByRange(Order.class, WHEN, from.getTime() + 1, Double.POSITIVE_INFINITY, 0, -1);
+    }
+
+    @Override
+    public List<Order> findTop100ByOrderByWhenDesc() {
+        return operations.findByRangeDescending(Order.class, WHEN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0, 100);
+    }
+}
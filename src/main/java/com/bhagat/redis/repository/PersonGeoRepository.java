@@ -0,0 +1,37 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.model.Person;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+
+import java.util.List;
+
+/**
+ * Repository fragment searching persons around a location, through the geo index of the address location.
+ */
+public interface PersonGeoRepository {
+
+    /**
+     * @param point
+     * @param distance
+     * @return the persons within the distance, nearest first
+     */
+    List<Person> findByAddress_LocationNear(Point point, Distance distance);
+
+    /**
+     * @param point
+     * @param distance
+     * @param limit    maximum number of persons
+     * @return the nearest persons within the distance, nearest first
+     */
+    GeoResults<Person> findByAddress_LocationNear(Point point, Distance distance, int limit);
+
+    /**
+     * @param box   lower left and upper right corners
+     * @param limit maximum number of persons
+     * @return the persons within the box nearest to its center, nearest first
+     */
+    GeoResults<Person> findByAddress_LocationWithin(Box box, int limit);
+}
@@ -0,0 +1,42 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.index.GeoIndexOperations;
+import com.bhagat.redis.model.Person;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link PersonGeoRepository} executed as {@code GEORADIUS} on {@code persons:address:location}.
+ */
+public class PersonGeoRepositoryImpl implements PersonGeoRepository {
+    private static final String LOCATION = "address.location";
+
+    private final GeoIndexOperations operations;
+
+    public PersonGeoRepositoryImpl(GeoIndexOperations operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public List<Person> findByAddress_LocationNear(Point point, Distance distance) {
+        return operations.near(Person.class, LOCATION, point, distance, 0).getContent().stream()
+                .map(GeoResult::getContent)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public GeoResults<Person> findByAddress_LocationNear(Point point, Distance distance, int limit) {
+        return operations.near(Person.class, LOCATION, point, distance, limit);
+    }
+
+    @Override
+    public GeoResults<Person> findByAddress_LocationWithin(Box box, int limit) {
+        return operations.within(Person.class, LOCATION, box, limit);
+    }
+}
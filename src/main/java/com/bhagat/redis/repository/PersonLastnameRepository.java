@@ -0,0 +1,52 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.index.PrefixIndexOperations;
+import com.bhagat.redis.model.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment paging persons by last name, through the sorted and prefix indexes of
+ * {@link Person#getLastname()}.
+ */
+public interface PersonLastnameRepository {
+
+    /**
+     * @param lastname
+     * @param page
+     * @return one page of the persons, ordered by id
+     */
+    Page<Person> findPersonByLastname(String lastname, Pageable page);
+
+    /**
+     * Keyset paging: pass the id of the last person of a slice to get the next one.
+     *
+     * @param lastname
+     * @param afterId  id of the last person of the previous slice, {@literal null} for the first slice
+     * @param size
+     * @return the persons following {@code afterId}, ordered by id
+     */
+    Slice<Person> findPersonByLastname(String lastname, @Nullable String afterId, int size);
+
+    /**
+     * The stream reads the persons in batches and must be closed.
+     *
+     * @param lastname
+     * @return all the persons with the last name, in no particular order
+     */
+    Stream<Person> streamPersonByLastname(String lastname);
+
+    /**
+     * Type-ahead search, ignoring case. Pages hold at most {@link PrefixIndexOperations#MAX_COUNT} persons, larger
+     * page sizes are reduced.
+     *
+     * @param prefix start of the last name
+     * @param page
+     * @return one page of the persons whose last name starts with the prefix, ordered by last name then id
+     */
+    Page<Person> findByLastnameStartingWith(String prefix, Pageable page);
+}
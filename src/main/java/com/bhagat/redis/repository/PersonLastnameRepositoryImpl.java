@@ -0,0 +1,59 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.index.PrefixIndexOperations;
+import com.bhagat.redis.index.SortedIndexOperations;
+import com.bhagat.redis.model.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link PersonLastnameRepository} reading {@code persons:lastname#sorted:<lastname>}: {@code ZCARD} and
+ * {@code ZRANGE} for pages, {@code ZRANGEBYLEX} for keyset slices and {@code ZSCAN} for streams. Prefix searches
+ * read {@code persons:lastname#prefix} with {@code ZRANGEBYLEX} and {@code ZLEXCOUNT}.
+ */
+public class PersonLastnameRepositoryImpl implements PersonLastnameRepository {
+    private static final String LASTNAME = "lastname";
+    private static final int STREAM_BATCH_SIZE = 100;
+
+    private final SortedIndexOperations operations;
+    private final PrefixIndexOperations prefixOperations;
+
+    public PersonLastnameRepositoryImpl(SortedIndexOperations operations, PrefixIndexOperations prefixOperations) {
+        this.operations = operations;
+        this.prefixOperations = prefixOperations;
+    }
+
+    @Override
+    public Page<Person> findPersonByLastname(String lastname, Pageable page) {
+        List<Person> persons = operations.find(Person.class, LASTNAME, lastname, page.getOffset(), page.getPageSize());
+        return PageableExecutionUtils.getPage(persons, page, () -> operations.count(Person.class, LASTNAME, lastname));
+    }
+
+    @Override
+    public Slice<Person> findPersonByLastname(String lastname, String afterId, int size) {
+        List<Person> persons = operations.findAfter(Person.class, LASTNAME, lastname, afterId, size + 1);
+        boolean hasNext = persons.size() > size;
+        return new SliceImpl<>(hasNext ? persons.subList(0, size) : persons, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public Stream<Person> streamPersonByLastname(String lastname) {
+        return operations.stream(Person.class, LASTNAME, lastname, STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public Page<Person> findByLastnameStartingWith(String prefix, Pageable page) {
+        Pageable capped = page.getPageSize() > PrefixIndexOperations.MAX_COUNT
+                ? PageRequest.of(page.getPageNumber(), PrefixIndexOperations.MAX_COUNT, page.getSort())
+                : page;
+        List<Person> persons = prefixOperations.find(Person.class, LASTNAME, prefix, capped.getOffset(), capped.getPageSize());
+        return PageableExecutionUtils.getPage(persons, capped, () -> prefixOperations.count(Person.class, LASTNAME, prefix));
+    }
+}
@@ -0,0 +1,166 @@
+package com.bhagat.redis.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary {@link RedisSerializer} based on Kryo, with LZ4 compression of large values.
+ * <p>
+ * Every value starts with a format byte: {@code 1} for a plain Kryo payload, {@code 2} for an LZ4 block preceded
+ * by the uncompressed length. Any other leading byte is handed to the legacy serializer, so values written by
+ * the JDK serializer (starting with {@code 0xAC}) or another codec stay readable while they are rewritten.
+ * <p>
+ * Only the {@link KryoRegistrations registered} types are written and read, so a payload cannot make Kryo
+ * instantiate an arbitrary class.
+ */
+public class KryoRedisSerializer implements RedisSerializer<Object> {
+    static final byte PLAIN = 1;
+    static final byte LZ4 = 2;
+    private static final int HEADER = 1;
+    private static final int LZ4_HEADER = HEADER + 4;
+    private static final int MAX_POOLED_BUFFER = 64 * 1024;
+
+    private final Consumer<Kryo> registrations;
+    private final Pool<Kryo> kryos;
+    private final Pool<Output> outputs;
+    private final int compressionThreshold;
+    private final RedisSerializer<?> legacy;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * Serializer registering the {@link KryoRegistrations#registerDefaults(Kryo) default} types and reading
+     * JDK serialized values.
+     *
+     * @param compressionThreshold payload size in bytes above which values are compressed, {@literal 0} to disable
+     */
+    public KryoRedisSerializer(int compressionThreshold) {
+        this(KryoRegistrations::registerDefaults, compressionThreshold, new JdkSerializationRedisSerializer());
+    }
+
+    /**
+     * @param registrations        registers the known types, with stable ids
+     * @param compressionThreshold payload size in bytes above which values are compressed, {@literal 0} to disable
+     * @param legacy               reads values that were not written by this serializer
+     */
+    public KryoRedisSerializer(Consumer<Kryo> registrations, int compressionThreshold, RedisSerializer<?> legacy) {
+        this.registrations = registrations;
+        this.compressionThreshold = compressionThreshold;
+        this.legacy = legacy;
+        this.kryos = new Pool<Kryo>(true, false) {
+            @Override
+            protected Kryo create() {
+                Kryo kryo = new Kryo();
+                kryo.setRegistrationRequired(true);
+                kryo.setReferences(false);
+                kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+                registrations.accept(kryo);
+                return kryo;
+            }
+        };
+        this.outputs = new Pool<Output>(true, false) {
+            @Override
+            protected Output create() {
+                return new Output(512, -1);
+            }
+        };
+    }
+
+    /**
+     * @param legacy reads values that were not written by this serializer
+     * @return a serializer with the same registrations and compression falling back to the given one
+     */
+    public KryoRedisSerializer withLegacy(RedisSerializer<?> legacy) {
+        return new KryoRedisSerializer(registrations, compressionThreshold, legacy);
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Kryo kryo = kryos.obtain();
+        Output output = outputs.obtain();
+        try {
+            output.reset();
+            output.writeByte(PLAIN);
+            kryo.writeClassAndObject(output, value);
+            int length = output.position();
+            if (compressionThreshold > 0 && length - HEADER > compressionThreshold) {
+                return compress(output.getBuffer(), length);
+            }
+            return output.toBytes();
+        } catch (KryoException | IllegalArgumentException ex) {
+            // Kryo reports types that are not registered with an IllegalArgumentException
+            throw new SerializationException("Cannot serialize " + value.getClass().getName(), ex);
+        } finally {
+            kryos.free(kryo);
+            if (output.getBuffer().length <= MAX_POOLED_BUFFER) {
+                outputs.free(output);
+            }
+        }
+    }
+
+    @Override
+    @Nullable
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        switch (bytes[0]) {
+            case PLAIN:
+                return read(bytes, HEADER, bytes.length - HEADER);
+            case LZ4:
+                try {
+                    int length = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16) | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+                    return read(decompressor.decompress(bytes, LZ4_HEADER, length), 0, length);
+                } catch (LZ4Exception ex) {
+                    throw new SerializationException("Cannot decompress value", ex);
+                }
+            default:
+                return legacy.deserialize(bytes);
+        }
+    }
+
+    private Object read(byte[] bytes, int offset, int length) {
+        Kryo kryo = kryos.obtain();
+        try {
+            return kryo.readClassAndObject(new Input(bytes, offset, length));
+        } catch (KryoException | IllegalArgumentException ex) {
+            throw new SerializationException("Cannot deserialize value", ex);
+        } finally {
+            kryos.free(kryo);
+        }
+    }
+
+    private byte[] compress(byte[] buffer, int length) {
+        int payload = length - HEADER;
+        byte[] target = new byte[LZ4_HEADER + compressor.maxCompressedLength(payload)];
+        int compressed = compressor.compress(buffer, HEADER, payload, target, LZ4_HEADER, target.length - LZ4_HEADER);
+        if (LZ4_HEADER + compressed >= length) {
+            return Arrays.copyOf(buffer, length);
+        }
+        target[0] = LZ4;
+        target[1] = (byte) (payload >>> 24);
+        target[2] = (byte) (payload >>> 16);
+        target[3] = (byte) (payload >>> 8);
+        target[4] = (byte) payload;
+        return Arrays.copyOf(target, LZ4_HEADER + compressed);
+    }
+}
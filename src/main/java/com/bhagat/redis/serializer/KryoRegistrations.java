@@ -0,0 +1,84 @@
+package com.bhagat.redis.serializer;
+
+import com.bhagat.redis.cache.CacheEntry;
+import com.bhagat.redis.convert.LazyReferenceList;
+import com.bhagat.redis.model.Address;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.model.ShoppingCart;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.serializers.CollectionSerializer;
+import org.springframework.data.geo.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+
+/**
+ * Class ids of the types written by {@link KryoRedisSerializer}. Registered types are written as a small id instead
+ * of their class name, and registration is required: a type missing here can neither be written nor read.
+ * <p>
+ * The ids are part of the stored format: never renumber or reuse one, only append.
+ */
+public final class KryoRegistrations {
+
+    private KryoRegistrations() {
+    }
+
+    public static void registerDefaults(Kryo kryo) {
+        kryo.register(ArrayList.class, 20);
+        kryo.register(LinkedList.class, 21);
+        kryo.register(HashMap.class, 22);
+        kryo.register(LinkedHashMap.class, 23);
+        kryo.register(HashSet.class, 24);
+        kryo.register(LinkedHashSet.class, 25);
+        kryo.register(Date.class, 26);
+        kryo.register(Arrays.asList().getClass(), new ArrayListReadingSerializer(), 27);
+        kryo.register(Collections.nCopies(0, null).getClass(), new ArrayListReadingSerializer(), 28);
+        kryo.register(Collections.unmodifiableList(new ArrayList<>()).getClass(), new ArrayListReadingSerializer(), 29);
+        kryo.register(Collections.unmodifiableList(new LinkedList<>()).getClass(), new ArrayListReadingSerializer(), 30);
+        kryo.register(LazyReferenceList.class, new ArrayListReadingSerializer(), 31);
+        kryo.register(Collections.emptyList().getClass(), 32);
+        kryo.register(Collections.singletonList(null).getClass(), 33);
+
+        kryo.register(Person.class, 100);
+        kryo.register(Address.class, 101);
+        kryo.register(Gender.class, 102);
+        kryo.register(Order.class, 103);
+        kryo.register(LineItem.class, 104);
+        kryo.register(LegacyShoppingCart.class, 105);
+        kryo.register(Point.class, 106);
+        kryo.register(CacheEntry.class, 107);
+        kryo.register(ShoppingCart.class, 108);
+    }
+
+    /**
+     * Carts written to the session with their orders, before the orders moved to a Redis list. Only read, so
+     * sessions created before the change can still be loaded; the attribute is no longer used.
+     */
+    private static class LegacyShoppingCart {
+        private Collection<Order> orders;
+    }
+
+    /**
+     * Reads fixed-size, unmodifiable and lazy lists back as {@link ArrayList}, the original types cannot be filled
+     * element by element.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class ArrayListReadingSerializer extends CollectionSerializer<Collection> {
+        @Override
+        protected Collection create(Kryo kryo, Input input, Class<? extends Collection> type, int size) {
+            return new ArrayList(size);
+        }
+    }
+}
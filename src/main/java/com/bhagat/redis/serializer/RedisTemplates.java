@@ -0,0 +1,71 @@
+package com.bhagat.redis.serializer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link RedisTemplate}s with {@code String} keys, one per value type, created on first use and shared.
+ * <p>
+ * {@code byte[]} values are passed through as they are and {@code String} values written as UTF-8, any other type
+ * is written as JSON by a {@link TypedJsonRedisSerializer} of that type. All of them share one {@link ObjectMapper}.
+ */
+public class RedisTemplates {
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<JavaType, RedisSerializer<?>> serializers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JavaType, RedisTemplate<String, ?>> templates = new ConcurrentHashMap<>();
+
+    public RedisTemplates(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param type
+     * @return the template reading and writing values, and hash values, of the type
+     */
+    @SuppressWarnings("unchecked")
+    public <V> RedisTemplate<String, V> forType(Class<V> type) {
+        return (RedisTemplate<String, V>) templates.computeIfAbsent(objectMapper.constructType(type), this::create);
+    }
+
+    /**
+     * @param type
+     * @return the serializer of the type, e.g. to decode pub/sub messages
+     */
+    @SuppressWarnings("unchecked")
+    public <V> RedisSerializer<V> serializer(Class<V> type) {
+        return (RedisSerializer<V>) serializer(objectMapper.constructType(type));
+    }
+
+    private RedisSerializer<?> serializer(JavaType type) {
+        return serializers.computeIfAbsent(type, t -> {
+            if (t.hasRawClass(byte[].class)) {
+                return RedisSerializer.byteArray();
+            }
+            if (t.hasRawClass(String.class)) {
+                return RedisSerializer.string();
+            }
+            return new TypedJsonRedisSerializer<>(objectMapper, t);
+        });
+    }
+
+    private RedisTemplate<String, ?> create(JavaType type) {
+        RedisSerializer<?> values = serializer(type);
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setEnableDefaultSerializer(false);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(values);
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setHashValueSerializer(values);
+        template.afterPropertiesSet();
+        return template;
+    }
+}
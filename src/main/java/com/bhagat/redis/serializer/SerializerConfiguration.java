@@ -0,0 +1,37 @@
+package com.bhagat.redis.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ *
+ */
+@Configuration
+public class SerializerConfiguration {
+
+    /**
+     * Binary value serializer, also used by Spring Session for the session attributes
+     *
+     * @param compressionThreshold
+     * @return
+     */
+    @Bean({"binaryRedisSerializer", "springSessionDefaultRedisSerializer"})
+    public KryoRedisSerializer binaryRedisSerializer(@Value("${app.serializer.compression-threshold:1024}") int compressionThreshold) {
+        return new KryoRedisSerializer(compressionThreshold);
+    }
+
+    /**
+     * Templates typed by value, sharing the application {@link ObjectMapper}
+     *
+     * @param redisConnectionFactory
+     * @param objectMapper
+     * @return
+     */
+    @Bean
+    public RedisTemplates redisTemplates(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper) {
+        return new RedisTemplates(redisConnectionFactory, objectMapper);
+    }
+}
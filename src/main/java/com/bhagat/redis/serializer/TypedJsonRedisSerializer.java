@@ -0,0 +1,65 @@
+package com.bhagat.redis.serializer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+
+/**
+ * JSON {@link RedisSerializer} of a single type. The {@link ObjectReader} and {@link ObjectWriter} are created once,
+ * with their root (de)serializer resolved, so a call does not look them up again as
+ * {@link org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer} does.
+ *
+ * @param <T> the serialized type
+ */
+public class TypedJsonRedisSerializer<T> implements RedisSerializer<T> {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final JavaType type;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public TypedJsonRedisSerializer(ObjectMapper objectMapper, Class<T> type) {
+        this(objectMapper, objectMapper.constructType(type));
+    }
+
+    /**
+     * @param objectMapper shared, its configuration must not change afterwards
+     * @param type
+     */
+    public TypedJsonRedisSerializer(ObjectMapper objectMapper, JavaType type) {
+        this.type = type;
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+    }
+
+    @Override
+    public byte[] serialize(@Nullable T value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Cannot write " + type + " as JSON", ex);
+        }
+    }
+
+    @Override
+    @Nullable
+    public T deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return reader.readValue(bytes);
+        } catch (IOException ex) {
+            throw new SerializationException("Cannot read " + type + " from JSON", ex);
+        }
+    }
+}
@@ -1,16 +1,58 @@
 package com.bhagat.redis.service;
 
+import com.bhagat.redis.aggregate.OrderAggregates;
+import com.bhagat.redis.bloom.BloomFilters;
+import com.bhagat.redis.id.IdGenerators;
+import com.bhagat.redis.index.SortedSetIndexes;
+import com.bhagat.redis.model.LineItem;
 import com.bhagat.redis.model.Order;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 @Service
-public class OrderService {
-    @Cacheable("order-by-id")
+public class OrderService implements InitializingBean {
+    private final IdGenerators ids;
+    private final BloomFilters bloomFilters;
+    private final PlaceOrderScript placeOrder;
+
+    public OrderService(LettuceConnectionFactory connectionFactory, RedisConverter redisConverter,
+                        SortedSetIndexes sortedSetIndexes, IdGenerators ids, BloomFilters bloomFilters,
+                        ObjectProvider<OrderAggregates> aggregates) {
+        this.ids = ids;
+        this.bloomFilters = bloomFilters;
+        this.placeOrder = new PlaceOrderScript(connectionFactory, redisConverter, sortedSetIndexes,
+                aggregates.getIfAvailable());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        placeOrder.load();
+    }
+
+    /**
+     * Ids ruled out by the order {@link BloomFilters Bloom filter} are neither loaded nor cached.
+     *
+     * @param id
+     * @return the order, {@literal null} if it does not exist
+     */
+    @Cacheable(value = "order-by-id", sync = true,
+            condition = "@bloomFilters.mightContain('orders', #id)")
     public Order byId(Long id) {
+        // a false condition bypasses the cache but still invokes this method, the load is skipped here
+        if (!bloomFilters.mightContain(Order.class, id)) {
+            return null;
+        }
         try {
             Thread.sleep(1000 * 10);
         } catch (Throwable e) {
@@ -18,4 +60,75 @@ public class OrderService {
         }
         return new Order(id, new Date(), Collections.emptyList());
     }
+
+    /**
+     * Write the order, its line items, their indexes and references atomically in one round trip. Missing ids are
+     * generated and the line items get the order id, so calling again with the same objects after a failure is
+     * safe: an order already written is left untouched.
+     *
+     * @param order
+     * @param lineItems
+     * @return the order, referencing the line items
+     */
+    public Order placeOrder(Order order, List<LineItem> lineItems) {
+        return placeOrder(order, lineItems, null);
+    }
+
+    /**
+     * Same as {@link #placeOrder(Order, List)}, counting the customer in the distinct customers of the
+     * {@link OrderAggregates}.
+     *
+     * @param order
+     * @param lineItems
+     * @param customerId {@literal null} when unknown
+     * @return the order, referencing the line items
+     */
+    public Order placeOrder(Order order, List<LineItem> lineItems, @Nullable String customerId) {
+        prepare(order, lineItems);
+        placeOrder.execute(order, lineItems, customerId);
+        return order;
+    }
+
+    /**
+     * Non-blocking {@link #placeOrder(Order, List)}. Ids still come from the {@link IdGenerators}, which only
+     * block when a block of ids runs out.
+     *
+     * @param order
+     * @param lineItems
+     * @return the order, referencing the line items, once written
+     */
+    public Mono<Order> placeOrderAsync(Order order, List<LineItem> lineItems) {
+        return placeOrderAsync(order, lineItems, null);
+    }
+
+    /**
+     * Non-blocking {@link #placeOrder(Order, List, String)}.
+     *
+     * @param order
+     * @param lineItems
+     * @param customerId {@literal null} when unknown
+     * @return the order, referencing the line items, once written
+     */
+    public Mono<Order> placeOrderAsync(Order order, List<LineItem> lineItems, @Nullable String customerId) {
+        return Mono.defer(() -> {
+            prepare(order, lineItems);
+            return placeOrder.executeAsync(order, lineItems, customerId).thenReturn(order);
+        });
+    }
+
+    /**
+     * Assign the ids and add them to the Bloom filters before writing: the script publishes no repository events,
+     * and an id in the filter but not written yet only costs a lookup.
+     */
+    private void prepare(Order order, List<LineItem> lineItems) {
+        Long orderId = (Long) ids.assignIfMissing(order);
+        List<Object> lineItemIds = new ArrayList<>(lineItems.size());
+        for (LineItem lineItem : lineItems) {
+            lineItem.setOrderId(orderId);
+            lineItemIds.add(ids.assignIfMissing(lineItem));
+        }
+        order.setLineItems(new ArrayList<>(lineItems));
+        bloomFilters.put(Order.class, orderId);
+        bloomFilters.putAll(LineItem.class, lineItemIds);
+    }
 }
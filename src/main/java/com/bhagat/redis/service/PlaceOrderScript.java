@@ -0,0 +1,177 @@
+package com.bhagat.redis.service;
+
+import com.bhagat.redis.aggregate.OrderAggregates;
+import com.bhagat.redis.index.SortedSetIndexes;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.convert.IndexedData;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.convert.SimpleIndexedPropertyValue;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes an order and its line items with one {@code EVALSHA} of {@code scripts/place-order.lua}: the hashes as
+ * {@link RedisConverter} writes them, with the references, the keyspace sets, the {@code @Indexed} sets, the
+ * {@link com.bhagat.redis.index.RangeIndexed} and {@link com.bhagat.redis.index.SortedIndexed} sorted sets, the
+ * {@code keyspace:id:idx} helper sets and the time-to-live of the expiring entities. The script is loaded on startup,
+ * so no call pays for sending its body. With {@link OrderAggregates}, the same step counts the order in its time
+ * buckets, so a retried order is counted once.
+ */
+class PlaceOrderScript {
+    private static final RedisSerializer<byte[]> RAW = RedisSerializer.byteArray();
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<Long> RAW_LONG = (RedisSerializer) RAW;
+
+    private final DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+    private final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+    private final ReactiveRedisTemplate<byte[], byte[]> reactiveTemplate;
+    private final RedisConverter converter;
+    private final SortedSetIndexes indexes;
+    @Nullable
+    private final OrderAggregates aggregates;
+
+    PlaceOrderScript(LettuceConnectionFactory connectionFactory, RedisConverter converter, SortedSetIndexes indexes,
+                     @Nullable OrderAggregates aggregates) {
+        this.converter = converter;
+        this.indexes = indexes;
+        this.aggregates = aggregates;
+        this.script.setLocation(new ClassPathResource("scripts/place-order.lua"));
+        this.script.setResultType(Long.class);
+        this.template.setConnectionFactory(connectionFactory);
+        this.template.setEnableDefaultSerializer(false);
+        this.template.afterPropertiesSet();
+        this.reactiveTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.byteArray());
+    }
+
+    /**
+     * {@code SCRIPT LOAD} the script, {@link RedisTemplate} runs it with {@code EVALSHA} and only falls back to
+     * {@code EVAL} after a restart of Redis.
+     */
+    void load() {
+        template.execute((RedisCallback<String>) connection ->
+                connection.scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param order      with its id and line items set
+     * @param lineItems  with their ids set
+     * @param customerId counted in the distinct customers of the aggregates, {@literal null} when unknown
+     * @return {@literal false} if the order was already written
+     */
+    boolean execute(Order order, List<LineItem> lineItems, @Nullable String customerId) {
+        List<byte[]> keys = new ArrayList<>();
+        List<byte[]> args = new ArrayList<>();
+        arguments(order, lineItems, customerId, keys, args);
+        Long written = template.execute(script, RAW, RAW_LONG, keys, args.toArray());
+        return written != null && written == 1;
+    }
+
+    /**
+     * Same as {@link #execute(Order, List, String)} without blocking: the mapping runs on the caller, the script on
+     * the reactive connection.
+     *
+     * @param order      with its id and line items set
+     * @param lineItems  with their ids set
+     * @param customerId counted in the distinct customers of the aggregates, {@literal null} when unknown
+     * @return {@literal false} if the order was already written
+     */
+    Mono<Boolean> executeAsync(Order order, List<LineItem> lineItems, @Nullable String customerId) {
+        List<byte[]> keys = new ArrayList<>();
+        List<byte[]> args = new ArrayList<>();
+        arguments(order, lineItems, customerId, keys, args);
+        return reactiveTemplate.execute(script, keys, args).next().map(written -> written == 1);
+    }
+
+    private void arguments(Order order, List<LineItem> lineItems, @Nullable String customerId, List<byte[]> keys,
+                           List<byte[]> args) {
+        args.add(toBytes(1 + lineItems.size()));
+        add(order, keys, args);
+        for (LineItem lineItem : lineItems) {
+            add(lineItem, keys, args);
+        }
+        if (aggregates != null) {
+            aggregates.arguments(order.getWhen() != null ? order.getWhen() : new Date(), lineItems.size(), customerId,
+                    keys, args);
+        }
+    }
+
+    private void add(Object entity, List<byte[]> keys, List<byte[]> args) {
+        RedisData data = new RedisData();
+        converter.write(entity, data);
+        String keyspace = data.getKeyspace();
+        String id = data.getId();
+        keys.add(toBytes(keyspace + ":" + id));
+        keys.add(toBytes(keyspace));
+        keys.add(toBytes(keyspace + ":" + id + ":idx"));
+
+        Map<byte[], byte[]> fields = data.getBucket().rawMap();
+        args.add(toBytes(id));
+        args.add(toBytes(data.getTimeToLive() != null && data.getTimeToLive() > 0 ? data.getTimeToLive() : 0));
+        args.add(toBytes(fields.size()));
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            args.add(field.getKey());
+            args.add(field.getValue());
+        }
+
+        int sets = 0;
+        for (IndexedData indexed : data.getIndexedData()) {
+            if (!(indexed instanceof SimpleIndexedPropertyValue)) {
+                throw new IllegalArgumentException("Cannot write index " + indexed.getIndexName() + " of " + entity);
+            }
+            Object value = ((SimpleIndexedPropertyValue) indexed).getValue();
+            if (value != null) {
+                byte[] prefix = toBytes(indexed.getKeyspace() + ":" + indexed.getIndexName() + ":");
+                keys.add(ByteUtils.concat(prefix, toBytes(value)));
+                sets++;
+            }
+        }
+
+        List<byte[]> scores = new ArrayList<>();
+        for (RedisPersistentProperty property : indexes.getIndexedProperties(entity.getClass())) {
+            Double score = SortedSetIndexes.score(indexes.getValue(entity, property));
+            if (score != null) {
+                keys.add(toBytes(SortedSetIndexes.indexKey(keyspace, property.getName())));
+                scores.add(toBytes(score));
+            }
+        }
+        for (RedisPersistentProperty property : indexes.getSortedIndexedProperties(entity.getClass())) {
+            Object value = indexes.getValue(entity, property);
+            if (value != null) {
+                keys.add(toBytes(SortedSetIndexes.sortedIndexKey(keyspace, property.getName(), value)));
+                scores.add(toBytes(0));
+            }
+        }
+        args.add(toBytes(sets));
+        args.add(toBytes(scores.size()));
+        args.addAll(scores);
+    }
+
+    private byte[] toBytes(Object source) {
+        if (source instanceof byte[]) {
+            return (byte[]) source;
+        }
+        if (source instanceof String || source instanceof Number) {
+            return source.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return converter.getConversionService().convert(source, byte[].class);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bhagat.redis.stream;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ *
+ */
+@Configuration
+public class StreamConfiguration {
+
+    /**
+     * @param redisConnectionFactory
+     * @param properties
+     * @return
+     */
+    @Bean
+    public StreamPublisher streamPublisher(LettuceConnectionFactory redisConnectionFactory, StreamProperties properties) {
+        return new StreamPublisher(redisConnectionFactory, properties.getMaxLength());
+    }
+}
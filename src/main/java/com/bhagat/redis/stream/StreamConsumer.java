@@ -0,0 +1,308 @@
+package com.bhagat.redis.stream;
+
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.connection.RedisFutures;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.models.stream.PendingMessage;
+import io.lettuce.core.models.stream.PendingParser;
+import lombok.extern.java.Log;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consumer group member delivering the entries of a stream to a {@link StreamMessageHandler}, at least once.
+ * <p>
+ * One thread reads batches with {@code XREADGROUP COUNT BLOCK} on its own connection, so the blocking read never
+ * holds up the shared one, and hands the entries to a fixed pool of workers. At most {@code maxInFlight} entries
+ * are read and not yet processed: reads wait for workers to catch up. Processed entries are acknowledged in batches
+ * of {@code XACK}. Entries left pending for {@code claimMinIdle}, by a failed handler or a dead node, are claimed
+ * with {@code XPENDING} and {@code XCLAIM} and processed again.
+ */
+@Log
+public class StreamConsumer implements SmartLifecycle {
+    private final LettuceConnectionFactory connectionFactory;
+    private final DedicatedConnectionFactory readConnectionFactory;
+    private final String stream;
+    private final byte[] key;
+    private final byte[] group;
+    private final Consumer<byte[]> consumer;
+    private final StreamMessageHandler handler;
+    private final StreamProperties.Consumer properties;
+    private final Semaphore inFlight;
+    private final Queue<String> acks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingAcks = new AtomicInteger();
+    private volatile boolean running;
+    private Thread reader;
+    private ExecutorService workers;
+    private ScheduledExecutorService maintenance;
+
+    /**
+     * @param connectionFactory     shared connection, for acknowledgements and claims
+     * @param readConnectionFactory connection of the blocking reads
+     * @param stream
+     * @param group                 consumer group, created at the end of the stream when missing
+     * @param handler
+     * @param properties
+     */
+    public StreamConsumer(LettuceConnectionFactory connectionFactory, DedicatedConnectionFactory readConnectionFactory,
+                          String stream, String group, StreamMessageHandler handler, StreamProperties.Consumer properties) {
+        this.connectionFactory = connectionFactory;
+        this.readConnectionFactory = readConnectionFactory;
+        this.stream = stream;
+        this.key = toBytes(stream);
+        this.group = toBytes(group);
+        this.consumer = Consumer.from(this.group, toBytes(properties.getName()));
+        this.handler = handler;
+        this.properties = properties;
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !createGroup()) {
+            return;
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(properties.getConcurrency(), named("stream-" + stream + "-worker"));
+        maintenance = Executors.newSingleThreadScheduledExecutor(named("stream-" + stream + "-maintenance"));
+        maintenance.scheduleWithFixedDelay(this::flushAcks, properties.getAckInterval().toMillis(),
+                properties.getAckInterval().toMillis(), TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::claimIdle, properties.getClaimInterval().toMillis(),
+                properties.getClaimInterval().toMillis(), TimeUnit.MILLISECONDS);
+        reader = named("stream-" + stream + "-reader").newThread(this::read);
+        reader.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        maintenance.shutdownNow();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+            reader.join(properties.getBlock().toMillis() + connectionFactory.getClientConfiguration().getCommandTimeout().toMillis());
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flushAcks();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return {@literal false} if the server does not support streams
+     */
+    private boolean createGroup() {
+        try {
+            RedisFutures.execute(connectionFactory, commands -> Collections.singletonList(commands.xgroupCreate(
+                    XReadArgs.StreamOffset.latest(key), group, new XGroupCreateArgs().mkstream(true))));
+        } catch (RuntimeException ex) {
+            String message = String.valueOf(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            if (!message.startsWith("BUSYGROUP")) {
+                log.severe("Cannot create the consumer group of stream " + stream + ", streams need Redis 5.0: " + message);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void read() {
+        RedisConnection connection = readConnectionFactory.getConnectionFactory().getConnection();
+        try {
+            RedisAsyncCommands<byte[], byte[]> commands = (RedisAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            long timeout = properties.getBlock().toMillis() + connectionFactory.getClientConfiguration().getCommandTimeout().toMillis();
+            while (running) {
+                int permits = acquirePermits();
+                if (permits == 0) {
+                    continue;
+                }
+                List<StreamMessage<byte[], byte[]>> messages = Collections.emptyList();
+                try {
+                    messages = commands.xreadgroup(consumer,
+                            XReadArgs.Builder.count(permits).block(properties.getBlock()),
+                            XReadArgs.StreamOffset.lastConsumed(key)).get(timeout, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception ex) {
+                    log.warning("Cannot read stream " + stream + ": " + (ex instanceof TimeoutException ? "timed out" : ex));
+                    pause();
+                } finally {
+                    inFlight.release(permits - messages.size());
+                }
+                dispatch(messages);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Back off after a failed read instead of spinning while Redis is unreachable.
+     */
+    private void pause() {
+        try {
+            Thread.sleep(properties.getBlock().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Wait for at least one free slot, then take as many as a batch can use.
+     */
+    private int acquirePermits() {
+        try {
+            if (!inFlight.tryAcquire(properties.getBlock().toMillis(), TimeUnit.MILLISECONDS)) {
+                return 0;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return 0;
+        }
+        int permits = 1 + inFlight.drainPermits();
+        int excess = permits - properties.getBatchSize();
+        if (excess > 0) {
+            inFlight.release(excess);
+            permits -= excess;
+        }
+        return permits;
+    }
+
+    private void dispatch(List<StreamMessage<byte[], byte[]>> messages) {
+        for (StreamMessage<byte[], byte[]> message : messages) {
+            workers.execute(() -> process(message));
+        }
+    }
+
+    private void process(StreamMessage<byte[], byte[]> message) {
+        try {
+            handler.onMessage(message.getId(), decode(message.getBody()));
+            acknowledge(message.getId());
+        } catch (Exception ex) {
+            log.warning("Cannot process entry " + message.getId() + " of stream " + stream + ", left pending: " + ex);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void acknowledge(String id) {
+        acks.add(id);
+        if (pendingAcks.incrementAndGet() >= properties.getAckBatchSize()) {
+            flushAcks();
+        }
+    }
+
+    private void flushAcks() {
+        List<String> ids = new ArrayList<>();
+        for (String id = acks.poll(); id != null; id = acks.poll()) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        pendingAcks.addAndGet(-ids.size());
+        try {
+            RedisFutures.execute(connectionFactory, commands ->
+                    Collections.singletonList(commands.xack(key, group, ids.toArray(new String[0]))));
+        } catch (RuntimeException ex) {
+            log.warning("Cannot acknowledge " + ids.size() + " entries of stream " + stream + ", they will be delivered again: " + ex);
+        }
+    }
+
+    /**
+     * Claim the entries pending for too long, as many as there are free slots.
+     */
+    @SuppressWarnings("unchecked")
+    private void claimIdle() {
+        try {
+            long minIdle = properties.getClaimMinIdle().toMillis();
+            List<Object> reply = (List<Object>) RedisFutures.execute(connectionFactory, commands -> Collections.singletonList(
+                    commands.xpending(key, group, Range.create("-", "+"), Limit.from(properties.getBatchSize())))).get(0);
+            List<String> idle = new ArrayList<>();
+            for (PendingMessage pending : PendingParser.parseRange(reply)) {
+                if (pending.getMsSinceLastDelivery() >= minIdle) {
+                    idle.add(pending.getId());
+                }
+            }
+            int available = inFlight.drainPermits();
+            int permits = Math.min(idle.size(), available);
+            inFlight.release(available - permits);
+            if (permits == 0) {
+                return;
+            }
+            List<String> ids = idle.subList(0, permits);
+            List<StreamMessage<byte[], byte[]>> claimed = (List<StreamMessage<byte[], byte[]>>) RedisFutures.execute(connectionFactory,
+                    commands -> Collections.singletonList(commands.xclaim(key, consumer, minIdle, ids.toArray(new String[0])))).get(0);
+            List<StreamMessage<byte[], byte[]>> live = new ArrayList<>(claimed.size());
+            for (StreamMessage<byte[], byte[]> message : claimed) {
+                if (message != null && message.getBody() != null && !message.getBody().isEmpty()) {
+                    live.add(message);
+                } else if (message != null) {
+                    acknowledge(message.getId());
+                }
+            }
+            inFlight.release(permits - live.size());
+            if (!live.isEmpty()) {
+                log.info("Claimed " + live.size() + " idle entries of stream " + stream);
+            }
+            dispatch(live);
+        } catch (RuntimeException ex) {
+            log.warning("Cannot claim idle entries of stream " + stream + ": " + ex);
+        }
+    }
+
+    private static Map<String, String> decode(Map<byte[], byte[]> body) {
+        Map<String, String> decoded = new LinkedHashMap<>();
+        body.forEach((field, value) -> decoded.put(new String(field, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8)));
+        return decoded;
+    }
+
+    private static ThreadFactory named(String name) {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
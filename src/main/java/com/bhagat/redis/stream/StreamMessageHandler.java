@@ -0,0 +1,20 @@
+package com.bhagat.redis.stream;
+
+import java.util.Map;
+
+/**
+ * Processes the entries delivered by a {@link StreamConsumer}.
+ */
+@FunctionalInterface
+public interface StreamMessageHandler {
+
+    /**
+     * Entries are acknowledged once this returns. An exception leaves the entry pending, it is delivered again
+     * when reclaimed, so handlers must tolerate duplicates.
+     *
+     * @param id   entry id
+     * @param body entry fields
+     * @throws Exception
+     */
+    void onMessage(String id, Map<String, String> body) throws Exception;
+}
@@ -0,0 +1,61 @@
+package com.bhagat.redis.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Settings of the stream publishers and consumers.
+ */
+@Data
+@ConfigurationProperties("app.stream")
+public class StreamProperties {
+    /**
+     * Approximate number of entries kept per stream, older ones are trimmed by {@code XADD MAXLEN ~}.
+     */
+    private long maxLength = 100_000;
+
+    private final Consumer consumer = new Consumer();
+
+    @Data
+    public static class Consumer {
+        /**
+         * Name of this node in the consumer groups, its pending entries are reclaimed by others if it dies.
+         */
+        private String name = ManagementFactory.getRuntimeMXBean().getName();
+        /**
+         * Entries read per {@code XREADGROUP}.
+         */
+        private int batchSize = 500;
+        /**
+         * How long a read waits for new entries.
+         */
+        private Duration block = Duration.ofSeconds(1);
+        /**
+         * Threads processing the entries.
+         */
+        private int concurrency = 8;
+        /**
+         * Entries read but not yet processed, reads stop when reached.
+         */
+        private int maxInFlight = 2_000;
+        /**
+         * Processed entries acknowledged per {@code XACK}.
+         */
+        private int ackBatchSize = 200;
+        /**
+         * Longest delay before a processed entry is acknowledged.
+         */
+        private Duration ackInterval = Duration.ofMillis(100);
+        /**
+         * Pending entries not delivered for this long are claimed by this node.
+         */
+        private Duration claimMinIdle = Duration.ofSeconds(30);
+        /**
+         * How often the pending entries are checked.
+         */
+        private Duration claimInterval = Duration.ofSeconds(10);
+    }
+}
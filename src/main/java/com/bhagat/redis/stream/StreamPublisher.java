@@ -0,0 +1,68 @@
+package com.bhagat.redis.stream;
+
+import com.bhagat.redis.connection.RedisFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.XAddArgs;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends entries to streams with {@code XADD MAXLEN ~}, so a stream holds about the configured number of entries
+ * whether or not its consumers keep up. Entries stay until trimmed, consumers that were offline read them later.
+ */
+public class StreamPublisher {
+    private final LettuceConnectionFactory connectionFactory;
+    private final long maxLength;
+
+    public StreamPublisher(LettuceConnectionFactory connectionFactory, long maxLength) {
+        this.connectionFactory = connectionFactory;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @param stream
+     * @param body
+     * @return the id of the entry
+     */
+    public String publish(String stream, Map<String, String> body) {
+        return publishAll(stream, Collections.singletonList(body)).get(0);
+    }
+
+    /**
+     * Append the entries in one round trip.
+     *
+     * @param stream
+     * @param bodies
+     * @return the ids of the entries, in order
+     */
+    public List<String> publishAll(String stream, List<Map<String, String>> bodies) {
+        byte[] key = toBytes(stream);
+        XAddArgs args = new XAddArgs().maxlen(maxLength).approximateTrimming();
+        List<Object> ids = RedisFutures.execute(connectionFactory, commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(bodies.size());
+            for (Map<String, String> body : bodies) {
+                futures.add(commands.xadd(key, args, encode(body)));
+            }
+            return futures;
+        });
+        List<String> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> result.add((String) id));
+        return result;
+    }
+
+    private static Map<byte[], byte[]> encode(Map<String, String> body) {
+        Map<byte[], byte[]> encoded = new LinkedHashMap<>();
+        body.forEach((field, value) -> encoded.put(toBytes(field), toBytes(value)));
+        return encoded;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
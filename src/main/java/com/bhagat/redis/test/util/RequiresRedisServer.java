@@ -1,7 +1,12 @@
 package com.bhagat.redis.test.util;
 
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
 import org.junit.AssumptionViolatedException;
 import org.junit.rules.ExternalResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConverters;
+import org.springframework.data.util.Version;
 import org.springframework.util.StringUtils;
 
 import java.net.InetSocketAddress;
@@ -13,10 +18,16 @@ public class RequiresRedisServer extends ExternalResource {
 
     private final String host;
     private final int port;
+    private final Version requiredVersion;
 
     private RequiresRedisServer(String host, int port) {
+        this(host, port, null);
+    }
+
+    private RequiresRedisServer(String host, int port, Version requiredVersion) {
         this.host = host;
         this.port = port;
+        this.requiredVersion = requiredVersion;
     }
 
     /**
@@ -39,6 +50,16 @@ public class RequiresRedisServer extends ExternalResource {
         return new com.bhagat.redis.test.util.RequiresRedisServer(StringUtils.hasText(host) ? host : "127.0.0.1", port);
     }
 
+    /**
+     * Require the Redis instance to run at least the given version.
+     *
+     * @param version
+     * @return
+     */
+    public com.bhagat.redis.test.util.RequiresRedisServer atLeast(String version) {
+        return new com.bhagat.redis.test.util.RequiresRedisServer(host, port, Version.parse(version));
+    }
+
     @Override
     protected void before() throws Throwable {
         try (Socket socket = new Socket()) {
@@ -48,5 +69,21 @@ public class RequiresRedisServer extends ExternalResource {
         } catch (Exception e) {
             throw new AssumptionViolatedException(String.format("Seems as Redis is not running at %s:%s.", host, port), e);
         }
+
+        if (requiredVersion == null) {
+            return;
+        }
+        RedisClient redisClient = RedisClient.create(RedisURI.create(host, port));
+        try (StatefulRedisConnection<String, String> connection = redisClient.connect()) {
+            String infoServer = connection.sync().info("server");
+            String redisVersion = LettuceConverters.stringToProps().convert(infoServer).getProperty("redis_version");
+            Version runningVersion = Version.parse(redisVersion);
+            if (runningVersion.isLessThan(requiredVersion)) {
+                throw new AssumptionViolatedException(String.format("This test requires Redis version %s but you run version %s",
+                        requiredVersion, runningVersion));
+            }
+        } finally {
+            redisClient.shutdown();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,440 @@
+package com.bhagat.redis.transfer;
+
+import com.bhagat.redis.bloom.BloomFilters;
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.connection.ManualFlushPipeline;
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import com.bhagat.redis.index.SortedSetIndexWriter;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import lombok.extern.java.Log;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.util.ByteArrayWrapper;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.GeoIndexedPropertyValue;
+import org.springframework.data.redis.core.convert.IndexedData;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.convert.SimpleIndexedPropertyValue;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streams the entities of whole keyspaces to and from a file, holding one batch in memory whatever their number.
+ * <p>
+ * Export walks each keyspace set with {@code SSCAN} and reads a page of hashes with one pipelined {@code HGETALL}
+ * per entity, writing the raw fields as they are: no entity is converted and references stay references. Import
+ * writes the hashes back a batch per pipeline, with their keyspace set, index sets, geo indexes,
+ * {@code keyspace:id:idx} helper sets and the sorted set indexes of the {@link SortedSetIndexWriter}, then adds
+ * the ids of the batch to the {@link BloomFilters} at once; no repository event is published. Entities already in
+ * Redis are deleted first, in the same pipeline, leaving the indexes listed in their helper sets. As for any
+ * {@code SCAN}, entities written during an export may or may not be exported.
+ * <p>
+ * The file is a 6 byte header, {@code RDXP}, the format version and the flags, followed by the records, deflated
+ * when the {@link #FLAG_DEFLATED} flag is set. A keyspace record, {@code 1}, is followed by the entity records,
+ * {@code 2}, of the keyspace; {@code 0} ends the file. Strings and byte arrays are written as their length, a
+ * variable length integer, followed by their bytes; an entity is its id followed by the number of fields of its
+ * hash and each field name and value.
+ */
+@Log
+public class KeyspaceTransfer {
+    static final byte[] MAGIC = {'R', 'D', 'X', 'P'};
+    static final int VERSION = 1;
+    static final int FLAG_DEFLATED = 1;
+
+    private static final int END = 0;
+    private static final int KEYSPACE = 1;
+    private static final int ENTITY = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DedicatedConnectionFactory connectionFactory;
+    private final BatchingRedisConverter converter;
+    private final SortedSetIndexWriter indexWriter;
+    private final BloomFilters bloomFilters;
+    private final TransferProperties properties;
+
+    public KeyspaceTransfer(DedicatedConnectionFactory connectionFactory, BatchingRedisConverter converter,
+                            SortedSetIndexWriter indexWriter, BloomFilters bloomFilters,
+                            TransferProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.converter = converter;
+        this.indexWriter = indexWriter;
+        this.bloomFilters = bloomFilters;
+        this.properties = properties;
+    }
+
+    /**
+     * Export the {@link TransferProperties#getKeyspaces() configured keyspaces}.
+     *
+     * @param file created or replaced
+     * @return the number of entities exported
+     * @throws IOException
+     */
+    public long exportTo(Path file) throws IOException {
+        return exportTo(file, properties.getKeyspaces());
+    }
+
+    /**
+     * @param file      created or replaced
+     * @param keyspaces
+     * @return the number of entities exported
+     * @throws IOException
+     */
+    public long exportTo(Path file, List<String> keyspaces) throws IOException {
+        long exported = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = openOutput(channel);
+             ManualFlushPipeline pipeline = ManualFlushPipeline.open(connectionFactory)) {
+            for (String keyspace : keyspaces) {
+                long start = System.currentTimeMillis();
+                out.writeByte(KEYSPACE);
+                writeBytes(out, toBytes(keyspace));
+                long count = exportKeyspace(pipeline, keyspace, out);
+                log.info("Exported " + count + " " + keyspace + " in " + (System.currentTimeMillis() - start) + " ms");
+                exported += count;
+            }
+            out.writeByte(END);
+        }
+        return exported;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long exportKeyspace(ManualFlushPipeline pipeline, String keyspace, DataOutputStream out) throws IOException {
+        RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+        byte[] keyspaceKey = toBytes(keyspace);
+        byte[] prefix = toBytes(keyspace + ":");
+        ScanArgs page = ScanArgs.Builder.limit(properties.getBatchSize());
+        ScanCursor cursor = ScanCursor.INITIAL;
+        long count = 0;
+        do {
+            pipeline.add(commands.sscan(keyspaceKey, cursor, page));
+            ValueScanCursor<byte[]> ids = (ValueScanCursor<byte[]>) pipeline.flush().get(0);
+            for (byte[] id : ids.getValues()) {
+                pipeline.add(commands.hgetall(ByteUtils.concat(prefix, id)));
+            }
+            List<Object> hashes = pipeline.flush();
+            for (int i = 0; i < hashes.size(); i++) {
+                Map<byte[], byte[]> hash = (Map<byte[], byte[]>) hashes.get(i);
+                // expired or deleted since the page was scanned
+                if (hash == null || hash.isEmpty()) {
+                    continue;
+                }
+                out.writeByte(ENTITY);
+                writeBytes(out, ids.getValues().get(i));
+                writeVarInt(out, hash.size());
+                for (Map.Entry<byte[], byte[]> field : hash.entrySet()) {
+                    writeBytes(out, field.getKey());
+                    writeBytes(out, field.getValue());
+                }
+                count++;
+            }
+            cursor = ids;
+        } while (!cursor.isFinished());
+        return count;
+    }
+
+    /**
+     * @param file written by {@link #exportTo(Path)}
+     * @return the number of entities imported
+     * @throws IOException
+     */
+    public long importFrom(Path file) throws IOException {
+        long imported = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = openInput(channel);
+             ManualFlushPipeline pipeline = ManualFlushPipeline.open(connectionFactory)) {
+            Batch batch = null;
+            int record;
+            while ((record = in.readUnsignedByte()) != END) {
+                if (record == KEYSPACE) {
+                    if (batch != null) {
+                        imported += batch.write(pipeline);
+                        batch.log();
+                    }
+                    batch = new Batch(new String(readBytes(in), StandardCharsets.UTF_8));
+                } else if (record == ENTITY && batch != null) {
+                    byte[] id = readBytes(in);
+                    int fields = readVarInt(in);
+                    Map<byte[], byte[]> hash = new LinkedHashMap<>(fields * 2);
+                    for (int i = 0; i < fields; i++) {
+                        hash.put(readBytes(in), readBytes(in));
+                    }
+                    batch.add(id, hash);
+                    if (batch.size() == properties.getBatchSize()) {
+                        imported += batch.write(pipeline);
+                    }
+                } else {
+                    throw new IOException("Unexpected record " + record + " in " + file);
+                }
+            }
+            if (batch != null) {
+                imported += batch.write(pipeline);
+                batch.log();
+            }
+        } catch (EOFException ex) {
+            throw new IOException(file + " is truncated", ex);
+        }
+        return imported;
+    }
+
+    private DataOutputStream openOutput(FileChannel channel) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(properties.isCompress() ? FLAG_DEFLATED : 0);
+        if (properties.isCompress()) {
+            out = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), BUFFER_SIZE);
+        }
+        return new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    }
+
+    private static DataInputStream openInput(FileChannel channel) throws IOException {
+        InputStream in = Channels.newInputStream(channel);
+        byte[] header = new byte[MAGIC.length + 2];
+        new DataInputStream(in).readFully(header);
+        if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC) || header[MAGIC.length] != VERSION) {
+            throw new IOException("Not a keyspace export of version " + VERSION);
+        }
+        if ((header[MAGIC.length + 1] & FLAG_DEFLATED) != 0) {
+            in = new InflaterInputStream(in, new Inflater(), BUFFER_SIZE);
+        }
+        return new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Seven bits per byte, least significant first, the high bit set on all bytes but the last.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed length");
+    }
+
+    private byte[] toBytes(Object source) {
+        if (source instanceof byte[]) {
+            return (byte[]) source;
+        }
+        return converter.getConversionService().convert(source, byte[].class);
+    }
+
+    /**
+     * Entities of one keyspace waiting to be written.
+     */
+    private class Batch {
+        final String keyspace;
+        final RedisPersistentEntity<?> entity;
+        final List<byte[]> ids = new ArrayList<>();
+        final List<Map<byte[], byte[]>> hashes = new ArrayList<>();
+        final long start = System.currentTimeMillis();
+        long written;
+
+        Batch(String keyspace) {
+            this.keyspace = keyspace;
+            this.entity = converter.getMappingContext().getPersistentEntities().stream()
+                    .filter(candidate -> keyspace.equals(candidate.getKeySpace()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No entity is stored in keyspace " + keyspace));
+        }
+
+        void add(byte[] id, Map<byte[], byte[]> hash) {
+            ids.add(id);
+            hashes.add(hash);
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        /**
+         * At most three round trips: one reading which entities exist and their indexes, one reading the type of
+         * those indexes and one deleting the existing entities and writing the batch.
+         *
+         * @return the number of entities written
+         */
+        @SuppressWarnings("unchecked")
+        long write(ManualFlushPipeline pipeline) {
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Class<Object> type = (Class<Object>) entity.getType();
+            RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+            byte[] prefix = toBytes(keyspace + ":");
+            for (byte[] id : ids) {
+                byte[] objectKey = ByteUtils.concat(prefix, id);
+                pipeline.add(commands.exists(objectKey));
+                pipeline.add(commands.smembers(ByteUtils.concat(objectKey, toBytes(":idx"))));
+            }
+            List<Object> current = pipeline.flush();
+            Set<ByteArrayWrapper> currentIndexes = new LinkedHashSet<>();
+            for (int i = 0; i < ids.size(); i++) {
+                for (byte[] indexKey : (Set<byte[]>) current.get(2 * i + 1)) {
+                    currentIndexes.add(new ByteArrayWrapper(indexKey));
+                }
+            }
+            Map<ByteArrayWrapper, DataType> types = readTypes(pipeline, currentIndexes);
+
+            Map<ByteArrayWrapper, List<byte[]>> setRemovals = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Set<byte[]> indexKeys = (Set<byte[]>) current.get(2 * i + 1);
+                if (current.get(2 * i) instanceof Long && (Long) current.get(2 * i) > 0 || !indexKeys.isEmpty()) {
+                    delete(pipeline, ids.get(i), indexKeys, types, setRemovals);
+                }
+            }
+            for (Map.Entry<ByteArrayWrapper, List<byte[]>> set : setRemovals.entrySet()) {
+                pipeline.add(commands.srem(set.getKey().getArray(), set.getValue().toArray(new byte[0][])));
+            }
+            Map<Object, Object> entities = new LinkedHashMap<>();
+            Map<ByteArrayWrapper, List<byte[]>> setWrites = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                String id = new String(ids.get(i), StandardCharsets.UTF_8);
+                RedisData data = new RedisData(Bucket.newBucketFromRawMap(hashes.get(i)));
+                data.setId(id);
+                data.setKeyspace(keyspace);
+                Object read = converter.readWithoutReferences(type, data);
+                entities.put(id, read);
+                write(pipeline, ids.get(i), hashes.get(i), read, setWrites);
+            }
+            for (Map.Entry<ByteArrayWrapper, List<byte[]>> set : setWrites.entrySet()) {
+                pipeline.add(commands.sadd(set.getKey().getArray(), set.getValue().toArray(new byte[0][])));
+            }
+            indexWriter.index(commands, keyspace, entities).forEach(pipeline::add);
+            pipeline.flush();
+            bloomFilters.putAll(type, entities.keySet());
+            long count = ids.size();
+            written += count;
+            ids.clear();
+            hashes.clear();
+            return count;
+        }
+
+        private Map<ByteArrayWrapper, DataType> readTypes(ManualFlushPipeline pipeline, Set<ByteArrayWrapper> keys) {
+            if (keys.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            List<ByteArrayWrapper> ordered = new ArrayList<>(keys);
+            for (ByteArrayWrapper key : ordered) {
+                pipeline.add(pipeline.commands().type(key.getArray()));
+            }
+            List<Object> results = pipeline.flush();
+            Map<ByteArrayWrapper, DataType> types = new HashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                types.put(ordered.get(i), DataType.fromCode((String) results.get(i)));
+            }
+            return types;
+        }
+
+        /**
+         * The keys {@link org.springframework.data.redis.core.RedisKeyValueAdapter#delete(Object, String)} removes:
+         * the hash, its phantom and helper set and the entity in each index of the helper set, {@code ZREM} for
+         * sorted sets. The keyspace set and the prefix indexes are rewritten with the entity.
+         */
+        private void delete(ManualFlushPipeline pipeline, byte[] id, Set<byte[]> indexKeys,
+                            Map<ByteArrayWrapper, DataType> types, Map<ByteArrayWrapper, List<byte[]>> setRemovals) {
+            RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+            byte[] objectKey = toBytes(keyspace + ":" + new String(id, StandardCharsets.UTF_8));
+            for (byte[] indexKey : indexKeys) {
+                if (DataType.ZSET.equals(types.get(new ByteArrayWrapper(indexKey)))) {
+                    pipeline.add(commands.zrem(indexKey, id));
+                } else {
+                    setRemovals.computeIfAbsent(new ByteArrayWrapper(indexKey), key -> new ArrayList<>()).add(id);
+                }
+            }
+            pipeline.add(commands.del(objectKey, ByteUtils.concat(objectKey, toBytes(":phantom")),
+                    ByteUtils.concat(objectKey, toBytes(":idx"))));
+        }
+
+        private void write(ManualFlushPipeline pipeline, byte[] id, Map<byte[], byte[]> hash, Object read,
+                           Map<ByteArrayWrapper, List<byte[]>> setWrites) {
+            RedisAsyncCommands<byte[], byte[]> commands = pipeline.commands();
+            byte[] objectKey = toBytes(keyspace + ":" + new String(id, StandardCharsets.UTF_8));
+            pipeline.add(commands.hmset(objectKey, hash));
+            setWrites.computeIfAbsent(new ByteArrayWrapper(toBytes(keyspace)), key -> new ArrayList<>()).add(id);
+            List<byte[]> indexKeys = new ArrayList<>();
+            // the indexes and time-to-live of the entity, its hash is written as exported
+            RedisData converted = new RedisData();
+            converter.write(read, converted);
+            for (IndexedData indexed : converted.getIndexedData()) {
+                if (indexed instanceof SimpleIndexedPropertyValue) {
+                    Object value = ((SimpleIndexedPropertyValue) indexed).getValue();
+                    if (value != null) {
+                        byte[] indexKey = ByteUtils.concat(toBytes(indexed.getKeyspace() + ":" + indexed.getIndexName() + ":"), toBytes(value));
+                        setWrites.computeIfAbsent(new ByteArrayWrapper(indexKey), key -> new ArrayList<>()).add(id);
+                        indexKeys.add(indexKey);
+                    }
+                } else if (indexed instanceof GeoIndexedPropertyValue) {
+                    byte[] indexKey = toBytes(indexed.getKeyspace() + ":" + indexed.getIndexName());
+                    Point point = ((GeoIndexedPropertyValue) indexed).getPoint();
+                    pipeline.add(commands.geoadd(indexKey, point.getX(), point.getY(), id));
+                    indexKeys.add(indexKey);
+                }
+            }
+            if (!indexKeys.isEmpty()) {
+                byte[] helperKey = ByteUtils.concat(objectKey, toBytes(":idx"));
+                pipeline.add(commands.sadd(helperKey, indexKeys.toArray(new byte[0][])));
+            }
+            Long ttl = converted.getTimeToLive();
+            if (ttl != null && ttl > 0) {
+                pipeline.add(commands.expire(objectKey, ttl));
+            }
+        }
+
+        void log() {
+            log.info("Imported " + written + " " + keyspace + " in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bhagat.redis.transfer;
+
+import com.bhagat.redis.bloom.BloomFilters;
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.convert.BatchingRedisConverter;
+import com.bhagat.redis.index.SortedSetIndexWriter;
+import lombok.extern.java.Log;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.Ordered;
+
+import java.nio.file.Paths;
+
+/**
+ *
+ */
+@Log
+@Configuration
+public class TransferConfiguration {
+
+    @Bean
+    public KeyspaceTransfer keyspaceTransfer(DedicatedConnectionFactory dedicatedConnectionFactory,
+                                             BatchingRedisConverter redisConverter,
+                                             SortedSetIndexWriter sortedSetIndexWriter,
+                                             BloomFilters bloomFilters,
+                                             TransferProperties properties) {
+        return new KeyspaceTransfer(dedicatedConnectionFactory, redisConverter, sortedSetIndexWriter, bloomFilters,
+                properties);
+    }
+
+    /**
+     * Import runs before the other runners, so they see the imported entities
+     *
+     * @param transfer
+     * @param properties
+     * @return
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty("app.transfer.import-from")
+    public ApplicationRunner importRunner(KeyspaceTransfer transfer, TransferProperties properties) {
+        return args -> log.info("Imported " + transfer.importFrom(Paths.get(properties.getImportFrom()))
+                + " entities from " + properties.getImportFrom());
+    }
+
+    /**
+     * Export runs after the other runners, so it includes what they created
+     *
+     * @param transfer
+     * @param properties
+     * @return
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @ConditionalOnProperty("app.transfer.export-to")
+    public ApplicationRunner exportRunner(KeyspaceTransfer transfer, TransferProperties properties) {
+        return args -> log.info("Exported " + transfer.exportTo(Paths.get(properties.getExportTo()))
+                + " entities to " + properties.getExportTo());
+    }
+}
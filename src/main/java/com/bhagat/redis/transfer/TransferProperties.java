@@ -0,0 +1,36 @@
+package com.bhagat.redis.transfer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings of the {@link KeyspaceTransfer} export and import.
+ */
+@Data
+@ConfigurationProperties("app.transfer")
+public class TransferProperties {
+    /**
+     * Keyspaces exported, in this order.
+     */
+    private List<String> keyspaces = new ArrayList<>(Arrays.asList("persons", "orders", "lineItems"));
+    /**
+     * Entities read per {@code SSCAN} page on export and written per pipeline flush on import.
+     */
+    private int batchSize = 1000;
+    /**
+     * Deflate the exported records, imports detect it from the file header.
+     */
+    private boolean compress = true;
+    /**
+     * File to export to once the application started, none by default.
+     */
+    private String exportTo;
+    /**
+     * File to import from once the application started, none by default.
+     */
+    private String importFrom;
+}
@@ -0,0 +1,28 @@
+-- Compacts the minute buckets of one hour into its hour bucket. KEYS[1] is the rolled up watermark, KEYS[2] and
+-- KEYS[3] the hash and HyperLogLog of the hour, the following KEYS the hash and HyperLogLog of each minute; ARGV[1]
+-- is the start of the hour, ARGV[2] its end and ARGV[3] the expiry of the hour bucket in epoch milliseconds, 0 for
+-- none. Returns 0 when the hour was already rolled up, 1 otherwise.
+if tonumber(redis.call('GET', KEYS[1]) or 0) > tonumber(ARGV[1]) then
+    return 0
+end
+
+local customers = {}
+for i = 4, #KEYS, 2 do
+    local fields = redis.call('HGETALL', KEYS[i])
+    for j = 1, #fields, 2 do
+        redis.call('HINCRBY', KEYS[2], fields[j], fields[j + 1])
+    end
+    if redis.call('EXISTS', KEYS[i + 1]) == 1 then
+        customers[#customers + 1] = KEYS[i + 1]
+    end
+end
+if #customers > 0 then
+    redis.call('PFMERGE', KEYS[3], unpack(customers))
+end
+redis.call('DEL', unpack(KEYS, 4))
+if tonumber(ARGV[3]) > 0 then
+    redis.call('PEXPIREAT', KEYS[2], ARGV[3])
+    redis.call('PEXPIREAT', KEYS[3], ARGV[3])
+end
+redis.call('SET', KEYS[1], ARGV[2])
+return 1
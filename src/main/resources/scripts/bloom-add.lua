@@ -0,0 +1,7 @@
+-- Sets the bits of ids in a Bloom filter. KEYS[1] is the bitmap, ARGV the bit offsets. Returns the number of
+-- bits that were not set yet.
+local added = 0
+for i = 1, #ARGV do
+    added = added + 1 - redis.call('SETBIT', KEYS[1], ARGV[i], 1)
+end
+return added
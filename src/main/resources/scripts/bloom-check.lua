@@ -0,0 +1,8 @@
+-- Checks the bits of one id in a Bloom filter. KEYS[1] is the bitmap, ARGV the bit offsets. Returns 1 when all
+-- are set, 0 at the first bit not set: the id was never added.
+for i = 1, #ARGV do
+    if redis.call('GETBIT', KEYS[1], ARGV[i]) == 0 then
+        return 0
+    end
+end
+return 1
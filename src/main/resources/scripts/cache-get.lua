@@ -0,0 +1,7 @@
+-- Reads a cache entry and marks it as just used in the LRU sorted set of its cache. KEYS[1] is the entry,
+-- KEYS[2] the sorted set, ARGV[1] the current time in milliseconds. Returns the value, nil when missing.
+local value = redis.call('GET', KEYS[1])
+if value then
+    redis.call('ZADD', KEYS[2], ARGV[1], KEYS[1])
+end
+return value
@@ -0,0 +1,30 @@
+-- Writes a cache entry, tracks it in the LRU sorted set of its cache and deletes the least recently used entries
+-- beyond the budget. KEYS[1] is the entry, KEYS[2] the sorted set; ARGV holds the value, the time-to-live in
+-- milliseconds (0 for none), 1 to write only if absent, the current time, the time before which tracked entries
+-- are known to have expired (0 for never) and the budget. Returns the value in place when writing only if absent,
+-- nil otherwise.
+-- The least recently used entries deleted are not declared in KEYS, they are only known here: single node
+-- (standalone or master/replica) only, not Redis Cluster.
+local set = {'SET', KEYS[1], ARGV[1]}
+if tonumber(ARGV[2]) > 0 then
+    table.insert(set, 'PX')
+    table.insert(set, ARGV[2])
+end
+if ARGV[3] == '1' then
+    table.insert(set, 'NX')
+end
+if not redis.call(unpack(set)) then
+    redis.call('ZADD', KEYS[2], ARGV[4], KEYS[1])
+    return redis.call('GET', KEYS[1])
+end
+redis.call('ZADD', KEYS[2], ARGV[4], KEYS[1])
+if tonumber(ARGV[5]) > 0 then
+    redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[5])
+end
+local excess = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[6])
+if excess > 0 then
+    local victims = redis.call('ZRANGE', KEYS[2], 0, excess - 1)
+    redis.call('ZREMRANGEBYRANK', KEYS[2], 0, excess - 1)
+    redis.call('DEL', unpack(victims))
+end
+return false
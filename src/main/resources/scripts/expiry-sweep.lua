@@ -0,0 +1,30 @@
+-- Removes the ids of expired entities from their keyspace set, their indexes and their helper set. KEYS[1] is the
+-- keyspace set, the following KEYS pairs of a prefix index and the hash of its members; ARGV[1] is the keyspace and
+-- the following ARGV the ids to check; ids whose hash still exists are left alone. Returns the number of ids removed.
+-- The hashes, helper sets and indexes of the ids are derived here, not declared in KEYS: single node (standalone or
+-- master/replica) only, not Redis Cluster.
+local removed = 0
+for i = 2, #ARGV do
+    local id = ARGV[i]
+    local hash = ARGV[1] .. ':' .. id
+    if redis.call('EXISTS', hash) == 0 then
+        local helper = hash .. ':idx'
+        for _, index in ipairs(redis.call('SMEMBERS', helper)) do
+            if redis.call('TYPE', index).ok == 'zset' then
+                redis.call('ZREM', index, id)
+            else
+                redis.call('SREM', index, id)
+            end
+        end
+        redis.call('DEL', helper)
+        for k = 2, #KEYS, 2 do
+            local member = redis.call('HGET', KEYS[k + 1], id)
+            if member then
+                redis.call('ZREM', KEYS[k], member)
+                redis.call('HDEL', KEYS[k + 1], id)
+            end
+        end
+        removed = removed + redis.call('SREM', KEYS[1], id)
+    end
+end
+return removed
@@ -0,0 +1,59 @@
+-- Ids of the entities matching the index sets in KEYS: the intersection of the first ARGV[1] sets, plus the union
+-- of the remaining ones, the same semantics as the Spring Data Redis query engine.
+-- ARGV[2] 'count' returns the number of ids, 'find' returns id, HGETALL pairs for ids offset + 1 .. offset + rows
+-- of the keyspace ARGV[3] (rows < 0 for all, 0 for none).
+-- The hashes are not declared in KEYS, their ids are only known here: single node (standalone or master/replica)
+-- only, not Redis Cluster.
+local nAnd = tonumber(ARGV[1])
+local mode = ARGV[2]
+local prefix = ARGV[3]
+local offset = tonumber(ARGV[4])
+local rows = tonumber(ARGV[5])
+
+local ids = {}
+local seen = {}
+local function add(members)
+    for _, id in ipairs(members) do
+        if not seen[id] then
+            seen[id] = true
+            ids[#ids + 1] = id
+        end
+    end
+end
+
+if nAnd > 0 then
+    -- most selective index first, an empty one settles the intersection without running it
+    local indexes = {}
+    for i = 1, nAnd do
+        indexes[i] = { key = KEYS[i], card = redis.call('SCARD', KEYS[i]) }
+    end
+    table.sort(indexes, function(a, b) return a.card < b.card end)
+    if indexes[1].card > 0 then
+        local keys = {}
+        for i, index in ipairs(indexes) do
+            keys[i] = index.key
+        end
+        add(redis.call('SINTER', unpack(keys)))
+    end
+end
+if #KEYS > nAnd then
+    add(redis.call('SUNION', unpack(KEYS, nAnd + 1)))
+end
+
+if mode == 'count' then
+    return #ids
+end
+
+local result = {}
+local last = #ids
+if rows >= 0 then
+    last = math.min(last, offset + rows)
+end
+for i = offset + 1, last do
+    local hash = redis.call('HGETALL', prefix .. ids[i])
+    if #hash > 0 then
+        result[#result + 1] = ids[i]
+        result[#result + 1] = hash
+    end
+end
+return result
@@ -0,0 +1,74 @@
+-- Writes entities with their keyspace set, index sets and helper set in one step. ARGV[1] is the number of
+-- entities; then, for each entity, KEYS holds its hash, keyspace set, helper set, set indexes and sorted set
+-- indexes, and ARGV holds its id, its time-to-live in seconds (0 for none), the number of hash fields, the fields
+-- and values, the number of set indexes, the number of sorted set indexes and their scores.
+-- The first entity is the order: when its hash already exists an earlier attempt placed it and nothing is
+-- written, so retries are safe. Returns 1 when the entities were written, 0 otherwise.
+-- When KEYS go on after the entities, they are the rolled up watermark and the hash and HyperLogLog of the minute
+-- then of the hour of the order, and ARGV holds the start of the hour, the number of line items, the customer id
+-- (empty when unknown) and the expiry of the minute and hour buckets, in epoch milliseconds (0 for none).
+-- The indexes of a previous version are read from the helper sets, not declared in KEYS: single node (standalone or
+-- master/replica) only, not Redis Cluster.
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+
+local k = 1
+local a = 2
+for _ = 1, tonumber(ARGV[1]) do
+    local hash, keyspace, helper = KEYS[k], KEYS[k + 1], KEYS[k + 2]
+    local id, ttl = ARGV[a], tonumber(ARGV[a + 1])
+    local fields = tonumber(ARGV[a + 2])
+    k = k + 3
+    a = a + 3
+
+    -- leave the indexes of a previous version, as Spring Data Redis does on update
+    for _, index in ipairs(redis.call('SMEMBERS', helper)) do
+        if redis.call('TYPE', index).ok == 'zset' then
+            redis.call('ZREM', index, id)
+        else
+            redis.call('SREM', index, id)
+        end
+    end
+    redis.call('DEL', hash, helper)
+    if fields > 0 then
+        redis.call('HMSET', hash, unpack(ARGV, a, a + 2 * fields - 1))
+        if ttl > 0 then
+            redis.call('EXPIRE', hash, ttl)
+        end
+    end
+    a = a + 2 * fields
+    redis.call('SADD', keyspace, id)
+
+    local sets, sorted = tonumber(ARGV[a]), tonumber(ARGV[a + 1])
+    a = a + 2
+    for _ = 1, sets do
+        redis.call('SADD', KEYS[k], id)
+        redis.call('SADD', helper, KEYS[k])
+        k = k + 1
+    end
+    for _ = 1, sorted do
+        redis.call('ZADD', KEYS[k], ARGV[a], id)
+        redis.call('SADD', helper, KEYS[k])
+        k = k + 1
+        a = a + 1
+    end
+end
+
+-- the minute buckets of the order, or its hour buckets when the hour is already rolled up
+if k <= #KEYS then
+    local hash, customers, expireAt = KEYS[k + 1], KEYS[k + 2], tonumber(ARGV[a + 3])
+    if tonumber(redis.call('GET', KEYS[k]) or 0) > tonumber(ARGV[a]) then
+        hash, customers, expireAt = KEYS[k + 3], KEYS[k + 4], tonumber(ARGV[a + 4])
+    end
+    redis.call('HINCRBY', hash, 'orders', 1)
+    redis.call('HINCRBY', hash, 'lineItems', ARGV[a + 1])
+    if ARGV[a + 2] ~= '' then
+        redis.call('PFADD', customers, ARGV[a + 2])
+    end
+    if expireAt > 0 then
+        redis.call('PEXPIREAT', hash, expireAt)
+        redis.call('PEXPIREAT', customers, expireAt)
+    end
+end
+return 1
@@ -0,0 +1,22 @@
+-- Moves an entity in its prefix indexes. KEYS come in pairs, the sorted set of an index followed by the hash of the
+-- member of each id; ARGV[1] is the id and ARGV[n + 1] the new member in the index of the n-th pair, empty to remove
+-- the entity. Returns the number of indexes changed.
+local changed = 0
+local id = ARGV[1]
+for n = 1, #KEYS / 2 do
+    local index, members, member = KEYS[2 * n - 1], KEYS[2 * n], ARGV[n + 1]
+    local current = redis.call('HGET', members, id)
+    if current ~= member and (current or member ~= '') then
+        if current then
+            redis.call('ZREM', index, current)
+        end
+        if member == '' then
+            redis.call('HDEL', members, id)
+        else
+            redis.call('ZADD', index, 0, member)
+            redis.call('HSET', members, id, member)
+        end
+        changed = changed + 1
+    end
+end
+return changed
@@ -0,0 +1,143 @@
+package com.bhagat.redis.aggregate;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.service.OrderService;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false", "app.aggregates.rollup-interval=1h"})
+public class OrderAggregatesTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    /**
+     * Recent, the buckets expire at a fixed time after their hour.
+     */
+    private static final Instant HOUR = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(3, ChronoUnit.HOURS);
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderAggregates aggregates;
+    @Autowired
+    OrderAggregatesEndpoint endpoint;
+    @Autowired
+    StringRedisTemplate template;
+
+    @Before
+    @After
+    public void setUp() {
+        template.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    @Test
+    public void countsOrdersPerBucket() {
+        place(HOUR.plusSeconds(10), 2, "arya");
+        place(HOUR.plusSeconds(50), 1, "jon");
+        place(HOUR.plusSeconds(70), 3, "arya");
+        place(HOUR.plusSeconds(3600 + 5), 1, null);
+
+        List<OrderBucket> minutes = aggregates.buckets(OrderAggregates.Granularity.MINUTE, HOUR, HOUR.plusSeconds(180));
+        assertThat(minutes).containsExactly(
+                new OrderBucket(HOUR, 2, 3, 2),
+                new OrderBucket(HOUR.plusSeconds(60), 1, 3, 1),
+                new OrderBucket(HOUR.plusSeconds(120), 0, 0, 0));
+        assertThat(aggregates.buckets(OrderAggregates.Granularity.HOUR, HOUR, HOUR.plusSeconds(7200)))
+                .containsExactly(new OrderBucket(HOUR, 3, 6, 2), new OrderBucket(HOUR.plusSeconds(3600), 1, 1, 0));
+        assertThat(aggregates.total(OrderAggregates.Granularity.DAY, HOUR, HOUR.plusSeconds(7200)))
+                .isEqualTo(new OrderBucket(HOUR.truncatedTo(ChronoUnit.DAYS), 4, 7, 2));
+    }
+
+    @Test
+    public void rollsUpCompletedHours() {
+        place(HOUR.plusSeconds(10), 2, "arya");
+        place(HOUR.plusSeconds(1800), 1, "jon");
+        place(HOUR.plusSeconds(3600 + 5), 1, "sansa");
+
+        assertThat(aggregates.rollUp(HOUR.plusSeconds(3600 + 600))).isGreaterThan(0);
+        assertThat(aggregates.watermark()).isEqualTo(HOUR.plusSeconds(3600).toEpochMilli());
+        assertThat(template.hasKey(OrderAggregates.minuteKey(HOUR.toEpochMilli()))).isFalse();
+        assertThat(template.hasKey(OrderAggregates.minuteKey(HOUR.plusSeconds(3600).toEpochMilli()))).isTrue();
+        assertThat(aggregates.rollUp(HOUR.plusSeconds(3600 + 600))).isZero();
+
+        // placed late for a rolled up hour, goes to the hour bucket
+        place(HOUR.plusSeconds(20), 1, "bran");
+
+        assertThat(aggregates.buckets(OrderAggregates.Granularity.HOUR, HOUR, HOUR.plusSeconds(7200)))
+                .containsExactly(new OrderBucket(HOUR, 3, 4, 3), new OrderBucket(HOUR.plusSeconds(3600), 1, 1, 1));
+        assertThat(aggregates.total(OrderAggregates.Granularity.HOUR, HOUR, HOUR.plusSeconds(7200)).getCustomers())
+                .isEqualTo(4);
+        Long ttl = template.getExpire(OrderAggregates.hourKey(HOUR.toEpochMilli()));
+        assertThat(ttl).isGreaterThan(0);
+    }
+
+    /**
+     * After the rollup stopped for longer than the minute retention, the hours whose minutes expired are counted and
+     * skipped.
+     */
+    @Test
+    public void countsHoursExpiredBeforeRollup() {
+        template.opsForValue().set(OrderAggregates.WATERMARK_KEY, String.valueOf(HOUR.minus(3, ChronoUnit.DAYS).toEpochMilli()));
+        place(HOUR.plusSeconds(10), 2, "arya");
+        long expired = aggregates.getExpiredHours();
+
+        assertThat(aggregates.rollUp(HOUR.plusSeconds(3600 + 600))).isEqualTo(47);
+        assertThat(aggregates.getExpiredHours() - expired).isEqualTo(26);
+        assertThat(aggregates.watermark()).isEqualTo(HOUR.plusSeconds(3600).toEpochMilli());
+        assertThat(aggregates.buckets(OrderAggregates.Granularity.HOUR, HOUR, HOUR.plusSeconds(3600)))
+                .containsExactly(new OrderBucket(HOUR, 1, 2, 1));
+    }
+
+    @Test
+    public void endpointReadsBucketRanges() {
+        place(HOUR.plusSeconds(10), 2, "arya");
+
+        Map<String, Object> result = endpoint.aggregates("hour", HOUR.toString(), HOUR.plusSeconds(3 * 3600).toString());
+
+        assertThat(result.get("granularity")).isEqualTo(OrderAggregates.Granularity.HOUR);
+        assertThat(result.get("total")).isEqualTo(new OrderBucket(HOUR, 1, 2, 1));
+        assertThat((List<?>) result.get("buckets")).hasSize(3);
+    }
+
+    private void place(Instant when, int lineItems, String customerId) {
+        List<LineItem> items = new ArrayList<>();
+        for (int i = 0; i < lineItems; i++) {
+            items.add(new LineItem(null, null, "item " + i));
+        }
+        orderService.placeOrder(new Order(null, Date.from(when), null), items, customerId);
+    }
+}
@@ -0,0 +1,183 @@
+package com.bhagat.redis.bloom;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import com.bhagat.redis.service.OrderService;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class BloomFiltersTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    LettuceConnectionFactory connectionFactory;
+    @Autowired
+    PersonRepository repository;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    BloomFilters bloomFilters;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    @Test
+    public void rulesOutIdsNeverSaved() {
+        Person person = repository.save(new Person("arya", "stark", null));
+        BloomFilter filter = bloomFilters.getFilter(Person.class);
+        long absent = filter.getAbsent();
+
+        assertThat(repository.findById(person.getId())).isPresent();
+        assertThat(repository.existsById(person.getId())).isTrue();
+        assertThat(repository.findById(UUID.randomUUID().toString())).isEmpty();
+        assertThat(repository.existsById(UUID.randomUUID().toString())).isFalse();
+        assertThat(filter.getAbsent()).isEqualTo(absent + 2);
+    }
+
+    /**
+     * The pipelined saveAll adds the ids of a chunk at once, without repository events.
+     */
+    @Test
+    public void addsIdsSavedInBulk() {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            persons.add(new Person("arya-" + i, "stark", null));
+        }
+        repository.saveAll(persons);
+
+        BloomFilter otherNode = new BloomFilter(connectionFactory, "persons", new BloomFilterProperties.Filter());
+        assertThat(persons).allMatch(person -> otherNode.mightContain(person.getId()));
+        assertThat(persons).allMatch(person -> bloomFilters.mightContain(Person.class, person.getId()));
+    }
+
+    /**
+     * Another node only has the ids in Redis, not in its local copy.
+     */
+    @Test
+    public void seesIdsAddedByOtherNodes() {
+        Person person = repository.save(new Person("sansa", "stark", null));
+        BloomFilter otherNode = new BloomFilter(connectionFactory, "persons", new BloomFilterProperties.Filter());
+
+        assertThat(otherNode.mightContain(person.getId())).isTrue();
+        assertThat(otherNode.mightContain(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    public void rebuildsMissingBitmapFromKeyspace() {
+        Person person = repository.save(new Person("bran", "stark", null));
+        BloomFilter filter = bloomFilters.getFilter(Person.class);
+        operations.execute((RedisConnection connection) -> connection.del(
+                BloomFilter.key("persons", filter.getNumBits(), filter.getNumHashes()).getBytes()));
+
+        BloomFilter restarted = new BloomFilter(connectionFactory, "persons", new BloomFilterProperties.Filter());
+        restarted.load();
+
+        assertThat(restarted.getApproximateCount()).isEqualTo(1);
+        assertThat(new BloomFilter(connectionFactory, "persons", new BloomFilterProperties.Filter())
+                .mightContain(person.getId())).isTrue();
+    }
+
+    /**
+     * A filter sized differently does not misread the bitmap of the current sizing, it builds its own.
+     */
+    @Test
+    public void rebuildsBitmapOfAnotherSizing() {
+        Person person = repository.save(new Person("jon", "snow", null));
+        BloomFilterProperties.Filter smaller = new BloomFilterProperties.Filter();
+        smaller.setExpectedInsertions(100);
+        BloomFilterProperties.Filter larger = new BloomFilterProperties.Filter();
+        larger.setExpectedInsertions(10_000_000);
+
+        for (BloomFilterProperties.Filter properties : new BloomFilterProperties.Filter[]{smaller, larger}) {
+            BloomFilter resized = new BloomFilter(connectionFactory, "persons", properties);
+            resized.load();
+            assertThat(resized.getApproximateCount()).isEqualTo(1);
+            assertThat(resized.mightContain(person.getId())).isTrue();
+        }
+    }
+
+    @Test
+    public void keepsConfiguredFalsePositiveRate() {
+        BloomFilterProperties.Filter properties = new BloomFilterProperties.Filter();
+        properties.setExpectedInsertions(2_000);
+        properties.setFalsePositiveRate(0.01);
+        BloomFilter filter = new BloomFilter(connectionFactory, "test", properties);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ids.add("id-" + i);
+        }
+        filter.putAll(ids);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 5_000; i++) {
+            falsePositives += filter.mightContain("other-" + i) ? 1 : 0;
+        }
+        assertThat(ids).allMatch(filter::mightContain);
+        assertThat(falsePositives / 5_000.0).isLessThan(0.03);
+        assertThat(filter.getFalsePositiveRate()).isCloseTo(0.01, within(0.005));
+        // 9.6 bits per id
+        assertThat(filter.getBytesPerMillionIds()).isCloseTo(1_198_000, within(1_000.0));
+    }
+
+    /**
+     * An order id ruled out does not run the slow loader.
+     */
+    @Test(timeout = 5_000)
+    public void skipsLoaderOfUnknownOrders() {
+        assertThat(orderService.byId(Long.MAX_VALUE)).isNull();
+    }
+
+    @Test
+    public void remembersMissingIdsUntilSaved() {
+        Person person = new Person("rickon", "stark", null);
+        person.setId("rickon");
+        bloomFilters.put(Person.class, person.getId());
+
+        assertThat(repository.findById(person.getId())).isEmpty();
+        assertThat(bloomFilters.mightContain(Person.class, person.getId())).isFalse();
+
+        repository.save(person);
+        assertThat(repository.findById(person.getId())).isPresent();
+        assertThat(bloomFilters.getFilter(Order.class)).isNotNull();
+    }
+}
@@ -0,0 +1,92 @@
+package com.bhagat.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheInvalidationChannelTest {
+    private static final String CHANNEL = "cache-invalidation";
+
+    private final RedisConnection connection = mock(RedisConnection.class);
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEntry> near = Caffeine.newBuilder().build();
+    private CacheInvalidationChannel channel;
+    private TwoTierCache cache;
+
+    @Before
+    public void setUp() {
+        RedisConnectionFactory cf = mock(RedisConnectionFactory.class);
+        when(cf.getConnection()).thenReturn(connection);
+        // routed by cache name like TwoTierCacheManager
+        channel = new CacheInvalidationChannel(cf, CHANNEL, (cacheName, key) -> {
+            if (cache.getName().equals(cacheName)) {
+                cache.evictNear(key);
+            }
+        });
+        TwoTierCacheProperties.CacheSpec spec = new TwoTierCacheProperties.CacheSpec();
+        spec.setLeaseTime(Duration.ofSeconds(5));
+        cache = new TwoTierCache("order-by-id", near, new ConcurrentMapCache("order-by-id"), spec, mock(LoadLease.class),
+                channel, Runnable::run);
+        cache.put(1L, "order-1");
+        cache.put(2L, "order-2");
+    }
+
+    /**
+     * The evictions this node publishes, the puts of the set up included, come back on its own subscription and must
+     * not drop what it just wrote.
+     */
+    @Test
+    public void ignoresMessagesOfThisNode() {
+        channel.publish("order-by-id", null);
+
+        ArgumentCaptor<byte[]> published = ArgumentCaptor.forClass(byte[].class);
+        verify(connection, times(3)).publish(any(byte[].class), published.capture());
+        for (byte[] body : published.getAllValues()) {
+            channel.onMessage(new DefaultMessage(bytes(CHANNEL), body), null);
+        }
+        assertThat(near.asMap()).containsOnlyKeys("1", "2");
+    }
+
+    @Test
+    public void remoteKeyEvictsOnlyThatNearEntry() {
+        channel.onMessage(message("other-node order-by-id 1"), null);
+
+        assertThat(near.asMap()).containsOnlyKeys("2");
+    }
+
+    @Test
+    public void remoteMessageWithoutKeyClearsTheNearCache() {
+        channel.onMessage(message("other-node order-by-id"), null);
+
+        assertThat(near.asMap()).isEmpty();
+    }
+
+    @Test
+    public void remoteMessageOfAnotherCacheIsIgnored() {
+        channel.onMessage(message("other-node person-by-id 1"), null);
+
+        assertThat(near.asMap()).containsOnlyKeys("1", "2");
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(bytes(CHANNEL), bytes(body));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,142 @@
+package com.bhagat.redis.cache;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class EvictingRedisCacheWriterTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    LettuceConnectionFactory connectionFactory;
+    @Autowired
+    StringRedisTemplate template;
+
+    private final TwoTierCacheProperties properties = new TwoTierCacheProperties();
+    private TwoTierCacheManager cacheManager;
+
+    @Before
+    @After
+    public void setUp() {
+        template.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+        if (cacheManager != null) {
+            cacheManager.destroy();
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntriesBeyondBudget() {
+        spec("budgeted").setMaxEntries(3);
+        Cache cache = cacheManager().getCache("budgeted");
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        assertThat(cache.get("a")).isNotNull();
+        cache.put("d", "4");
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.get("d")).isNotNull();
+        assertThat(template.opsForZSet().zCard(EvictingRedisCacheWriter.LRU_KEY_PREFIX + "budgeted")).isEqualTo(3);
+    }
+
+    @Test
+    public void spreadsExpiriesOverJitter() {
+        spec("jittered").setTimeToLive(Duration.ofSeconds(100));
+        spec("jittered").setTimeToLiveJitter(Duration.ofSeconds(50));
+        Cache cache = cacheManager().getCache("jittered");
+        Set<Long> expiries = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i);
+            Long ttl = template.getExpire("jittered::" + i, TimeUnit.SECONDS);
+            assertThat(ttl).isBetween(99L, 150L);
+            expiries.add(ttl);
+        }
+        assertThat(expiries.size()).isGreaterThan(1);
+    }
+
+    @Test
+    public void skipsNullValuesWhenDisabled() {
+        spec("no-nulls").setCacheNullValues(false);
+        Cache cache = cacheManager().getCache("no-nulls");
+
+        String loaded = cache.get(1L, () -> null);
+        assertThat(loaded).isNull();
+        assertThat(template.hasKey("no-nulls::1")).isFalse();
+        cache.put(2L, "order-2");
+        cache.put(2L, null);
+        assertThat(cache.get(2L)).isNull();
+    }
+
+    @Test
+    public void evictsEntriesMatchingPattern() {
+        spec("budgeted").setMaxEntries(100);
+        Cache cache = cacheManager().getCache("budgeted");
+        for (int i = 0; i < 2_500; i++) {
+            cache.put("order:" + i, i);
+        }
+        cache.put("person:1", 1);
+
+        ((TwoTierCache) cache).evictMatching("order:*");
+
+        assertThat(template.keys("budgeted::*")).containsOnly("budgeted::person:1");
+        assertThat(template.opsForZSet().range(EvictingRedisCacheWriter.LRU_KEY_PREFIX + "budgeted", 0, -1))
+                .containsOnly("budgeted::person:1");
+        assertThat(cache.get("person:1")).isNotNull();
+        assertThat(cache.get("order:1")).isNull();
+    }
+
+    private TwoTierCacheProperties.CacheSpec spec(String name) {
+        return properties.getCaches().computeIfAbsent(name, n -> new TwoTierCacheProperties.CacheSpec());
+    }
+
+    private TwoTierCacheManager cacheManager() {
+        properties.getNear().setEnabled(false);
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig();
+        RedisCacheManager redisCacheManager = RedisCacheManager
+                .builder(new EvictingRedisCacheWriter(connectionFactory, properties))
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(properties.toRedisCacheConfigurations(defaults))
+                .build();
+        cacheManager = new TwoTierCacheManager(redisCacheManager, connectionFactory, properties);
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+}
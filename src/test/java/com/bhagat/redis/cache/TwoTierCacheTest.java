@@ -0,0 +1,190 @@
+package com.bhagat.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TwoTierCacheTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("order-by-id");
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Concurrent misses for the same key share one loader invocation.
+     */
+    @Test
+    public void concurrentMissesRunLoaderOnce() throws Exception {
+        TwoTierCache cache = cache(lease(true));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(1L, slowLoader("order-1"));
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("order-1");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(remote.get(1L)).isNotNull();
+    }
+
+    /**
+     * A node not holding the lease waits for the value computed by the lease holder.
+     */
+    @Test
+    public void waitsForLeaseHolderOnAnotherNode() throws Exception {
+        TwoTierCache cache = cache(lease(false));
+        Future<String> result = executor.submit(() -> cache.get(1L, slowLoader("mine")));
+        Thread.sleep(100);
+        remote.put(1L, new CacheEntry("theirs", 200, 0));
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("theirs");
+        assertThat(loads.get()).isZero();
+    }
+
+    /**
+     * A caller interrupted while another node holds the lease gets a failed load and keeps its interrupt status.
+     */
+    @Test
+    public void interruptFailsWaitForLease() throws Exception {
+        TwoTierCache cache = cache(lease(false));
+        Future<Boolean> result = executor.submit(() -> {
+            Thread.currentThread().interrupt();
+            try {
+                cache.get(1L, slowLoader("mine"));
+                return false;
+            } catch (Cache.ValueRetrievalException ex) {
+                return ex.getCause() instanceof InterruptedException && Thread.currentThread().isInterrupted();
+            }
+        });
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(loads.get()).isZero();
+    }
+
+    /**
+     * A miss does not join an early refresh that gives up because another node holds the lease.
+     */
+    @Test
+    public void missDoesNotJoinAbandonedRefresh() throws Exception {
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch otherNodeDone = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        TwoTierCache cache = cache(new LoadLease() {
+            @Override
+            public boolean tryAcquire(String cacheName, String key, Duration leaseTime) {
+                if (attempts.getAndIncrement() > 0) {
+                    return true;
+                }
+                refreshing.countDown();
+                try {
+                    otherNodeDone.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+
+            @Override
+            public void release(String cacheName, String key) {
+            }
+        }, 1);
+        remote.put(1L, new CacheEntry("stale", 200, System.currentTimeMillis() - 1));
+        assertThat(cache.get(1L, slowLoader("refreshed"))).isEqualTo("stale");
+        assertThat(refreshing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        remote.clear();
+        cache.evictNear(null);
+        Future<String> result = executor.submit(() -> cache.get(1L, slowLoader("fresh")));
+        Thread.sleep(50);
+        otherNodeDone.countDown();
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("fresh");
+    }
+
+    @Test
+    public void servesRepeatedReadsFromNearTier() {
+        TwoTierCache cache = cache(lease(true));
+        cache.get(1L, slowLoader("order-1"));
+        remote.clear();
+        assertThat(cache.get(1L, slowLoader("reloaded"))).isEqualTo("order-1");
+        assertThat(cache.getStatistics().getNearHits()).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void publishesTierAndLoadMetrics() {
+        TwoTierCache cache = cache(lease(true));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new TwoTierCacheMetrics(cache, Tags.empty()).bindTo(registry);
+        cache.get(1L, slowLoader("order-1"));
+        cache.get(1L, slowLoader("order-1"));
+
+        assertThat(registry.get("cache.gets").tags("cache", "order-by-id", "result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.tier.gets").tags("tier", "near", "result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.puts").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("cache.load").tags("result", "success").functionTimer().count()).isEqualTo(1);
+        assertThat(registry.get("cache.load").tags("result", "success").functionTimer().totalTime(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(200);
+    }
+
+    private TwoTierCache cache(LoadLease lease) {
+        return cache(lease, 0);
+    }
+
+    private TwoTierCache cache(LoadLease lease, double earlyRefreshBeta) {
+        TwoTierCacheProperties.CacheSpec spec = new TwoTierCacheProperties.CacheSpec();
+        spec.setLeaseTime(Duration.ofSeconds(5));
+        spec.setEarlyRefreshBeta(earlyRefreshBeta);
+        return new TwoTierCache("order-by-id", Caffeine.newBuilder().maximumSize(100).build(), remote, spec, lease,
+                mock(CacheInvalidationChannel.class), executor);
+    }
+
+    private Callable<String> slowLoader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            Thread.sleep(200);
+            return value;
+        };
+    }
+
+    private static LoadLease lease(boolean granted) {
+        return new LoadLease() {
+            @Override
+            public boolean tryAcquire(String cacheName, String key, Duration leaseTime) {
+                return granted;
+            }
+
+            @Override
+            public void release(String cacheName, String key) {
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.bhagat.redis.cart;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.ShoppingCart;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class CartStoreTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    CartStore carts;
+    @Autowired
+    ReactiveCartStore reactiveCarts;
+    @Autowired
+    StringRedisTemplate stringRedisTemplate;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    /**
+     * Each order is appended as its own list entry, the list expires like the session.
+     */
+    @Test
+    public void appendsOrdersAsListEntries() {
+        ShoppingCart cart = new ShoppingCart();
+        for (long i = 1; i <= 30; i++) {
+            assertThat(carts.addOrder(cart, new Order(i, new Date(), Collections.emptyList()))).isEqualTo(i);
+        }
+
+        String key = "carts:" + cart.getId() + ":orders";
+        assertThat(stringRedisTemplate.opsForList().size(key)).isEqualTo(30);
+        assertThat(stringRedisTemplate.getExpire(key)).isPositive();
+        assertThat(carts.size(cart)).isEqualTo(30);
+        assertThat(carts.getOrders(cart, 0, 3).stream().map(Order::getId).collect(Collectors.toList()))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(carts.getLastOrders(cart, 2).stream().map(Order::getId).collect(Collectors.toList()))
+                .containsExactly(29L, 30L);
+    }
+
+    /**
+     * The expiry is set once the list exists, after the push that created it.
+     */
+    @Test
+    public void reactiveStoreExpiresTheListItCreates() {
+        ShoppingCart cart = new ShoppingCart();
+        assertThat(reactiveCarts.addOrder(cart, new Order(1L, new Date(), Collections.emptyList())).block()).isEqualTo(1);
+
+        assertThat(stringRedisTemplate.getExpire("carts:" + cart.getId() + ":orders")).isPositive();
+        assertThat(reactiveCarts.size(cart).block()).isEqualTo(1);
+        assertThat(reactiveCarts.getOrders(cart, 0, 10).map(Order::getId).collectList().block()).containsExactly(1L);
+    }
+
+    @Test
+    public void clearRemovesOrders() {
+        ShoppingCart cart = new ShoppingCart();
+        carts.addOrder(cart, new Order(1L, new Date(), Collections.emptyList()));
+        carts.clear(cart);
+
+        assertThat(carts.size(cart)).isZero();
+        assertThat(carts.getLastOrders(cart, 20)).isEmpty();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bhagat.redis.connection;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false", "app.redis.pipeline-write-batch-size=7"})
+public class ConnectionFactoriesTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    DedicatedConnectionFactory dedicatedConnectionFactory;
+    @Autowired
+    ReplicaConnectionFactory replicaConnectionFactory;
+    @Autowired
+    LettuceConnectionFactory redisConnectionFactory;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    /**
+     * A closed dedicated connection goes back to the pool, auto flush restored, instead of being closed.
+     */
+    @Test
+    public void reusesDedicatedConnections() {
+        Object first;
+        try (ManualFlushPipeline pipeline = ManualFlushPipeline.open(dedicatedConnectionFactory)) {
+            first = pipeline.commands().getStatefulConnection();
+        }
+        RedisConnection connection = dedicatedConnectionFactory.getConnectionFactory().getConnection();
+        try {
+            RedisAsyncCommands<?, ?> commands = (RedisAsyncCommands<?, ?>) connection.getNativeConnection();
+            assertThat(commands.getStatefulConnection()).isSameAs(first);
+            assertThat(connection.ping()).isEqualTo("PONG");
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Commands written in several batches before the flush still come back in order.
+     */
+    @Test
+    public void writesPipelineInBatches() {
+        byte[] key = "counter".getBytes(StandardCharsets.UTF_8);
+        try (ManualFlushPipeline pipeline = ManualFlushPipeline.open(dedicatedConnectionFactory)) {
+            for (int i = 0; i < 50; i++) {
+                pipeline.add(pipeline.commands().incr(key));
+            }
+            List<Object> replies = pipeline.flush();
+
+            assertThat(replies).hasSize(50);
+            assertThat(replies.get(0)).isEqualTo(1L);
+            assertThat(replies.get(49)).isEqualTo(50L);
+        }
+    }
+
+    /**
+     * A pipeline closed in the middle of a transaction, as when a chunk fails to convert, hands a clean connection
+     * to the next user: the transaction is discarded and the commands not flushed are answered.
+     */
+    @Test
+    public void discardsWhatAFailedPipelineLeftOpen() {
+        byte[] counter = "counter".getBytes(StandardCharsets.UTF_8);
+        byte[] discarded = "discarded".getBytes(StandardCharsets.UTF_8);
+        Object first;
+        try (ManualFlushPipeline pipeline = ManualFlushPipeline.open(dedicatedConnectionFactory)) {
+            first = pipeline.commands().getStatefulConnection();
+            pipeline.add(pipeline.commands().incr(counter));
+            pipeline.add(pipeline.commands().multi());
+            pipeline.add(pipeline.commands().set(discarded, counter));
+        }
+        RedisConnection connection = dedicatedConnectionFactory.getConnectionFactory().getConnection();
+        try {
+            RedisAsyncCommands<?, ?> commands = (RedisAsyncCommands<?, ?>) connection.getNativeConnection();
+            assertThat(commands.getStatefulConnection()).isSameAs(first);
+            assertThat(commands.getStatefulConnection().isMulti()).isFalse();
+            assertThat(connection.incr(counter)).isEqualTo(2L);
+            assertThat(connection.exists(discarded)).isFalse();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void readsFromMasterWithoutReadFrom() {
+        assertThat(replicaConnectionFactory.getConnectionFactory()).isSameAs(redisConnectionFactory);
+    }
+}
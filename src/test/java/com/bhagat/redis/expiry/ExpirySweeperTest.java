@@ -0,0 +1,106 @@
+package com.bhagat.redis.expiry;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.index.SortedSetIndexes;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false", "app.expiry.time-to-live.persons=500ms",
+        "app.expiry.sweeper.interval=50ms"})
+public class ExpirySweeperTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    StringRedisTemplate template;
+    @Autowired
+    PersonRepository repository;
+    @Autowired
+    ExpirySweeper sweeper;
+
+    @Before
+    @After
+    public void setUp() {
+        template.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    /**
+     * The 500ms time-to-live is rounded up to the second Redis can expire keys in.
+     */
+    @Test
+    public void appliesConfiguredTimeToLive() {
+        Person person = repository.save(new Person("arya", "stark", null));
+
+        assertThat(sweeper.getKeyspaces()).containsExactly("persons");
+        assertThat(template.getExpire("persons:" + person.getId(), TimeUnit.MILLISECONDS)).isBetween(1L, 1000L);
+    }
+
+    @Test
+    public void sweepsIndexesOfExpiredEntities() throws InterruptedException {
+        Person person = repository.save(new Person("arya", "stark", null));
+        String id = person.getId();
+        assertThat(template.opsForSet().isMember("persons:firstname:arya", id)).isTrue();
+
+        awaitTrue(() -> !template.opsForSet().isMember("persons", id));
+        assertThat(template.opsForSet().isMember("persons:firstname:arya", id)).isFalse();
+        assertThat(template.opsForZSet().score(SortedSetIndexes.sortedIndexKey("persons", "lastname", "stark"), id)).isNull();
+        assertThat(template.hasKey("persons:" + id + ":idx")).isFalse();
+        assertThat(template.opsForZSet().zCard(SortedSetIndexes.prefixIndexKey("persons", "lastname"))).isZero();
+        assertThat(template.opsForHash().hasKey(SortedSetIndexes.prefixMembersKey("persons", "lastname"), id)).isFalse();
+    }
+
+    @Test
+    public void reconcilesLeftoversOfMissedEvents() throws InterruptedException {
+        template.opsForSet().add("persons", "ghost");
+        template.opsForSet().add("persons:firstname:ghost", "ghost");
+        template.opsForSet().add("persons:ghost:idx", "persons:firstname:ghost");
+        Person person = repository.save(new Person("jon", "snow", null));
+        template.persist("persons:" + person.getId());
+
+        sweeper.reconcile();
+
+        awaitTrue(() -> !template.opsForSet().isMember("persons", "ghost"));
+        assertThat(template.hasKey("persons:firstname:ghost")).isFalse();
+        assertThat(template.hasKey("persons:ghost:idx")).isFalse();
+        assertThat(template.opsForSet().isMember("persons", person.getId())).isTrue();
+        assertThat(repository.findById(person.getId())).isPresent();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met within 10s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.bhagat.redis.id;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class BlockIdGeneratorTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    IdGenerators idGenerators;
+    @Autowired
+    PersonRepository personRepository;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    /**
+     * Two generators sharing a counter, as on two nodes, hand out distinct ids with one INCRBY per block.
+     */
+    @Test
+    public void concurrentGeneratorsNeverCollide() throws Exception {
+        List<BlockIdGenerator> nodes = Arrays.asList(
+                new BlockIdGenerator(stringRedisTemplate, "ids:test", 100),
+                new BlockIdGenerator(stringRedisTemplate, "ids:test", 100));
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                BlockIdGenerator node = nodes.get(i % 2);
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 5_000; j++) {
+                        assertThat(seen.add(node.nextId())).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(seen).hasSize(40_000).allMatch(id -> id > 0);
+        assertThat(Long.valueOf(stringRedisTemplate.opsForValue().get("ids:test"))).isBetween(40_000L, 40_200L);
+    }
+
+    @Test
+    public void assignsIdsToNewEntities() {
+        Person person = personRepository.save(new Person("jon", "snow", null));
+
+        assertThat(Long.parseLong(person.getId())).isPositive();
+        assertThat(personRepository.findById(person.getId())).isPresent();
+        assertThat(idGenerators.nextId(Order.class)).isInstanceOf(Long.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bhagat.redis.id;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnowflakeIdGeneratorTest {
+
+    private final AtomicLong now = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000);
+
+    /**
+     * Ids keep increasing when the sequence of a millisecond is exhausted or the clock goes backwards.
+     */
+    @Test
+    public void increasesWhenSequenceOverflowsOrClockGoesBack() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, now::get);
+        Set<Long> seen = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                now.addAndGet(-10);
+            }
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(seen.add(id)).isTrue();
+            previous = id;
+        }
+    }
+
+    @Test
+    public void encodesTimestampAndWorker() {
+        long id = new SnowflakeIdGenerator(7, now::get).nextId();
+        assertThat(id >>> 22).isEqualTo(1_000);
+        assertThat((id >>> 12) & 1023).isEqualTo(7);
+        assertThat(id & 4095).isZero();
+    }
+
+    @Test
+    public void distinctWorkersNeverCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1, now::get);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2, now::get);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(seen.add(first.nextId())).isTrue();
+            assertThat(seen.add(second.nextId())).isTrue();
+        }
+    }
+
+    @Test
+    public void rejectsWorkerIdOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKERS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
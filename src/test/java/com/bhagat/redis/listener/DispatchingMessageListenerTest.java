@@ -0,0 +1,123 @@
+package com.bhagat.redis.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DispatchingMessageListenerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Messages of a channel arrive in order and in batches, a blocked listener on one channel does not hold up
+     * another.
+     */
+    @Test
+    public void deliversInOrderPerChannelWithoutBlockingOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> fast = new CopyOnWriteArrayList<>();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch fastDone = new CountDownLatch(1_000);
+        DispatchingMessageListener listener = new DispatchingMessageListener("test", messages -> {
+            if ("slow".equals(channel(messages.get(0)))) {
+                await(release);
+                return;
+            }
+            batchSizes.add(messages.size());
+            messages.forEach(message -> {
+                fast.add(body(message));
+                fastDone.countDown();
+            });
+        }, executor, 10_000, 100, meterRegistry);
+
+        listener.onMessage(message("slow", "0"), null);
+        for (int i = 0; i < 1_000; i++) {
+            listener.onMessage(message("fast", String.valueOf(i)), null);
+        }
+
+        assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        assertThat(fast).containsExactlyElementsOf(IntStream.range(0, 1_000).mapToObj(String::valueOf).collect(Collectors.toList()));
+        assertThat(batchSizes).allMatch(size -> size <= 100);
+        assertThat(meterRegistry.get("redis.listener.lag").tag("listener", "test").timer().count()).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    public void dropsMessagesWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> overflow = new CopyOnWriteArrayList<>();
+        DispatchingMessageListener listener = new DispatchingMessageListener("test", messages -> await(release),
+                executor, 10, 1, message -> overflow.add(body(message)), meterRegistry);
+
+        for (int i = 0; i < 20; i++) {
+            listener.onMessage(message("channel", String.valueOf(i)), null);
+        }
+
+        assertThat(meterRegistry.get("redis.listener.dropped").counter().count()).isBetween(9.0, 10.0);
+        assertThat(meterRegistry.get("redis.listener.queued").gauge().value()).isBetween(9.0, 10.0);
+        assertThat(overflow).hasSize((int) meterRegistry.get("redis.listener.dropped").counter().count()).contains("19");
+        release.countDown();
+    }
+
+    /**
+     * Drained channels do not keep a queue, so listeners on patterns matching many channels do not grow.
+     */
+    @Test
+    public void discardsDrainedQueues() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(100);
+        DispatchingMessageListener listener = new DispatchingMessageListener("test",
+                messages -> messages.forEach(message -> delivered.countDown()), executor, 10, 10, meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            listener.onMessage(message("channel-" + i, String.valueOf(i)), null);
+        }
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (listener.getLanes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(listener.getLanes()).isZero();
+        assertThat(listener.getQueued()).isZero();
+    }
+
+    private static Message message(String channel, String body) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String channel(Message message) {
+        return new String(message.getChannel(), StandardCharsets.UTF_8);
+    }
+
+    private static String body(Message message) {
+        return new String(message.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bhagat.redis.metrics;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class RedisMetricsTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    PersonRepository repository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    @Test
+    public void timesCommandsAndRepositoryCalls() {
+        long findByIdCalls = findByIdTimer() != null ? findByIdTimer().count() : 0;
+        Person person = new Person();
+        person.setFirstname("eddard");
+        person.setLastname("stark");
+        repository.save(person);
+        repository.findById(person.getId());
+        repository.findByLastname("stark");
+
+        Timer hgetall = meterRegistry.find("redis.commands").tags("command", "HGETALL", "outcome", "SUCCESS").timer();
+        assertThat(hgetall).isNotNull();
+        assertThat(hgetall.count()).isGreaterThan(0);
+        assertThat(meterRegistry.get("redis.commands.active").gauge().value()).isGreaterThanOrEqualTo(0);
+
+        assertThat(findByIdTimer()).isNotNull();
+        assertThat(findByIdTimer().count()).isEqualTo(findByIdCalls + 1);
+        assertThat(meterRegistry.find("redis.repository.invocations")
+                .tags("repository", "PersonRepository", "method", "findByLastname").timer()).isNotNull();
+    }
+
+    @Test
+    public void publishesPoolGauges() {
+        assertThat(meterRegistry.find("redis.pool.max").tag("pool", "shared").gauge()).isNotNull();
+        assertThat(meterRegistry.find("redis.pool.active").tag("pool", "dedicated").gauge()).isNotNull();
+    }
+
+    private Timer findByIdTimer() {
+        return meterRegistry.find("redis.repository.invocations")
+                .tags("repository", "PersonRepository", "method", "findById", "outcome", "SUCCESS").timer();
+    }
+}
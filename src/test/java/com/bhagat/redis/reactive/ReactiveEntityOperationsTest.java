@@ -0,0 +1,116 @@
+package com.bhagat.redis.reactive;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.PersonRepository;
+import com.bhagat.redis.service.OrderService;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class ReactiveEntityOperationsTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    ReactiveEntityOperations reactive;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    PersonRepository personRepository;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    /**
+     * An order placed without blocking reads back with its line items, in order, as the repository writes them.
+     */
+    @Test
+    public void readsOrderWithReferences() {
+        List<LineItem> lineItems = Arrays.asList(new LineItem(null, null, "first"), new LineItem(null, null, "second"));
+        Order placed = orderService.placeOrderAsync(new Order(null, new Date(), null), lineItems).block();
+
+        Order order = reactive.findById(Order.class, placed.getId()).block();
+
+        assertThat(order.getWhen()).isEqualTo(placed.getWhen());
+        assertThat(order.getLineItems()).extracting(LineItem::getDescription).containsExactly("first", "second");
+        assertThat(order.getLineItems()).extracting(LineItem::getOrderId).containsOnly(placed.getId());
+        assertThat(reactive.findByIndex(LineItem.class, "orderId", placed.getId()).collectList().block()).hasSize(2);
+    }
+
+    @Test
+    public void missingEntityIsEmpty() {
+        assertThat(reactive.findById(Order.class, 42L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    public void findsByRangeInOrder() {
+        for (long i = 1; i <= 5; i++) {
+            orderService.placeOrder(new Order(null, new Date(i * 1000), null), Collections.emptyList());
+        }
+
+        List<Date> found = reactive.findByRange(Order.class, "when", Range.closed(2000d, 4000d))
+                .map(Order::getWhen).collectList().block();
+
+        assertThat(found).containsExactly(new Date(2000), new Date(3000), new Date(4000));
+    }
+
+    /**
+     * Lazy references are read eagerly, the entity is complete when emitted.
+     */
+    @Test
+    public void readsIndexedPersonsWithChildren() {
+        Person child = personRepository.save(new Person("bran", "stark", Gender.MALE));
+        Person parent = new Person("eddard", "stark", Gender.MALE);
+        parent.setChildren(Collections.singletonList(child));
+        personRepository.save(parent);
+
+        List<Person> starks = reactive.findByIndex(Person.class, "lastname", "stark").collectList().block();
+        Person eddard = reactive.findById(Person.class, parent.getId()).block();
+
+        assertThat(starks).extracting(Person::getFirstname).containsExactlyInAnyOrder("bran", "eddard");
+        assertThat(eddard.getChildren()).extracting(Person::getFirstname).containsExactly("bran");
+        assertThat(reactive.findAllById(Person.class, Arrays.asList(child.getId(), "missing", parent.getId()))
+                .map(Person::getFirstname).collectList().block()).containsExactly("bran", "eddard");
+    }
+}
@@ -0,0 +1,145 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.service.OrderService;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class OrderRepositoryTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    LineItemRepository lineItemRepository;
+    @Autowired
+    StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    OrderService orderService;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    /**
+     * Referenced line items are read back in their original order, missing ones are skipped.
+     */
+    @Test
+    public void readsReferencedLineItemsInOrder() {
+        List<LineItem> lineItems = new ArrayList<>();
+        for (long i = 1; i <= 12; i++) {
+            lineItems.add(new LineItem(1L, i, "item " + i));
+        }
+        lineItemRepository.saveAll(lineItems);
+        orderRepository.save(new Order(1L, new Date(), lineItems));
+        lineItemRepository.deleteById(5L);
+
+        Order order = orderRepository.findById(1L).get();
+
+        lineItems.remove(4);
+        assertThat(order.getLineItems()).containsExactlyElementsOf(lineItems);
+    }
+
+    @Test
+    public void findsOrdersByTimeRange() {
+        for (long i = 1; i <= 10; i++) {
+            orderRepository.save(new Order(i, new Date(1000 * i), new ArrayList<>()));
+        }
+
+        assertThat(ids(orderRepository.findByWhenBetween(new Date(3000), new Date(6000)))).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(ids(orderRepository.findByWhenAfter(new Date(8000)))).containsExactly(9L, 10L);
+        assertThat(ids(new ArrayList<>(orderRepository.findByWhen(new Date(2000))))).containsExactly(2L);
+        assertThat(ids(orderRepository.findTop100ByOrderByWhenDesc())).startsWith(10L, 9L).hasSize(10);
+
+        Slice<Order> first = orderRepository.findByWhenBetween(new Date(0), new Date(10000), PageRequest.of(0, 4));
+        Slice<Order> last = orderRepository.findByWhenBetween(new Date(0), new Date(10000), PageRequest.of(2, 4));
+        assertThat(ids(first.getContent())).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(ids(last.getContent())).containsExactly(9L, 10L);
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    /**
+     * Updates move the order in the sorted set, deletes remove it through the {@code :idx} helper set.
+     */
+    @Test
+    public void maintainsTimeIndexOnUpdateAndDelete() {
+        orderRepository.save(new Order(1L, new Date(1000), new ArrayList<>()));
+        orderRepository.save(new Order(1L, new Date(5000), new ArrayList<>()));
+
+        assertThat(orderRepository.findByWhenBetween(new Date(0), new Date(2000))).isEmpty();
+        assertThat(stringRedisTemplate.opsForZSet().score("orders:when#range", "1")).isEqualTo(5000d);
+
+        orderRepository.deleteById(1L);
+
+        assertThat(stringRedisTemplate.opsForZSet().zCard("orders:when#range")).isZero();
+    }
+
+    /**
+     * The script writes what the repositories would, and a retry with the same objects writes nothing more.
+     */
+    @Test
+    public void placesOrderWithLineItemsInOneScript() {
+        List<LineItem> lineItems = Arrays.asList(new LineItem(null, null, "iPhone 11"), new LineItem(null, null, "iPad"));
+        Order placed = orderService.placeOrder(new Order(null, new Date(3000), null), lineItems);
+        orderService.placeOrder(placed, lineItems);
+
+        Order order = orderRepository.findById(placed.getId()).get();
+        assertThat(order.getLineItems()).containsExactlyElementsOf(lineItems);
+        assertThat(lineItems).allMatch(lineItem -> placed.getId().equals(lineItem.getOrderId()));
+        assertThat(ids(orderRepository.findByWhenBetween(new Date(0), new Date(5000)))).containsExactly(placed.getId());
+        assertThat(stringRedisTemplate.opsForSet().size("lineItems:orderId:" + placed.getId())).isEqualTo(2);
+        assertThat(lineItemRepository.count()).isEqualTo(2);
+        assertThat(orderRepository.count()).isEqualTo(1);
+
+        orderRepository.deleteById(placed.getId());
+
+        assertThat(stringRedisTemplate.opsForZSet().zCard("orders:when#range")).isZero();
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.bhagat.redis.repository;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Address;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class PersonGeoRepositoryTest {
+
+    /**
+     * Create Redis server instance, GEO commands need Redis 3.2
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost().atLeast("3.2"));
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    PersonRepository repository;
+
+    Person eddard = located(new Person("eddard", "stark", Gender.MALE), "winterfell", 0.10, 0.0);
+    Person robb = located(new Person("robb", "stark", Gender.MALE), "winterfell", 0.20, 0.0);
+    Person sansa = located(new Person("sansa", "stark", Gender.FEMALE), "kings landing", 0.30, 0.0);
+    Person jon = located(new Person("jon", "snow", Gender.MALE), "castle black", 0.0, 1.0);
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    @Test
+    public void findsNearestFirstWithLimit() {
+        repository.saveAll(Arrays.asList(sansa, jon, robb, eddard));
+
+        GeoResults<Person> nearest = repository.findByAddress_LocationNear(new Point(0, 0),
+                new Distance(50, Metrics.KILOMETERS), 2);
+
+        assertThat(persons(nearest)).containsExactly(eddard, robb);
+        assertThat(nearest.getContent().get(0).getDistance().getValue()).isBetween(11.0, 11.2);
+        assertThat(repository.findByAddress_LocationNear(new Point(0, 0), new Distance(50, Metrics.KILOMETERS)))
+                .containsExactly(eddard, robb, sansa);
+    }
+
+    @Test
+    public void findsWithinBox() {
+        repository.saveAll(Arrays.asList(sansa, jon, robb, eddard));
+
+        GeoResults<Person> inside = repository.findByAddress_LocationWithin(
+                new Box(new Point(0.05, -0.1), new Point(0.33, 0.1)), 10);
+
+        assertThat(persons(inside)).containsExactly(robb, eddard, sansa);
+    }
+
+    private static List<Person> persons(GeoResults<Person> results) {
+        return results.getContent().stream().map(GeoResult::getContent).collect(Collectors.toList());
+    }
+
+    private static Person located(Person person, String city, double x, double y) {
+        Address address = new Address();
+        address.setCity(city);
+        address.setLocation(new Point(x, y));
+        person.setAddress(address);
+        return person;
+    }
+}
@@ -1,11 +1,13 @@
 package com.bhagat.redis.repository;
 
 import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.convert.LazyReferenceList;
 import com.bhagat.redis.model.Address;
 import com.bhagat.redis.model.Gender;
 import com.bhagat.redis.model.Person;
 import com.bhagat.redis.test.util.EmbeddedRedisServer;
 import com.bhagat.redis.test.util.RequiresRedisServer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -17,15 +19,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.keyvalue.core.query.KeyValueQuery;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.repository.query.RedisOperationChain;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -48,6 +56,10 @@ public class PersonRepositoryTest {
     RedisOperations<Object, Object> operations;
     @Autowired
     PersonRepository repository;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    RedisKeyValueTemplate keyValueTemplate;
 
     Person eddard = new Person("eddard", "stark", Gender.MALE);
     Person robb = new Person("robb", "stark", Gender.MALE);
@@ -99,6 +111,44 @@ public class PersonRepositoryTest {
         assertThat(aryaAndJon).containsOnly(arya, jon);
     }
 
+    @Test
+    public void countByMultiplePropertiesUsingOr() {
+        flushTestUsers();
+        RedisOperationChain chain = new RedisOperationChain();
+        chain.orSismember("lastname", "snow");
+        chain.orSismember("firstname", "arya");
+        assertThat(keyValueTemplate.count(new KeyValueQuery<>(chain), Person.class)).isEqualTo(2);
+    }
+
+    /**
+     * Zero rows is an empty page, only negative rows mean all.
+     */
+    @Test
+    public void findByIndexesWithZeroRowsIsEmpty() {
+        flushTestUsers();
+        RedisOperationChain chain = new RedisOperationChain();
+        chain.sismember("lastname", "stark");
+        KeyValueQuery<RedisOperationChain> query = new KeyValueQuery<>(chain);
+        query.setRows(0);
+        assertThat(keyValueTemplate.find(query, Person.class)).isEmpty();
+        query.setRows(-1);
+        assertThat(keyValueTemplate.find(query, Person.class)).hasSize(6);
+    }
+
+    /**
+     * Gender is not indexed: the query scans the candidates and is counted as a scan.
+     */
+    @Test
+    public void findByNonIndexedPropertyScans() {
+        flushTestUsers();
+        double scans = meterRegistry.counter("redis.query.scans", "keyspace", "persons", "properties", "gender").count();
+        assertThat(repository.findByGender(Gender.FEMALE)).containsOnly(sansa, arya);
+        assertThat(repository.findByLastnameAndGender("stark", Gender.MALE)).containsOnly(eddard, robb, bran, rickon);
+        assertThat(repository.findByLastnameAndGender("snow", Gender.FEMALE)).isEmpty();
+        assertThat(meterRegistry.counter("redis.query.scans", "keyspace", "persons", "properties", "gender").count())
+                .isEqualTo(scans + 3);
+    }
+
     @Test
     public void findByQueryByExample() {
         flushTestUsers();
@@ -118,6 +168,82 @@ public class PersonRepositoryTest {
         assertThat(page2.getTotalElements()).isEqualTo(6);
     }
 
+    /**
+     * Keyset slices walk the whole index without overlap.
+     */
+    @Test
+    public void findByReturningKeysetSlices() {
+        flushTestUsers();
+        Slice<Person> first = repository.findPersonByLastname(eddard.getLastname(), null, 4);
+        assertThat(first.getNumberOfElements()).isEqualTo(4);
+        assertThat(first.hasNext()).isTrue();
+        String last = first.getContent().get(3).getId();
+        Slice<Person> second = repository.findPersonByLastname(eddard.getLastname(), last, 4);
+        assertThat(second.getNumberOfElements()).isEqualTo(2);
+        assertThat(second.hasNext()).isFalse();
+        List<Person> all = new ArrayList<>(first.getContent());
+        all.addAll(second.getContent());
+        assertThat(all).containsOnly(eddard, robb, sansa, arya, bran, rickon);
+    }
+
+    /**
+     * The prefix index folds case, pages are ordered by last name then id.
+     */
+    @Test
+    public void findByLastnamePrefix() {
+        flushTestUsers();
+        Person starling = repository.save(new Person("clarice", "Starling", Gender.FEMALE));
+        Page<Person> page1 = repository.findByLastnameStartingWith("St", PageRequest.of(0, 4));
+        assertThat(page1.getNumberOfElements()).isEqualTo(4);
+        assertThat(page1.getTotalElements()).isEqualTo(7);
+        assertThat(page1.getContent()).doesNotContain(starling, jon);
+        Page<Person> page2 = repository.findByLastnameStartingWith("st", PageRequest.of(1, 4));
+        assertThat(page2.getContent()).hasSize(3).endsWith(starling);
+        assertThat(repository.findByLastnameStartingWith("starl", PageRequest.of(0, 4))).containsOnly(starling);
+        assertThat(repository.findByLastnameStartingWith("", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(8);
+        assertThat(repository.findByLastnameStartingWith("x", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    /**
+     * Updates move the entity in the prefix index, deletes remove it.
+     */
+    @Test
+    public void prefixIndexFollowsUpdatesAndDeletes() {
+        flushTestUsers();
+        jon.setLastname("targaryen");
+        repository.save(jon);
+        assertThat(repository.findByLastnameStartingWith("sn", PageRequest.of(0, 5))).isEmpty();
+        assertThat(repository.findByLastnameStartingWith("targ", PageRequest.of(0, 5))).containsOnly(jon);
+        repository.delete(jon);
+        assertThat(repository.findByLastnameStartingWith("t", PageRequest.of(0, 5))).isEmpty();
+        assertThat(operations
+                .execute((RedisConnection connection) -> connection.zCard("persons:lastname#prefix".getBytes(CHARSET))))
+                .isEqualTo(6);
+        assertThat(operations
+                .execute((RedisConnection connection) -> connection.hLen("persons:lastname#prefix-members".getBytes(CHARSET))))
+                .isEqualTo(6);
+    }
+
+    /**
+     * Last names equal to the suffixes of the prefix index keys are plain values of the set index.
+     */
+    @Test
+    public void prefixIndexKeysDoNotCollideWithSetIndexes() {
+        Person prefix = repository.save(new Person("a", "prefix", Gender.MALE));
+        Person members = repository.save(new Person("b", "prefix:members", Gender.MALE));
+        assertThat(repository.findByLastname("prefix")).containsOnly(prefix);
+        assertThat(repository.findByLastname("prefix:members")).containsOnly(members);
+        assertThat(repository.findByLastnameStartingWith("pre", PageRequest.of(0, 5))).containsExactly(prefix, members);
+    }
+
+    @Test
+    public void findByReturningStream() {
+        flushTestUsers();
+        try (Stream<Person> starks = repository.streamPersonByLastname(eddard.getLastname())) {
+            assertThat(starks).containsOnly(eddard, robb, sansa, arya, bran, rickon);
+        }
+    }
+
     @Test
     public void findByEmbeddedProperty() {
         Address winterfell = new Address();
@@ -148,6 +274,53 @@ public class PersonRepositoryTest {
         });
     }
 
+    /**
+     * Children are only fetched when the list is first accessed.
+     */
+    @Test
+    public void loadsLazyReferencesOnFirstAccess() {
+        flushTestUsers();
+        eddard.setChildren(Arrays.asList(jon, robb, sansa));
+        repository.save(eddard);
+        Person loaded = repository.findById(eddard.getId()).get();
+        assertThat(loaded.getChildren()).isInstanceOf(LazyReferenceList.class);
+        assertThat(((LazyReferenceList<Person>) loaded.getChildren()).isLoaded()).isFalse();
+        assertThat(loaded.getChildren()).containsExactly(jon, robb, sansa);
+    }
+
+    /**
+     * Saving changed entities in bulk moves them between index sets.
+     */
+    @Test
+    public void saveAllMovesEntitiesBetweenIndexes() {
+        flushTestUsers();
+        jon.setLastname("targaryen");
+        repository.saveAll(Arrays.asList(jon));
+        assertThat(repository.findByLastname("snow")).isEmpty();
+        assertThat(repository.findByLastname("targaryen")).containsOnly(jon);
+        assertThat(repository.findPersonByLastname("targaryen", PageRequest.of(0, 5))).containsOnly(jon);
+        repository.delete(jon);
+        assertThat(operations
+                .execute((RedisConnection connection) -> connection.exists("persons:lastname:targaryen".getBytes(CHARSET))))
+                .isFalse();
+        assertThat(operations
+                .execute((RedisConnection connection) -> connection.exists("persons:lastname#sorted:targaryen".getBytes(CHARSET))))
+                .isFalse();
+    }
+
+    /**
+     * Last names that end like a sorted index key are still plain values of the set index.
+     */
+    @Test
+    public void sortedIndexKeysDoNotCollideWithSetIndexes() {
+        flushTestUsers();
+        Person odd = new Person("odd", "stark:sorted", Gender.MALE);
+        repository.save(odd);
+        assertThat(repository.findByLastname("stark:sorted")).containsOnly(odd);
+        assertThat(repository.findPersonByLastname("stark", PageRequest.of(0, 10))).hasSize(6);
+        assertThat(repository.findPersonByLastname("stark:sorted", PageRequest.of(0, 10))).containsOnly(odd);
+    }
+
     private void flushTestUsers() {
         repository.saveAll(Arrays.asList(eddard, robb, sansa, arya, bran, rickon, jon));
     }
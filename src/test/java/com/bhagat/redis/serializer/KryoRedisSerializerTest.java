@@ -0,0 +1,70 @@
+package com.bhagat.redis.serializer;
+
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KryoRedisSerializerTest {
+
+    private final KryoRedisSerializer serializer = new KryoRedisSerializer(64);
+
+    @Test
+    public void roundTripsEntitiesWithFixedSizeLists() {
+        Order order = new Order(1L, new Date(), Arrays.asList(
+                new LineItem(1L, 2L, "iPhone 11"),
+                new LineItem(1L, 3L, "MacBook Air")));
+        Order read = (Order) serializer.deserialize(serializer.serialize(order));
+        assertThat(read).isEqualTo(order);
+        assertThat(read.getLineItems()).containsExactlyElementsOf(order.getLineItems());
+    }
+
+    @Test
+    public void compressesValuesAboveThreshold() {
+        Order order = new Order(1L, new Date(), Collections.nCopies(50, new LineItem(1L, 2L, "iPad")));
+        byte[] bytes = serializer.serialize(order);
+        assertThat(bytes[0]).isEqualTo(KryoRedisSerializer.LZ4);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(order);
+    }
+
+    @Test
+    public void roundTripsEmptyAndSingletonLists() {
+        Order empty = new Order(1L, new Date(), Collections.emptyList());
+        Order single = new Order(2L, new Date(), Collections.singletonList(new LineItem(2L, 3L, "iPad")));
+        assertThat(serializer.deserialize(serializer.serialize(empty))).isEqualTo(empty);
+        assertThat(serializer.deserialize(serializer.serialize(single))).isEqualTo(single);
+    }
+
+    /**
+     * Payloads naming a type that is not registered are rejected instead of instantiating it.
+     */
+    @Test
+    public void rejectsUnregisteredTypes() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        Output output = new Output(64);
+        output.writeByte(KryoRedisSerializer.PLAIN);
+        kryo.writeClassAndObject(output, new AtomicLong(42));
+
+        assertThatThrownBy(() -> serializer.deserialize(output.toBytes())).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.serialize(new AtomicLong(42))).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    public void readsJdkSerializedValues() {
+        Order order = new Order(1L, new Date(), Collections.emptyList());
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(order);
+        assertThat(serializer.deserialize(legacy)).isEqualTo(order);
+    }
+}
@@ -0,0 +1,77 @@
+package com.bhagat.redis.serializer;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class RedisTemplatesTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Autowired
+    RedisTemplates templates;
+    @Autowired
+    StringRedisTemplate stringTemplate;
+
+    @Before
+    @After
+    public void setUp() {
+        stringTemplate.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    @Test
+    public void writesValuesAsJsonOfTheirType() {
+        RedisTemplate<String, Person> persons = templates.forType(Person.class);
+        Person person = new Person("arya", "stark", Gender.FEMALE);
+        persons.opsForValue().set("person", person);
+        persons.opsForHash().put("persons", "arya", person);
+
+        assertThat(persons.opsForValue().get("person")).isEqualTo(person);
+        assertThat(persons.<String, Person>opsForHash().get("persons", "arya")).isEqualTo(person);
+        assertThat(stringTemplate.opsForValue().get("person")).startsWith("{").contains("\"firstname\":\"arya\"");
+        assertThat(templates.forType(Person.class)).isSameAs(persons);
+    }
+
+    @Test
+    public void passesRawPayloadsThrough() {
+        byte[] payload = {0, 1, 2, (byte) 0xFF};
+        templates.forType(byte[].class).opsForValue().set("raw", payload);
+        templates.forType(String.class).opsForValue().set("text", "hello");
+
+        assertThat(templates.forType(byte[].class).opsForValue().get("raw")).containsExactly(payload);
+        assertThat(stringTemplate.opsForValue().get("text")).isEqualTo("hello");
+        assertThat(templates.serializer(byte[].class).serialize(payload)).isSameAs(payload);
+        assertThat(templates.serializer(String.class).deserialize("hello".getBytes(StandardCharsets.UTF_8))).isEqualTo("hello");
+    }
+}
@@ -0,0 +1,136 @@
+package com.bhagat.redis.stream;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.connection.DedicatedConnectionFactory;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false"})
+public class StreamConsumerTest {
+
+    /**
+     * Create Redis server instance, streams need Redis 5.0
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost().atLeast("5.0"));
+
+    @Autowired
+    RedisOperations<Object, Object> operations;
+    @Autowired
+    StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    LettuceConnectionFactory connectionFactory;
+    @Autowired
+    DedicatedConnectionFactory dedicatedConnectionFactory;
+    @Autowired
+    StreamPublisher publisher;
+
+    @Before
+    @After
+    public void setUp() {
+        operations.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+    }
+
+    @Test
+    public void deliversAndAcknowledgesEveryEntry() throws Exception {
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(5_000);
+        StreamConsumer consumer = consumer((id, body) -> {
+            received.add(body.get("n"));
+            done.countDown();
+        }, properties());
+        consumer.start();
+        try {
+            List<Map<String, String>> bodies = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                bodies.add(Collections.singletonMap("n", String.valueOf(i)));
+            }
+            publisher.publishAll("test-stream", bodies);
+
+            assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            consumer.stop();
+        }
+        assertThat(received).hasSize(5_000);
+        assertThat(pendingCount()).isZero();
+    }
+
+    /**
+     * An entry whose handler failed stays pending and is delivered again once idle.
+     */
+    @Test
+    public void reclaimsEntriesLeftPending() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        CountDownLatch redelivered = new CountDownLatch(1);
+        StreamProperties.Consumer properties = properties();
+        properties.setClaimMinIdle(Duration.ofMillis(200));
+        properties.setClaimInterval(Duration.ofMillis(100));
+        StreamConsumer consumer = consumer((id, body) -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("first delivery fails");
+            }
+            redelivered.countDown();
+        }, properties);
+        consumer.start();
+        try {
+            publisher.publish("test-stream", Collections.singletonMap("n", "1"));
+
+            assertThat(redelivered.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            consumer.stop();
+        }
+        assertThat(pendingCount()).isZero();
+    }
+
+    private StreamConsumer consumer(StreamMessageHandler handler, StreamProperties.Consumer properties) {
+        return new StreamConsumer(connectionFactory, dedicatedConnectionFactory, "test-stream", "test-group", handler, properties);
+    }
+
+    private static StreamProperties.Consumer properties() {
+        StreamProperties.Consumer properties = new StreamProperties.Consumer();
+        properties.setBlock(Duration.ofMillis(100));
+        properties.setAckInterval(Duration.ofMillis(20));
+        return properties;
+    }
+
+    private long pendingCount() {
+        List<?> summary = stringRedisTemplate.execute((RedisCallback<List<?>>) connection ->
+                (List<?>) connection.execute("XPENDING", "test-stream".getBytes(), "test-group".getBytes()));
+        return (Long) summary.get(0);
+    }
+}
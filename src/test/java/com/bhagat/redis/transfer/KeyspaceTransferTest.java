@@ -0,0 +1,125 @@
+package com.bhagat.redis.transfer;
+
+import com.bhagat.redis.RedisAppMain;
+import com.bhagat.redis.model.Gender;
+import com.bhagat.redis.model.LineItem;
+import com.bhagat.redis.model.Order;
+import com.bhagat.redis.model.Person;
+import com.bhagat.redis.repository.LineItemRepository;
+import com.bhagat.redis.repository.OrderRepository;
+import com.bhagat.redis.repository.PersonRepository;
+import com.bhagat.redis.test.util.EmbeddedRedisServer;
+import com.bhagat.redis.test.util.RequiresRedisServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = RedisAppMain.class)
+@TestPropertySource(properties = {"create.enabled=false", "app.transfer.batch-size=7"})
+public class KeyspaceTransferTest {
+
+    /**
+     * Create Redis server instance
+     */
+    public static @ClassRule
+    RuleChain rules = RuleChain
+            .outerRule(EmbeddedRedisServer.runningAt(6379).suppressExceptions())
+            .around(RequiresRedisServer.onLocalhost());
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    KeyspaceTransfer transfer;
+    @Autowired
+    TransferProperties properties;
+    @Autowired
+    StringRedisTemplate template;
+    @Autowired
+    PersonRepository personRepository;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    LineItemRepository lineItemRepository;
+
+    @Before
+    @After
+    public void setUp() {
+        template.execute((RedisConnection connection) -> {
+            connection.flushDb();
+            return "OK";
+        });
+        properties.setCompress(true);
+    }
+
+    @Test
+    public void restoresEntitiesAndIndexes() throws IOException {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            persons.add(new Person("person" + i, i % 2 == 0 ? "stark" : "Snow", i % 2 == 0 ? Gender.MALE : Gender.FEMALE));
+        }
+        personRepository.saveAll(persons);
+        List<LineItem> lineItems = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            lineItems.add(new LineItem(1L, i, "item " + i));
+        }
+        lineItemRepository.saveAll(lineItems);
+        orderRepository.save(new Order(1L, new Date(1000), lineItems));
+        Path file = folder.getRoot().toPath().resolve("export.bin");
+
+        assertThat(transfer.exportTo(file)).isEqualTo(24);
+        setUp();
+        assertThat(transfer.importFrom(file)).isEqualTo(24);
+
+        assertThat(personRepository.count()).isEqualTo(20);
+        assertThat(personRepository.findById(persons.get(3).getId())).contains(persons.get(3));
+        assertThat(personRepository.findByLastname("stark")).hasSize(10);
+        assertThat(personRepository.findPersonByLastname("Snow", PageRequest.of(0, 20)).getTotalElements()).isEqualTo(10);
+        assertThat(personRepository.findByLastnameStartingWith("sn", PageRequest.of(0, 20)).getTotalElements()).isEqualTo(10);
+        assertThat(orderRepository.findById(1L).get().getLineItems()).containsExactlyElementsOf(lineItems);
+        assertThat(orderRepository.findByWhenBetween(new Date(0), new Date(2000))).hasSize(1);
+    }
+
+    @Test
+    public void replacesExistingEntities() throws IOException {
+        Person arya = personRepository.save(new Person("arya", "stark", Gender.FEMALE));
+        Path file = folder.getRoot().toPath().resolve("export.bin");
+        properties.setCompress(false);
+        transfer.exportTo(file);
+        arya.setLastname("targaryen");
+        personRepository.save(arya);
+
+        assertThat(Files.size(file)).isGreaterThan(6);
+        assertThat(transfer.importFrom(file)).isEqualTo(1);
+
+        assertThat(personRepository.findById(arya.getId()).get().getLastname()).isEqualTo("stark");
+        assertThat(personRepository.findByLastname("targaryen")).isEmpty();
+        assertThat(personRepository.findByLastnameStartingWith("t", PageRequest.of(0, 5))).isEmpty();
+        assertThat(personRepository.findPersonByLastname("targaryen", PageRequest.of(0, 5)).getTotalElements()).isZero();
+        assertThat(personRepository.findPersonByLastname("stark", PageRequest.of(0, 5))).extracting(Person::getId)
+                .containsOnly(arya.getId());
+        assertThat(personRepository.findByLastname("stark")).extracting(Person::getId).containsOnly(arya.getId());
+    }
+}